@@ -0,0 +1,91 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessBenchmark {
+    @Param({"WIDE", "DEEP"})
+    public OwenCorpus.Shape shape;
+
+    @Param({"10000"})
+    public int size;
+
+    private OwenElement root;
+    private String[] keys;
+    private OwenElement numbers;
+
+    @Setup
+    public void setup() {
+        this.root = OwenCorpus.generate(this.shape, this.size, false);
+        this.keys = this.root.asMap().keySet().toArray(new String[0]);
+        this.numbers = new OwenElement();
+
+        for (int i = 0; i < this.keys.length; ++i) {
+            this.numbers.put(this.keys[i], Integer.toString(i * 7919));
+        }
+    }
+
+    @Benchmark
+    public void lookupKeys(Blackhole blackhole) {
+        for (String key : this.keys) {
+            blackhole.consume(this.root.get(key));
+        }
+    }
+
+    @Benchmark
+    public long parseInts() {
+        long sum = 0;
+
+        for (String key : this.keys) {
+            sum += Integer.parseInt(this.numbers.get(key).asString());
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public long getInts() {
+        long sum = 0;
+
+        for (String key : this.keys) {
+            sum += this.numbers.getInt(key, 0);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public int walkTree() {
+        List<OwenElement> stack = new ArrayList<>();
+        stack.add(this.root);
+
+        int literals = 0;
+
+        while (!stack.isEmpty()) {
+            OwenElement element = stack.remove(stack.size() - 1);
+
+            if (element.isObject()) {
+                for (Map.Entry<String, OwenElement> entry : element.asMap().entrySet()) {
+                    stack.add(entry.getValue());
+                }
+            } else if (element.isArray()) {
+                stack.addAll(element.asList());
+            } else if (element.isLiteral()) {
+                literals += element.asString().length();
+            }
+        }
+
+        return literals;
+    }
+}
@@ -0,0 +1,64 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+    @Param({"2000"})
+    public int files;
+
+    @Param({"100"})
+    public int size;
+
+    private Path directory;
+    private final List<Path> paths = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("owen-batch");
+
+        for (int i = 0; i < this.files; ++i) {
+            Path path = this.directory.resolve(i + ".owen");
+            OwenCorpus.Shape shape = OwenCorpus.Shape.values()[i % OwenCorpus.Shape.values().length];
+
+            Files.write(path, OwenCorpus.text(shape, this.size, true).getBytes(StandardCharsets.UTF_8));
+            this.paths.add(path);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void parseSequential(Blackhole blackhole) throws IOException, ParseException {
+        for (Path path : this.paths) {
+            blackhole.consume(Owen.parse(path));
+        }
+    }
+
+    @Benchmark
+    public OwenBatch parseAll() {
+        return Owen.parseAll(this.paths);
+    }
+}
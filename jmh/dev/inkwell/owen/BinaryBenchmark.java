@@ -0,0 +1,76 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a document from its text and from its binary encoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryBenchmark {
+    @Param({"WIDE", "DEEP", "LONG_LITERALS"})
+    public OwenCorpus.Shape shape;
+
+    @Param({"10000"})
+    public int size;
+
+    private String text;
+    private OwenElement root;
+    private byte[] binary;
+
+    @Setup
+    public void setup() {
+        this.text = OwenCorpus.text(this.shape, this.size, true);
+        this.root = OwenCorpus.generate(this.shape, this.size, true);
+        this.binary = Owen.toBinary(this.root);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws ParseException {
+        visit(Owen.parse(this.text), blackhole);
+    }
+
+    @Benchmark
+    public void readBinary(Blackhole blackhole) throws ParseException {
+        visit(Owen.readBinary(this.binary), blackhole);
+    }
+
+    /**
+     * Reading one member, which decodes only the objects on the way to it.
+     */
+    @Benchmark
+    public OwenElement readBinaryMember() throws ParseException {
+        OwenElement root = Owen.readBinary(this.binary);
+        Map<String, OwenElement> members = root.asMap();
+
+        return members.get(members.keySet().iterator().next());
+    }
+
+    @Benchmark
+    public byte[] writeBinary() {
+        return Owen.toBinary(this.root);
+    }
+
+    private static void visit(OwenElement element, Blackhole blackhole) {
+        if (element.isObject()) {
+            for (OwenElement child : element.asMap().values()) {
+                visit(child, blackhole);
+            }
+        } else if (element.isArray()) {
+            for (OwenElement child : element.asList()) {
+                visit(child, blackhole);
+            }
+        } else if (element.isLiteral()) {
+            blackhole.consume(element.asString());
+        }
+    }
+}
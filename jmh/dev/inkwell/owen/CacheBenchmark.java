@@ -0,0 +1,57 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+    @Param({"1000"})
+    public int size;
+
+    private Path file;
+    private OwenCache checked;
+    private OwenCache watched;
+
+    @Setup
+    public void setup() throws IOException {
+        this.file = Files.createTempFile("owen-cache", ".owen");
+        Files.write(this.file, OwenCorpus.text(OwenCorpus.Shape.WIDE, this.size, true).getBytes(StandardCharsets.UTF_8));
+        this.checked = new OwenCache.Builder().build();
+        this.watched = new OwenCache.Builder().watch().build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.watched.close();
+        Files.deleteIfExists(this.file);
+    }
+
+    /**
+     * What every caller pays without a cache.
+     */
+    @Benchmark
+    public OwenDocument parse() throws ParseException, IOException {
+        return Owen.parseDocument(new String(Files.readAllBytes(this.file), StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public OwenDocument getChecked() throws ParseException, IOException {
+        return this.checked.get(this.file);
+    }
+
+    @Benchmark
+    public OwenDocument getWatched() throws ParseException, IOException {
+        return this.watched.get(this.file);
+    }
+}
@@ -0,0 +1,76 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.text.ParseException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparing two parses of a document that differ in one literal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffBenchmark {
+    @Param({"WIDE", "DEEP"})
+    public OwenCorpus.Shape shape;
+
+    @Param({"10000"})
+    public int size;
+
+    private final Owen owen = new Owen.Builder().build();
+    private OwenElement from;
+    private OwenElement to;
+
+    @Setup
+    public void setup() throws ParseException {
+        String text = OwenCorpus.text(this.shape, this.size, true);
+
+        this.from = Owen.parse(text);
+        this.to = Owen.parse(text);
+
+        OwenElement element = this.to;
+
+        while (!element.isLiteral()) {
+            if (element.isObject()) {
+                Map<String, OwenElement> map = element.asMap();
+                String last = null;
+
+                for (String key : map.keySet()) {
+                    last = key;
+                }
+
+                element = map.get(last);
+            } else {
+                element = element.get(element.asList().size() - 1);
+            }
+        }
+
+        element.setLiteralValue(element.asString() + "!");
+    }
+
+    /**
+     * What telling whether anything changed took before trees had equals.
+     */
+    @Benchmark
+    public boolean compareStrings() {
+        return this.owen.toString(this.from).equals(this.owen.toString(this.to));
+    }
+
+    @Benchmark
+    public boolean equals() {
+        return this.from.equals(this.to);
+    }
+
+    /**
+     * Including hashing both trees, which is done anew for every diff.
+     */
+    @Benchmark
+    public OwenPatch diff() {
+        return Owen.diff(this.from, this.to);
+    }
+}
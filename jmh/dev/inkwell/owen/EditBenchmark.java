@@ -0,0 +1,57 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EditBenchmark {
+    @Param({"WIDE", "DEEP", "LONG_LITERALS"})
+    public OwenCorpus.Shape shape;
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private String text;
+    private String edited;
+    private int offset;
+    private OwenSource source;
+
+    @Setup
+    public void setup() throws ParseException {
+        this.text = OwenCorpus.text(this.shape, this.size, false);
+
+        // A keystroke in the first literal value past the middle of the text.
+        int i = this.text.indexOf('=', this.text.length() / 2);
+
+        while (this.text.charAt(i + 1) == '{' || this.text.charAt(i + 1) == '[') {
+            i = this.text.indexOf('=', i + 1);
+        }
+
+        this.offset = i + 1;
+        this.edited = this.text.substring(0, this.offset) + 'x' + this.text.substring(this.offset);
+        this.source = OwenSource.parse(this.text);
+    }
+
+    /**
+     * Types a character and deletes it again, leaving the source as it was.
+     */
+    @Benchmark
+    public void editIncremental(Blackhole blackhole) throws ParseException {
+        blackhole.consume(this.source.edit(this.offset, 0, "x"));
+        blackhole.consume(this.source.edit(this.offset, 1, ""));
+    }
+
+    @Benchmark
+    public void editFull(Blackhole blackhole) throws ParseException {
+        blackhole.consume(Owen.parse(this.edited));
+        blackhole.consume(Owen.parse(this.text));
+    }
+}
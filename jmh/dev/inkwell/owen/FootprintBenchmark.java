@@ -0,0 +1,136 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The heap retained by a parsed tree, reported by the bytes counter: as parsed, with small objects in
+ * arrays and arrays of literals packed, and copied onto a hash map or list of elements per compound as
+ * before. The size of a single element is reported alongside, as the savings in the collections do not
+ * include it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FootprintBenchmark {
+    @Param({"WIDE", "DEEP"})
+    public OwenCorpus.Shape shape;
+
+    @Param({"100000"})
+    public int size;
+
+    // Keeps the elements being measured reachable.
+    private static Object retained;
+
+    private String text;
+    private long elementBytes;
+
+    @Setup
+    public void setup() {
+        this.text = OwenCorpus.text(this.shape, this.size, false);
+        this.elementBytes = elementBytes();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytes;
+        public long elementBytes;
+    }
+
+    @Benchmark
+    public OwenElement parsed(Footprint footprint) throws ParseException {
+        final long before = used();
+        final OwenElement element = Owen.parse(this.text);
+
+        footprint.bytes = used() - before;
+        footprint.elementBytes = this.elementBytes;
+
+        return element;
+    }
+
+    @Benchmark
+    public OwenElement legacyCollections(Footprint footprint) throws ParseException {
+        final long before = used();
+        final OwenElement element = legacyCollections(Owen.parse(this.text));
+
+        footprint.bytes = used() - before;
+        footprint.elementBytes = this.elementBytes;
+
+        return element;
+    }
+
+    /**
+     * @return a copy of the tree on a LinkedHashMap or ArrayList per compound, as elements were built before
+     */
+    private static OwenElement legacyCollections(OwenElement element) {
+        final OwenElement copy;
+
+        switch (element.getType()) {
+            case OBJECT: {
+                Map<String, OwenElement> map = new LinkedHashMap<>();
+
+                for (Map.Entry<String, OwenElement> entry : element.members().entrySet()) {
+                    map.put(entry.getKey(), legacyCollections(entry.getValue()));
+                }
+
+                copy = new OwenElement(OwenElement.Type.OBJECT, null, null, map);
+                break;
+            }
+            case ARRAY: {
+                List<OwenElement> list = new ArrayList<>();
+
+                for (OwenElement child : element.elements()) {
+                    list.add(legacyCollections(child));
+                }
+
+                copy = new OwenElement(OwenElement.Type.ARRAY, null, list, null);
+                break;
+            }
+            default:
+                return element;
+        }
+
+        copy.addComments(element.comments());
+
+        return copy;
+    }
+
+    /**
+     * @return the size of one element without comments or members, averaged over many
+     */
+    private static long elementBytes() {
+        final OwenElement[] elements = new OwenElement[1 << 20];
+        final long before = used();
+
+        for (int i = 0; i < elements.length; ++i) {
+            elements[i] = new OwenElement();
+        }
+
+        retained = elements;
+
+        final long bytes = Math.round((double) (used() - before) / elements.length);
+
+        retained = null;
+
+        return bytes;
+    }
+
+    private static long used() {
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,90 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.text.ParseException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checking a batch of small documents, most of them malformed, by catching exceptions and by parse results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvalidInputBenchmark {
+    @Param({"1000"})
+    public int documents;
+
+    private String[] texts;
+
+    @Setup
+    public void setup() {
+        Owen owen = new Owen.Builder().build();
+        Random random = new Random(this.documents);
+
+        this.texts = new String[this.documents];
+
+        for (int i = 0; i < this.documents; ++i) {
+            String text = owen.toString(OwenCorpus.generate(OwenCorpus.Shape.WIDE, 20, false));
+
+            // Nine in ten get an object that is never closed, or a line without a key, which only arrays allow.
+            switch (random.nextInt(10)) {
+                case 0:
+                    break;
+                case 1:
+                case 2:
+                    text = text + "\nbroken = {\n  a = 1\n";
+                    break;
+                default:
+                    final int line = text.indexOf('\n', random.nextInt(text.length()));
+                    text = line < 0 ? text + "\n= oops" : text.substring(0, line) + "\n= oops" + text.substring(line);
+            }
+
+            this.texts[i] = text;
+        }
+    }
+
+    @Benchmark
+    public int parseCatching() {
+        int valid = 0;
+
+        for (String text : this.texts) {
+            try {
+                Owen.parse(text);
+                ++valid;
+            } catch (ParseException e) {
+                // Counted as invalid.
+            }
+        }
+
+        return valid;
+    }
+
+    @Benchmark
+    public int tryParseFirstError() {
+        int valid = 0;
+
+        for (String text : this.texts) {
+            if (Owen.tryParse(text, 1).isValid()) {
+                ++valid;
+            }
+        }
+
+        return valid;
+    }
+
+    @Benchmark
+    public int tryParseAllErrors() {
+        int errors = 0;
+
+        for (String text : this.texts) {
+            errors += Owen.tryParse(text).getErrors().size();
+        }
+
+        return errors;
+    }
+}
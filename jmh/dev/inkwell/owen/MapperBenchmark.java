@@ -0,0 +1,104 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"1000"})
+    public int size;
+
+    private final OwenMapper mapper = new OwenMapper();
+
+    private String text;
+    private Catalog catalog;
+
+    @Setup
+    public void setup() {
+        this.catalog = new Catalog();
+
+        for (int i = 0; i < this.size; ++i) {
+            Entry entry = new Entry();
+
+            entry.name = "service-" + i;
+            entry.port = 8000 + i;
+            entry.weight = i / 8.0;
+            entry.enabled = i % 3 != 0;
+            entry.tags = new ArrayList<>();
+            entry.tags.add("zone-" + i % 4);
+            entry.tags.add("tier-" + i % 2);
+
+            this.catalog.entries.add(entry);
+        }
+
+        this.text = this.mapper.toString(this.catalog);
+    }
+
+    @Benchmark
+    public Catalog bindString() throws ParseException {
+        return this.mapper.fromString(this.text, Catalog.class);
+    }
+
+    @Benchmark
+    public Catalog bindTree() throws ParseException {
+        return this.mapper.fromElement(Owen.parse(this.text), Catalog.class);
+    }
+
+    /**
+     * The hand-written tree walk that the mapper replaces.
+     */
+    @Benchmark
+    public Catalog bindByHand() throws ParseException {
+        Catalog catalog = new Catalog();
+
+        for (OwenElement element : Owen.parse(this.text).get("entries").asList()) {
+            Entry entry = new Entry();
+
+            for (Map.Entry<String, OwenElement> member : element.asMap().entrySet()) {
+                switch (member.getKey()) {
+                    case "name":    entry.name = member.getValue().asString(); break;
+                    case "port":    entry.port = Integer.parseInt(member.getValue().asString()); break;
+                    case "weight":  entry.weight = Double.parseDouble(member.getValue().asString()); break;
+                    case "enabled": entry.enabled = Boolean.parseBoolean(member.getValue().asString()); break;
+                    case "tags":
+                        entry.tags = new ArrayList<>();
+
+                        for (OwenElement tag : member.getValue().asList()) {
+                            entry.tags.add(tag.asString());
+                        }
+                }
+            }
+
+            catalog.entries.add(entry);
+        }
+
+        return catalog;
+    }
+
+    @Benchmark
+    public String write() {
+        return this.mapper.toString(this.catalog);
+    }
+
+    public static class Catalog {
+        public List<Entry> entries = new ArrayList<>();
+    }
+
+    public static class Entry {
+        public String name;
+        public int port;
+        public double weight;
+        public boolean enabled;
+        public List<String> tags;
+    }
+}
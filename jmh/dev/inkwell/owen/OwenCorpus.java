@@ -0,0 +1,138 @@
+package dev.inkwell.owen;
+
+import java.util.Random;
+
+/**
+ * Deterministic synthetic documents for the benchmarks. The same shape, size and comment setting
+ * always produce the same tree, and every generated document survives a text round trip.
+ */
+public final class OwenCorpus {
+    private static final String[] WORDS = {
+            "alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta", "iota", "kappa",
+            "lambda", "mu", "nu", "xi", "omicron", "pi", "rho", "sigma", "tau", "upsilon"
+    };
+
+    private final Random random;
+    private final boolean comments;
+
+    private OwenCorpus(long seed, boolean comments) {
+        this.random = new Random(seed);
+        this.comments = comments;
+    }
+
+    public static OwenElement generate(Shape shape, int size, boolean comments) {
+        OwenCorpus corpus = new OwenCorpus(31L * shape.ordinal() + size, comments || shape == Shape.COMMENT_HEAVY);
+
+        return corpus.generate(shape, size);
+    }
+
+    public static String text(Shape shape, int size, boolean comments) {
+        return new Owen.Builder().build().toString(generate(shape, size, comments));
+    }
+
+    private OwenElement generate(Shape shape, int size) {
+        OwenElement root = Owen.object();
+
+        comment(root);
+
+        switch (shape) {
+            case WIDE:
+            case COMMENT_HEAVY:
+                for (int i = 0; i < size; ++i) {
+                    root.put(key(i), this.random.nextInt(4) == 0 ? small() : literal(1 + this.random.nextInt(4)));
+                }
+                break;
+            case DEEP:
+                for (int i = 0; i < size / 64 + 1; ++i) {
+                    root.put(key(i), deep(64));
+                }
+                break;
+            case LONG_LITERALS:
+                for (int i = 0; i < size / 16 + 1; ++i) {
+                    root.put(key(i), longLiteral(1024 + this.random.nextInt(3072)));
+                }
+                break;
+        }
+
+        return root;
+    }
+
+    private OwenElement small() {
+        if (this.random.nextBoolean()) {
+            OwenElement array = Owen.array();
+
+            for (int i = 0; i < 5; ++i) {
+                array.add(comment(literal(1)));
+            }
+
+            return comment(array);
+        }
+
+        OwenElement object = Owen.object();
+
+        for (int i = 0; i < 5; ++i) {
+            object.put(key(i), comment(literal(2)));
+        }
+
+        return comment(object);
+    }
+
+    private OwenElement deep(int depth) {
+        if (depth == 0) {
+            return literal(2);
+        }
+
+        OwenElement element;
+
+        if (depth % 2 == 0) {
+            element = Owen.object(key(depth), deep(depth - 1), "leaf", literal(1));
+        } else {
+            element = Owen.array(deep(depth - 1), literal(1));
+        }
+
+        return comment(element);
+    }
+
+    private OwenElement literal(int words) {
+        StringBuilder builder = new StringBuilder(WORDS[this.random.nextInt(WORDS.length)]);
+
+        for (int i = 1; i < words; ++i) {
+            builder.append(' ').append(WORDS[this.random.nextInt(WORDS.length)]);
+        }
+
+        return comment(Owen.literal(builder.toString()));
+    }
+
+    private OwenElement longLiteral(int length) {
+        StringBuilder builder = new StringBuilder(length + 16);
+
+        while (builder.length() < length) {
+            builder.append(WORDS[this.random.nextInt(WORDS.length)]);
+            builder.append(this.random.nextInt(32) == 0 ? '\n' : ' ');
+        }
+
+        builder.append("end");
+
+        return comment(Owen.literal(builder.toString()));
+    }
+
+    private OwenElement comment(OwenElement element) {
+        if (this.comments) {
+            int count = 1 + this.random.nextInt(3);
+
+            for (int i = 0; i < count; ++i) {
+                element.addComment("note " + WORDS[this.random.nextInt(WORDS.length)] + " " + i);
+            }
+        }
+
+        return element;
+    }
+
+    private static String key(int i) {
+        return WORDS[i % WORDS.length] + "_" + i;
+    }
+
+    public enum Shape {
+        WIDE, DEEP, LONG_LITERALS, COMMENT_HEAVY
+    }
+}
@@ -0,0 +1,139 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    @Param({"WIDE", "DEEP", "LONG_LITERALS", "COMMENT_HEAVY"})
+    public OwenCorpus.Shape shape;
+
+    @Param({"10000"})
+    public int size;
+
+    private String text;
+    private byte[] utf8;
+    private byte[] utf16;
+    private Path file;
+    private Owen tokenized;
+    private Owen lazy;
+    private Owen interned;
+    private Owen skipping;
+    private OwenPath firstAndLast;
+
+    @Setup
+    public void setup() throws IOException {
+        this.text = OwenCorpus.text(this.shape, this.size, false);
+        this.utf8 = this.text.getBytes(StandardCharsets.UTF_8);
+        this.utf16 = this.text.getBytes(StandardCharsets.UTF_16);
+        this.file = Files.createTempFile("owen-bench", ".owen");
+        Files.write(this.file, this.utf8);
+        this.tokenized = new Owen.Builder().parseMode(Owen.ParseMode.TOKENIZED).build();
+        this.lazy = new Owen.Builder().parseMode(Owen.ParseMode.LAZY).build();
+        this.interned = new Owen.Builder().interner(OwenInterner.bounded(4096)).build();
+        this.skipping = new Owen.Builder().skipComments().build();
+
+        String[] keys = OwenCorpus.generate(this.shape, this.size, false).asMap().keySet().toArray(new String[0]);
+        this.firstAndLast = Owen.compilePath(keys[0], keys[keys.length - 1]);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Benchmark
+    public Object tokenize() throws ParseException {
+        return OwenTokenizer.tokenize(this.text);
+    }
+
+    @Benchmark
+    public OwenElement parseTokenized() throws ParseException {
+        return this.tokenized.read(this.text);
+    }
+
+    @Benchmark
+    public OwenElement parseString() throws ParseException {
+        return Owen.parse(this.text);
+    }
+
+    @Benchmark
+    public OwenElement parseLazy() throws ParseException {
+        return this.lazy.read(this.text);
+    }
+
+    @Benchmark
+    public OwenElement parseParallel() throws ParseException {
+        return Owen.parseParallel(this.text, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public OwenElement parseInterned() throws ParseException {
+        return this.interned.read(this.text);
+    }
+
+    @Benchmark
+    public OwenElement parseSkippingComments() throws ParseException {
+        return this.skipping.read(this.text);
+    }
+
+    @Benchmark
+    public Object selectPaths() throws ParseException {
+        return this.firstAndLast.select(this.text);
+    }
+
+    @Benchmark
+    public OwenDocument parseDocument() throws ParseException {
+        return Owen.parseDocument(this.text);
+    }
+
+    @Benchmark
+    public OwenElement parseReader() throws ParseException {
+        return Owen.parse(new StringReader(this.text));
+    }
+
+    @Benchmark
+    public OwenElement parseUtf8Bytes() throws ParseException {
+        return Owen.parse(this.utf8);
+    }
+
+    @Benchmark
+    public OwenElement parseDecodedUtf8() throws ParseException {
+        return Owen.parse(new String(this.utf8, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public OwenElement parseInputStream() throws ParseException {
+        return Owen.parse(new ByteArrayInputStream(this.utf16));
+    }
+
+    @Benchmark
+    public OwenElement parsePath() throws IOException, ParseException {
+        return Owen.parse(this.file);
+    }
+
+    @Benchmark
+    public void streamEvents(Blackhole blackhole) throws IOException, ParseException {
+        OwenReader reader = new OwenReader(new StringReader(this.text));
+        OwenReader.Event event;
+
+        while ((event = reader.next()) != OwenReader.Event.END_DOCUMENT) {
+            blackhole.consume(event.hasText ? reader.getString() : event);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.text.ParseException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checking a document against a schema after parsing it, and while reading it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaBenchmark {
+    @Param({"10000"})
+    public int size;
+
+    private OwenSchema schema;
+    private String text;
+    private String invalid;
+
+    @Setup
+    public void setup() {
+        this.schema = new OwenSchema.Builder()
+                .require("name", OwenSchema.literal("[a-z][a-z0-9-]*"))
+                .require("servers", OwenSchema.arrayOf(new OwenSchema.Builder()
+                        .require("host", OwenSchema.literal("[a-z0-9.-]+"))
+                        .require("port", OwenSchema.integer(1, 65535))
+                        .optional("weight", OwenSchema.number(0, 1))
+                        .optional("enabled", OwenSchema.bool())
+                        .closed()
+                        .build()))
+                .build();
+
+        Owen owen = new Owen.Builder().build();
+        Random random = new Random(this.size);
+        OwenElement servers = Owen.array();
+
+        for (int i = 0; i < this.size; ++i) {
+            servers.add(Owen.object(
+                    "host", "node-" + i + ".example.net",
+                    "port", String.valueOf(1 + random.nextInt(65535)),
+                    "weight", String.valueOf(random.nextInt(1000) / 1000.0),
+                    "enabled", String.valueOf(random.nextBoolean())));
+        }
+
+        OwenElement root = Owen.object("name", Owen.literal("cluster"), "servers", servers);
+
+        this.text = owen.toString(root);
+
+        servers.asList().get(0).put("port", "0");
+        this.invalid = owen.toString(root);
+    }
+
+    @Benchmark
+    public OwenSchema.Violation parseThenValidate() throws ParseException {
+        return this.schema.validate(Owen.parse(this.text));
+    }
+
+    @Benchmark
+    public OwenElement read() throws IOException, ParseException {
+        return this.schema.read(new StringReader(this.text));
+    }
+
+    /**
+     * A document whose first server is invalid, after which reading stops.
+     */
+    @Benchmark
+    public OwenSchema.Violation parseThenValidateInvalid() throws ParseException {
+        return this.schema.validate(Owen.parse(this.invalid));
+    }
+
+    @Benchmark
+    public String readInvalid() throws IOException {
+        try {
+            this.schema.read(new StringReader(this.invalid));
+            throw new IllegalStateException("Document should not match!");
+        } catch (OwenSchema.ViolationException e) {
+            return e.getPath();
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializeBenchmark {
+    @Param({"WIDE", "DEEP", "LONG_LITERALS"})
+    public OwenCorpus.Shape shape;
+
+    @Param({"10000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean spacious;
+
+    @Param({"true", "false"})
+    public boolean comments;
+
+    private OwenElement root;
+    private Owen owen;
+
+    @Setup
+    public void setup() {
+        this.root = OwenCorpus.generate(this.shape, this.size, this.comments);
+
+        Owen.Builder builder = new Owen.Builder();
+
+        if (!this.spacious) {
+            builder.compact();
+        }
+
+        this.owen = builder.build();
+    }
+
+    @Benchmark
+    public String serializeString() {
+        return this.owen.toString(this.root);
+    }
+
+    @Benchmark
+    public void serializeWriter() throws IOException {
+        this.owen.write(this.root, new NullWriter());
+    }
+
+    private static class NullWriter extends Writer {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
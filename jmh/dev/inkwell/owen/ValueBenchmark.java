@@ -0,0 +1,57 @@
+package dev.inkwell.owen;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updating one member of a large object, persistently and by copying the mutable tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueBenchmark {
+    @Param({"WIDE", "DEEP"})
+    public OwenCorpus.Shape shape;
+
+    @Param({"10000"})
+    public int size;
+
+    private OwenElement element;
+    private OwenValue value;
+    private String key;
+
+    @Setup
+    public void setup() {
+        this.element = OwenCorpus.generate(this.shape, this.size, false);
+        this.value = this.element.freeze();
+        this.key = this.value.asMap().keySet().iterator().next();
+    }
+
+    @Benchmark
+    public OwenValue with() {
+        return this.value.with(this.key, "changed");
+    }
+
+    @Benchmark
+    public OwenElement copy() {
+        OwenElement copy = this.value.toElement();
+
+        copy.put(this.key, "changed");
+
+        return copy;
+    }
+
+    @Benchmark
+    public OwenValue get() {
+        return this.value.get(this.key);
+    }
+
+    @Benchmark
+    public OwenValue freeze() {
+        return this.element.freeze();
+    }
+}
@@ -0,0 +1,132 @@
+package dev.inkwell.owen;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes a file channel through read-only memory mappings, one region at a time, so the file
+ * contents are never copied into an intermediate byte array or string.
+ *
+ * The charset is taken from a UTF-8 or UTF-16 byte order mark, defaulting to UTF-8.
+ */
+class MappedFileReader extends Reader {
+    private static final long REGION_SIZE = 1L << 28;
+
+    private final FileChannel channel;
+    private final long size;
+    private final CharsetDecoder decoder;
+
+    private ByteBuffer region;
+    private long regionStart;
+    private boolean decoded = false;
+    private boolean flushed = false;
+
+    MappedFileReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+
+        map(0);
+
+        Charset charset = StandardCharsets.UTF_8;
+        int bom = 0;
+
+        if (bytes(0xEF, 0xBB, 0xBF)) {
+            bom = 3;
+        } else if (bytes(0xFE, 0xFF)) {
+            charset = StandardCharsets.UTF_16BE;
+            bom = 2;
+        } else if (bytes(0xFF, 0xFE)) {
+            charset = StandardCharsets.UTF_16LE;
+            bom = 2;
+        }
+
+        this.region.position(bom);
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Decodes the whole file into one string.
+     */
+    static String read(FileChannel channel) throws IOException {
+        Reader reader = new MappedFileReader(channel);
+        StringBuilder builder = new StringBuilder((int) Math.min(channel.size(), Integer.MAX_VALUE - 8));
+        char[] buffer = new char[8192];
+
+        for (int n; (n = reader.read(buffer)) >= 0; ) {
+            builder.append(buffer, 0, n);
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (this.flushed) return -1;
+
+        CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+
+        while (out.hasRemaining()) {
+            if (!this.decoded) {
+                boolean last = this.regionStart + this.region.limit() == this.size;
+                CoderResult result = this.decoder.decode(this.region, out, last);
+
+                if (result.isOverflow()) break;
+
+                if (result.isError()) {
+                    result.throwException();
+                }
+
+                if (!last) {
+                    // Remap from the first undecoded byte so sequences split across regions stay intact.
+                    map(this.regionStart + this.region.position());
+                    continue;
+                }
+
+                this.decoded = true;
+            }
+
+            if (this.decoder.flush(out).isOverflow()) break;
+
+            this.flushed = true;
+            break;
+        }
+
+        int read = out.position() - offset;
+
+        return read == 0 && this.flushed ? -1 : read;
+    }
+
+    @Override
+    public void close() {
+        this.region = null;
+    }
+
+    private void map(long start) throws IOException {
+        MappedByteBuffer region = this.channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, this.size - start));
+
+        this.region = region;
+        this.regionStart = start;
+    }
+
+    private boolean bytes(int... bytes) {
+        if (this.region.remaining() < bytes.length) return false;
+
+        for (int i = 0; i < bytes.length; ++i) {
+            if ((this.region.get(i) & 0xFF) != bytes[i]) return false;
+        }
+
+        return true;
+    }
+}
@@ -1,9 +1,16 @@
 package dev.inkwell.owen;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("unused")
@@ -12,145 +19,72 @@ public class Owen {
     final String commentSpacing;
     final boolean spacious;
     final boolean preserveComments;
-
-    private final ThreadLocal<Integer> indentation = ThreadLocal.withInitial(() -> 0);
-    private final ThreadLocal<Deque<Deque<OwenElement>>> previous = ThreadLocal.withInitial(() -> {
-        Deque<Deque<OwenElement>> deque = new ArrayDeque<>();
-        deque.push(new ArrayDeque<>());
-
-        return deque;
-    });
+    final ParseMode parseMode;
+    final String[] indents;
+    final OwenInterner interner;
+    final boolean skipComments;
 
     public Owen(String indent, String commentSpacing, boolean spacious, boolean preserveComments) {
         this.indent = indent;
         this.commentSpacing = commentSpacing;
         this.spacious = spacious;
         this.preserveComments = preserveComments;
+        this.parseMode = ParseMode.FUSED;
+        this.indents = indents(indent);
+        this.interner = null;
+        this.skipComments = false;
     }
 
-    public String toString(OwenElement element) {
-        if (!element.isObject()) {
-            throw new RuntimeException("Root element must be an object!");
-        }
-
-        StringBuilder builder = new StringBuilder();
-
-        List<String> comments = element.getComments();
-
-        this.comments(comments, builder);
-
-        writeObject(element, builder);
-
-        return builder.toString();
-    }
-
-    private void writeElement(OwenElement element, StringBuilder builder) {
-        switch (element.getType()) {
-            case LITERAL:
-                String value = element.asString();
-                value = value.replaceAll("([^\\\\])#", "$1\\\\#");
-                value = value.replaceAll("\n", "\\\\n");
-
-                builder.append(value);
-                break;
-            case ARRAY:
-            case OBJECT:
-                writeCompound(element, builder);
-                break;
-            case EMPTY:
-                break;
-        }
+    private Owen(Builder builder) {
+        this.indent = builder.indent;
+        this.commentSpacing = builder.commentSpacing;
+        this.spacious = builder.spacious;
+        this.preserveComments = builder.preserveComments;
+        this.parseMode = builder.parseMode;
+        this.indents = indents(builder.indent);
+        this.interner = builder.interner;
+        this.skipComments = builder.skipComments;
     }
 
-    private void writeCompound(OwenElement element, StringBuilder builder) {
-        builder.append(element.isArray() ? '[' : '{');
-
-        if (!element.isEmpty()) {
-            builder.append("\n");
-        }
-
-        this.indent();
-
-        if (element.getType() == OwenElement.Type.ARRAY) {
-            writeArray(element, builder);
-        } else {
-            writeObject(element, builder);
-        }
-
-        this.dedent();
+    private static String[] indents(String indent) {
+        String[] indents = new String[16];
+        StringBuilder builder = new StringBuilder();
 
-        if (!element.isEmpty()) {
-            this.indent(builder);
+        for (int i = 0; i < indents.length; ++i) {
+            indents[i] = builder.toString();
+            builder.append(indent);
         }
 
-        builder.append(element.isArray() ? ']' : '}');
+        return indents;
     }
 
-    private void writeArray(OwenElement element, StringBuilder builder) {
-        Deque<Deque<OwenElement>> deque = this.previous.get();
-        Deque<OwenElement> deque1 = new ArrayDeque<>();
-        deque.push(deque1);
-
-        for (OwenElement child : element.asList()) {
-            List<String> comments = child.getComments();
-
-            this.comments(comments, builder);
-
-            this.indent(builder);
-            this.writeElement(child, builder);
-            builder.append("\n");
+    public String toString(OwenElement element) {
+        StringBuilder builder = new StringBuilder();
 
-            deque1.push(child);
+        try {
+            new OwenWriter(this, builder).document(element);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
 
-        deque.pop();
+        return builder.toString();
     }
 
-    private void writeObject(OwenElement element, StringBuilder builder) {
-        Deque<Deque<OwenElement>> deque = this.previous.get();
-        Deque<OwenElement> deque1 = new ArrayDeque<>();
-        deque.push(deque1);
-
-        for (Map.Entry<String, OwenElement> entry : element.asMap().entrySet()) {
-            OwenElement child = entry.getValue();
-            List<String> comments = child.getComments();
-
-            if (this.spacious && !deque1.isEmpty() && (!comments.isEmpty() || (deque1.getFirst().isCompound() && !deque1.getFirst().isEmpty()))) {
-                builder.append("\n");
-            }
-
-            this.comments(comments, builder);
+    public void write(OwenElement element, Writer writer) throws IOException {
+        OwenWriter owenWriter = new OwenWriter(this, writer instanceof BufferedWriter ? writer : new BufferedWriter(writer));
 
-            this.indent(builder);
-            builder.append(entry.getKey()).append('=');
-            this.writeElement(child, builder);
-            builder.append("\n");
-
-            deque1.push(child);
-        }
-
-        deque.pop();
+        owenWriter.document(element);
+        owenWriter.flush();
     }
 
-    private void comments(List<String> comments, StringBuilder builder) {
-        for (String comment : comments) {
-            this.indent(builder);
-            builder.append('#').append(this.commentSpacing).append(comment).append('\n');
+    public void write(OwenElement element, Path path) throws IOException {
+        try (OwenWriter owenWriter = writer(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            owenWriter.document(element);
         }
     }
 
-    private void indent() {
-        this.indentation.set(this.indentation.get() + 1);
-    }
-
-    private void dedent() {
-        this.indentation.set(this.indentation.get() - 1);
-    }
-
-    private void indent(StringBuilder builder) {
-        for (int i = 0; i < this.indentation.get(); ++i) {
-            builder.append(this.indent);
-        }
+    public OwenWriter writer(Appendable appendable) {
+        return new OwenWriter(this, appendable);
     }
 
     public static OwenElement literal(String string) {
@@ -159,11 +93,11 @@ public class Owen {
     }
 
     public static OwenElement object() {
-        return new OwenElement(OwenElement.Type.OBJECT, null, null, new LinkedHashMap<>());
+        return new OwenElement(OwenElement.Type.OBJECT, null, null, new OwenMembers());
     }
 
     public static OwenElement object(String key1, OwenElement value1) {
-        LinkedHashMap<String, OwenElement> map = new LinkedHashMap<>();
+        OwenMembers map = new OwenMembers(1);
 
         map.put(key1, value1);
 
@@ -171,7 +105,7 @@ public class Owen {
     }
 
     public static OwenElement object(String key1, OwenElement value1, String key2, OwenElement value2) {
-        LinkedHashMap<String, OwenElement> map = new LinkedHashMap<>();
+        OwenMembers map = new OwenMembers(2);
 
         map.put(key1, value1);
         map.put(key2, value2);
@@ -180,7 +114,7 @@ public class Owen {
     }
 
     public static OwenElement object(String key1, OwenElement value1, String key2, OwenElement value2, String key3, OwenElement value3) {
-        LinkedHashMap<String, OwenElement> map = new LinkedHashMap<>();
+        OwenMembers map = new OwenMembers(3);
 
         map.put(key1, value1);
         map.put(key2, value2);
@@ -190,7 +124,7 @@ public class Owen {
     }
 
     public static OwenElement object(String key1, OwenElement value1, String key2, OwenElement value2, String key3, OwenElement value3, String key4, OwenElement value4) {
-        LinkedHashMap<String, OwenElement> map = new LinkedHashMap<>();
+        OwenMembers map = new OwenMembers(4);
 
         map.put(key1, value1);
         map.put(key2, value2);
@@ -201,7 +135,7 @@ public class Owen {
     }
 
     public static OwenElement object(String key1, String value1) {
-        LinkedHashMap<String, OwenElement> map = new LinkedHashMap<>();
+        OwenMembers map = new OwenMembers(1);
 
         map.put(key1, literal(value1));
 
@@ -209,7 +143,7 @@ public class Owen {
     }
 
     public static OwenElement object(String key1, String value1, String key2, String value2) {
-        LinkedHashMap<String, OwenElement> map = new LinkedHashMap<>();
+        OwenMembers map = new OwenMembers(2);
 
         map.put(key1, literal(value1));
         map.put(key2, literal(value2));
@@ -218,7 +152,7 @@ public class Owen {
     }
 
     public static OwenElement object(String key1, String value1, String key2, String value2, String key3, String value3) {
-        LinkedHashMap<String, OwenElement> map = new LinkedHashMap<>();
+        OwenMembers map = new OwenMembers(3);
 
         map.put(key1, literal(value1));
         map.put(key2, literal(value2));
@@ -228,7 +162,7 @@ public class Owen {
     }
 
     public static OwenElement object(String key1, String value1, String key2, String value2, String key3, String value3, String key4, String value4) {
-        LinkedHashMap<String, OwenElement> map = new LinkedHashMap<>();
+        OwenMembers map = new OwenMembers(4);
 
         map.put(key1, literal(value1));
         map.put(key2, literal(value2));
@@ -239,7 +173,7 @@ public class Owen {
     }
 
     public static OwenElement array() {
-        return new OwenElement(OwenElement.Type.ARRAY, null, new ArrayList<>(), null);
+        return new OwenElement(OwenElement.Type.ARRAY, null, new OwenElements(), null);
     }
 
     public static OwenElement array(List<OwenElement> list) {
@@ -251,15 +185,140 @@ public class Owen {
     }
 
     public static OwenElement array(String... elements) {
-        return new OwenElement(OwenElement.Type.ARRAY, null, Arrays.stream(elements).map(Owen::literal).collect(Collectors.toList()), null);
+        OwenElement array = array();
+
+        for (String element : elements) {
+            array.addUnshared(literal(element));
+        }
+
+        return array;
     }
 
     public static OwenElement empty() {
         return new OwenElement();
     }
 
+    public OwenElement read(String string) throws ParseException {
+        switch (this.parseMode) {
+            case TOKENIZED: return new OwenParser(new OwenTokenizer(string, this.skipComments)).parse();
+            case FUSED:     return OwenFusedParser.parse(string, false, this.interner, this.skipComments);
+            case LAZY:      return OwenFusedParser.parse(string, true, this.interner, this.skipComments);
+            case PARALLEL:  return OwenFusedParser.parseParallel(string, this.interner, this.skipComments, ForkJoinPool.commonPool());
+        }
+
+        throw new RuntimeException("Impossible parse mode!");
+    }
+
+    public OwenElement read(Reader reader) throws ParseException {
+        return read(new BufferedReader(reader).lines()
+                .collect(Collectors.joining("\n")));
+    }
+
+    public OwenElement read(InputStream inputStream) throws ParseException {
+        return read(new InputStreamReader(inputStream, StandardCharsets.UTF_16));
+    }
+
+    /**
+     * Reads UTF-8 encoded text as {@link #read(String)} reads it decoded. In {@link ParseMode#FUSED} the
+     * bytes are parsed directly, see {@link #parse(byte[])}; other modes decode them first.
+     */
+    public OwenElement read(byte[] bytes) throws ParseException {
+        if (this.parseMode != ParseMode.FUSED) {
+            return read(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        return OwenUtf8Parser.parse(bytes, 0, bytes.length, this.interner, this.skipComments);
+    }
+
+    /**
+     * Reads UTF-8 encoded text from a buffer's position to its limit, like {@link #read(byte[])}. The
+     * buffer's position is left unchanged.
+     */
+    public OwenElement read(ByteBuffer buffer) throws ParseException {
+        if (this.parseMode != ParseMode.FUSED) {
+            return read(StandardCharsets.UTF_8.decode(buffer.duplicate()).toString());
+        }
+
+        return OwenUtf8Parser.parse(buffer, this.interner, this.skipComments);
+    }
+
+    /**
+     * Reads a memory-mapped file like {@link #parse(Path)}, using this instance's interner. In
+     * {@link ParseMode#FUSED} the file is streamed as it is decoded; other modes decode it whole and then
+     * parse it as {@link #read(String)} does.
+     */
+    public OwenElement read(Path path) throws IOException, ParseException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (this.parseMode != ParseMode.FUSED) {
+                // The tokenizer, deferred members and parallel sections all work on one string, so the whole
+                // file is decoded up front.
+                return read(MappedFileReader.read(channel));
+            }
+
+            return new OwenReader(new MappedFileReader(channel), OwenReader.DEFAULT_BUFFER_SIZE, this.interner, this.skipComments).readDocument();
+        }
+    }
+
     public static OwenElement parse(String string) throws ParseException {
-        return new OwenParser(OwenTokenizer.tokenize(string)).parse();
+        return OwenFusedParser.parse(string);
+    }
+
+    /**
+     * Parses like {@link #parse(String)}, but returns the errors with their line and column instead of
+     * throwing the first one. Parsing goes on at the next line after each error.
+     */
+    public static OwenParseResult tryParse(String string) {
+        return tryParse(string, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #tryParse(String)}, but stops after {@code maxErrors} errors. With 1 this is the cheapest
+     * way to check input that is often invalid.
+     */
+    public static OwenParseResult tryParse(String string, int maxErrors) {
+        if (maxErrors <= 0) {
+            throw new IllegalArgumentException("Maximum number of errors must be positive!");
+        }
+
+        return OwenFusedParser.tryParse(string, null, maxErrors);
+    }
+
+    /**
+     * Parses the members of the root object in parallel on the given pool. The result is identical to
+     * {@link #parse(String)}; documents with few or small members gain nothing.
+     */
+    public static OwenElement parseParallel(String string, ForkJoinPool pool) throws ParseException {
+        return OwenFusedParser.parseParallel(string, null, false, pool);
+    }
+
+    /**
+     * Parses text that will be edited, so that each edit only reparses the members it touches. See
+     * {@link OwenSource#edit(int, int, String)}.
+     */
+    public static OwenSource parseSource(String string) throws ParseException {
+        return OwenSource.parse(string);
+    }
+
+    /**
+     * Parses a read-only, tape-backed document whose literals reference the source string.
+     */
+    public static OwenDocument parseDocument(String string) throws ParseException {
+        return OwenDocument.parse(string);
+    }
+
+    /**
+     * Compiles one or more paths such as {@code server.pools[3].host} for selecting values from trees or
+     * directly from source text. See {@link OwenPath} for the syntax.
+     */
+    public static OwenPath compilePath(String... paths) {
+        return OwenPath.compile(paths);
+    }
+
+    /**
+     * Computes the changes that turn one tree into another, skipping subtrees that are equal.
+     */
+    public static OwenPatch diff(OwenElement from, OwenElement to) {
+        return OwenPatch.diff(from, to);
     }
 
     public static OwenElement parse(Reader reader) throws ParseException {
@@ -271,11 +330,119 @@ public class Owen {
         return parse(new InputStreamReader(inputStream, StandardCharsets.UTF_16));
     }
 
+    /**
+     * Parses UTF-8 encoded text without decoding it into a string first, as only keys, literals and
+     * comments need decoding. The tree, and any error with its offset in chars, are the same as
+     * {@code parse(new String(bytes, StandardCharsets.UTF_8))} gives.
+     */
+    public static OwenElement parse(byte[] bytes) throws ParseException {
+        return OwenUtf8Parser.parse(bytes, 0, bytes.length, null, false);
+    }
+
+    /**
+     * Parses UTF-8 encoded text from a buffer's position to its limit, like {@link #parse(byte[])}. The
+     * buffer's position is left unchanged.
+     */
+    public static OwenElement parse(ByteBuffer buffer) throws ParseException {
+        return OwenUtf8Parser.parse(buffer, null, false);
+    }
+
+    /**
+     * Parses a file by memory-mapping it and decoding it incrementally. The charset is detected from a
+     * byte order mark and defaults to UTF-8.
+     */
+    public static OwenElement parse(Path path) throws IOException, ParseException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parse(channel);
+        }
+    }
+
+    public static OwenElement parse(FileChannel channel) throws IOException, ParseException {
+        return new OwenReader(new MappedFileReader(channel)).readDocument();
+    }
+
+    /**
+     * Writes a tree in a compact binary encoding with a table of keys and the length of every object and
+     * array, so that {@link #readBinary(ByteBuffer)} can skip what is not accessed. Comments are kept.
+     */
+    public static void writeBinary(OwenElement element, OutputStream out) throws IOException {
+        OwenBinary.write(element, out);
+    }
+
+    public static void writeBinary(OwenElement element, Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            OwenBinary.write(element, out);
+        }
+    }
+
+    public static byte[] toBinary(OwenElement element) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try {
+            OwenBinary.write(element, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a tree written by {@link #writeBinary(OwenElement, OutputStream)}. Only the header and key
+     * table are read up front, and the members of each object or array are decoded when first accessed,
+     * so the buffer must not change while the tree is in use, and the tree must not be shared between
+     * threads before it has been walked once.
+     */
+    public static OwenElement readBinary(ByteBuffer buffer) throws ParseException {
+        return OwenBinary.read(buffer);
+    }
+
+    public static OwenElement readBinary(byte[] bytes) throws ParseException {
+        return OwenBinary.read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Reads a binary file by memory-mapping it, so only what is accessed is ever paged in.
+     */
+    public static OwenElement readBinary(Path path) throws IOException, ParseException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return OwenBinary.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Parses many files in parallel on the common {@link ForkJoinPool}, with at most one file per
+     * available processor open at a time.
+     */
+    public static OwenBatch parseAll(Collection<Path> paths) {
+        return parseAll(paths, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses many files in parallel on the given executor, with at most one file per available
+     * processor open at a time. A file that fails to parse is recorded in {@link OwenBatch#getErrors()}
+     * without affecting the others.
+     */
+    public static OwenBatch parseAll(Collection<Path> paths, Executor executor) {
+        return parseAll(paths, executor, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param concurrency the maximum number of files parsed at once, for example to allow more files in
+     *                    flight than there are cores when the executor runs virtual threads
+     */
+    public static OwenBatch parseAll(Collection<Path> paths, Executor executor, int concurrency) {
+        return OwenBatch.parse(paths, executor, concurrency);
+    }
+
     public static class Builder {
         private String indent = "  ";
         private String commentSpacing = " ";
         private boolean spacious = true;
         private boolean preserveComments = false;
+        private ParseMode parseMode = ParseMode.FUSED;
+        private OwenInterner interner = null;
+        private boolean skipComments = false;
 
         public Builder indent(String indentString) {
             this.indent = indentString;
@@ -297,8 +464,54 @@ public class Owen {
             return this;
         }
 
+        public Builder parseMode(ParseMode parseMode) {
+            this.parseMode = parseMode;
+            return this;
+        }
+
+        /**
+         * Resolves parsed keys and values through the given interner. Not used by {@link ParseMode#TOKENIZED}.
+         */
+        public Builder interner(OwenInterner interner) {
+            this.interner = interner;
+            return this;
+        }
+
+        /**
+         * Skips comments while reading, without creating strings for them, so that read elements have none.
+         * Comments are still written.
+         */
+        public Builder skipComments() {
+            this.skipComments = true;
+            return this;
+        }
+
         public Owen build() {
-            return new Owen(this.indent, this.commentSpacing, this.spacious, this.preserveComments);
+            return new Owen(this);
         }
     }
+
+    public enum ParseMode {
+        /**
+         * Builds elements directly from the source text in a single pass.
+         */
+        FUSED,
+
+        /**
+         * Tokenizes the whole source into a queue before parsing it.
+         */
+        TOKENIZED,
+
+        /**
+         * Validates the whole source, but only builds the members of nested objects and arrays when they
+         * are first accessed. Lazily parsed trees must not be shared between threads before they are loaded.
+         */
+        LAZY,
+
+        /**
+         * Locates the members of the root object in a validating scan, then parses them concurrently on the
+         * common {@link ForkJoinPool}. Meant for large documents whose root has many sizeable members.
+         */
+        PARALLEL
+    }
 }
@@ -0,0 +1,100 @@
+package dev.inkwell.owen;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The outcome of parsing many files at once with {@link Owen#parseAll(Collection, Executor)}: a tree for
+ * every file that parsed, and the exception for every file that did not. Both maps iterate in the order
+ * the paths were given.
+ */
+public final class OwenBatch {
+    private final Map<Path, OwenElement> elements;
+    private final Map<Path, Exception> errors;
+
+    private OwenBatch(Map<Path, OwenElement> elements, Map<Path, Exception> errors) {
+        this.elements = Collections.unmodifiableMap(elements);
+        this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    public Map<Path, OwenElement> getElements() {
+        return this.elements;
+    }
+
+    /**
+     * @return the {@link java.io.IOException}, {@link java.text.ParseException} or runtime exception of
+     * each file that failed
+     */
+    public Map<Path, Exception> getErrors() {
+        return this.errors;
+    }
+
+    public boolean hasErrors() {
+        return !this.errors.isEmpty();
+    }
+
+    /**
+     * @return the tree parsed from the path, or null if it failed or was not part of the batch
+     */
+    public OwenElement get(Path path) {
+        return this.elements.get(path);
+    }
+
+    /**
+     * Runs {@code concurrency} workers on the executor, each taking the next unparsed path until none
+     * are left. Workers never block on each other, so the batch also runs safely on a saturated
+     * {@link java.util.concurrent.ForkJoinPool}, and the number of files open at once never exceeds
+     * {@code concurrency} however many threads the executor has.
+     */
+    static OwenBatch parse(Collection<Path> paths, Executor executor, int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive!");
+        }
+
+        final Path[] files = new LinkedHashSet<>(paths).toArray(new Path[0]);
+        final OwenElement[] elements = new OwenElement[files.length];
+        final Exception[] errors = new Exception[files.length];
+        final AtomicInteger next = new AtomicInteger();
+
+        Runnable worker = () -> {
+            for (int i; (i = next.getAndIncrement()) < files.length; ) {
+                try {
+                    elements[i] = Owen.parse(files[i]);
+                } catch (Exception e) {
+                    errors[i] = e;
+                }
+            }
+        };
+
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(concurrency, files.length)];
+
+        for (int i = 0; i < workers.length; ++i) {
+            workers[i] = CompletableFuture.runAsync(worker, executor);
+        }
+
+        try {
+            CompletableFuture.allOf(workers).join();
+        } catch (CompletionException e) {
+            // Only errors escape the workers.
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+
+        Map<Path, OwenElement> parsed = new LinkedHashMap<>();
+        Map<Path, Exception> failed = new LinkedHashMap<>();
+
+        for (int i = 0; i < files.length; ++i) {
+            if (errors[i] == null) {
+                parsed.put(files[i], elements[i]);
+            } else {
+                failed.put(files[i], errors[i]);
+            }
+        }
+
+        return new OwenBatch(parsed, failed);
+    }
+}
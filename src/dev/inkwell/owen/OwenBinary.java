@@ -0,0 +1,436 @@
+package dev.inkwell.owen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.*;
+
+/**
+ * The binary encoding of trees, which is read without parsing text and one object or array at a time.
+ *
+ * A file starts with the magic bytes 0x89 "OWN", which no text starts with, a version byte, and a varint
+ * length followed by that many bytes of header extensions, which this version does not define and skips.
+ * Then comes a table of every key, as a varint count followed by the strings, and finally the root
+ * element. Strings are a varint length followed by as many bytes of UTF-8, and varints hold seven bits per
+ * byte, least significant first.
+ *
+ * Each element starts with a tag byte holding its type in the lowest two bits. If the third bit is set,
+ * a varint count of comments and the comments follow. A literal is then followed by its string. An array
+ * or object is followed by a varint count of members and, if there are any, the number of bytes they take
+ * as a little-endian int, so that readers can skip it. An object's members are the index of their key in
+ * the table followed by their value, and an array's are just the values.
+ *
+ * Readers refuse files whose version is newer than theirs. Versions only change for changes that older
+ * readers could not skip over.
+ *
+ * Read trees decode each object or array on first access, which writes to the element without
+ * synchronization. They are not safe to share between threads until they have been walked once.
+ */
+final class OwenBinary {
+    static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {(byte) 0x89, 'O', 'W', 'N'};
+    private static final int EMPTY = 0, LITERAL = 1, ARRAY = 2, OBJECT = 3, COMMENTED = 4;
+
+    private OwenBinary() {
+    }
+
+    static void write(OwenElement element, OutputStream out) throws IOException {
+        Encoder body = new Encoder();
+
+        body.value(element);
+
+        Encoder header = new Encoder();
+
+        header.bytes(MAGIC, MAGIC.length);
+        header.write(VERSION);
+        header.varint(0);
+        header.varint(body.keys.size());
+
+        for (String key : body.keys.keySet()) {
+            header.string(key);
+        }
+
+        out.write(header.buffer, 0, header.size);
+        out.write(body.buffer, 0, body.size);
+    }
+
+    static OwenElement read(ByteBuffer buffer) throws ParseException {
+        final ByteBuffer bytes = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+            for (int i = 0; i < MAGIC.length; ++i) {
+                if (bytes.get(i) != MAGIC[i]) {
+                    throw new ParseException("Not binary OWEN", i);
+                }
+            }
+
+            final int version = bytes.get(MAGIC.length) & 0xFF;
+
+            if (version > VERSION) {
+                throw new ParseException("Cannot read binary OWEN version " + version + ", only up to " + VERSION, MAGIC.length);
+            }
+
+            Cursor cursor = new Cursor(bytes, MAGIC.length + 1);
+
+            cursor.p = cursor.skip(cursor.varint());
+
+            String[] keys = new String[cursor.count()];
+
+            for (int i = 0; i < keys.length; ++i) {
+                keys[i] = cursor.string();
+            }
+
+            return new Decoder(bytes, keys).value(cursor, bytes.limit());
+        } catch (IndexOutOfBoundsException e) {
+            throw new ParseException("Truncated binary OWEN", bytes.limit());
+        } catch (Malformed e) {
+            throw new ParseException(e.getMessage(), e.offset);
+        }
+    }
+
+    private static final class Encoder {
+        final Map<String, Integer> keys = new LinkedHashMap<>();
+
+        byte[] buffer = new byte[256];
+        int size = 0;
+
+        void value(OwenElement element) {
+            final List<String> comments = element.comments();
+            final int type;
+
+            switch (element.getType()) {
+                case LITERAL:   type = LITERAL; break;
+                case ARRAY:     type = ARRAY; break;
+                case OBJECT:    type = OBJECT; break;
+                default:        type = EMPTY;
+            }
+
+            write(comments.isEmpty() ? type : type | COMMENTED);
+
+            if (!comments.isEmpty()) {
+                varint(comments.size());
+
+                for (String comment : comments) {
+                    string(comment);
+                }
+            }
+
+            if (type == LITERAL) {
+                string(element.asString());
+            } else if (type == ARRAY) {
+                List<OwenElement> elements = element.elements();
+                String[] literals = element.literals();
+                final int start = members(elements.size());
+
+                for (int i = 0; i < elements.size(); ++i) {
+                    if (literals == null) {
+                        value(elements.get(i));
+                    } else {
+                        write(LITERAL);
+                        string(literals[i]);
+                    }
+                }
+
+                length(start);
+            } else if (type == OBJECT) {
+                Map<String, OwenElement> members = element.members();
+                final int start = members(members.size());
+
+                for (Map.Entry<String, OwenElement> entry : members.entrySet()) {
+                    Integer key = this.keys.get(entry.getKey());
+
+                    if (key == null) {
+                        this.keys.put(entry.getKey(), key = this.keys.size());
+                    }
+
+                    varint(key);
+                    value(entry.getValue());
+                }
+
+                length(start);
+            }
+        }
+
+        /**
+         * @return where the members start, or -1 if there are none and so no length
+         */
+        private int members(int count) {
+            varint(count);
+
+            if (count == 0) {
+                return -1;
+            }
+
+            ensure(4);
+            this.size += 4;
+
+            return this.size;
+        }
+
+        private void length(int start) {
+            if (start >= 0) {
+                final int length = this.size - start;
+
+                this.buffer[start - 4] = (byte) length;
+                this.buffer[start - 3] = (byte) (length >>> 8);
+                this.buffer[start - 2] = (byte) (length >>> 16);
+                this.buffer[start - 1] = (byte) (length >>> 24);
+            }
+        }
+
+        void string(String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+
+            varint(bytes.length);
+            bytes(bytes, bytes.length);
+        }
+
+        void varint(int value) {
+            ensure(5);
+
+            while ((value & ~0x7F) != 0) {
+                this.buffer[this.size++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+
+            this.buffer[this.size++] = (byte) value;
+        }
+
+        void write(int b) {
+            ensure(1);
+            this.buffer[this.size++] = (byte) b;
+        }
+
+        void bytes(byte[] bytes, int length) {
+            ensure(length);
+            System.arraycopy(bytes, 0, this.buffer, this.size, length);
+            this.size += length;
+        }
+
+        private void ensure(int length) {
+            if (this.size + length > this.buffer.length) {
+                this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.size + length));
+            }
+        }
+    }
+
+    private static final class Cursor {
+        final ByteBuffer bytes;
+        int p;
+
+        Cursor(ByteBuffer bytes, int p) {
+            this.bytes = bytes;
+            this.p = p;
+        }
+
+        int next() {
+            return this.bytes.get(this.p++) & 0xFF;
+        }
+
+        /**
+         * @return a varint, which is never negative
+         */
+        int varint() {
+            int value = 0;
+
+            for (int shift = 0; ; shift += 7) {
+                final int b = next();
+
+                if (shift == 28 && (b & 0xF8) != 0) {
+                    throw new Malformed("Bad varint", this.p - 1);
+                }
+
+                value |= (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        /**
+         * @return a varint counting things that take at least a byte each
+         */
+        int count() {
+            final int count = varint();
+
+            if (count > this.bytes.limit() - this.p) {
+                throw new Malformed("Bad count " + count, this.p - 1);
+            }
+
+            return count;
+        }
+
+        int skip(int length) {
+            if (length > this.bytes.limit() - this.p) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            return this.p + length;
+        }
+
+        String string() {
+            final int length = varint();
+            final int end = skip(length);
+            final String string;
+
+            if (this.bytes.hasArray()) {
+                string = new String(this.bytes.array(), this.bytes.arrayOffset() + this.p, length, StandardCharsets.UTF_8);
+            } else {
+                byte[] chars = new byte[length];
+                ByteBuffer view = this.bytes.duplicate();
+
+                view.position(this.p);
+                view.get(chars);
+                string = new String(chars, StandardCharsets.UTF_8);
+            }
+
+            this.p = end;
+
+            return string;
+        }
+    }
+
+    /**
+     * Decodes elements, deferring the members of objects and arrays until they are accessed.
+     */
+    private static final class Decoder {
+        final ByteBuffer bytes;
+        final String[] keys;
+
+        Decoder(ByteBuffer bytes, String[] keys) {
+            this.bytes = bytes;
+            this.keys = keys;
+        }
+
+        /**
+         * Decodes the element at the cursor and moves past it, which must not go beyond {@code end}.
+         */
+        OwenElement value(Cursor cursor, int end) {
+            final int start = cursor.p;
+            final int tag = cursor.next();
+            final int type = tag & 3;
+
+            if ((tag & ~(3 | COMMENTED)) != 0) {
+                throw new Malformed("Bad tag " + tag, start);
+            }
+
+            List<String> comments = null;
+
+            if ((tag & COMMENTED) != 0) {
+                final int count = cursor.count();
+
+                comments = new ArrayList<>(count);
+
+                for (int i = 0; i < count; ++i) {
+                    comments.add(cursor.string());
+                }
+            }
+
+            final OwenElement element;
+
+            if (type == LITERAL) {
+                element = new OwenElement(OwenElement.Type.LITERAL, cursor.string(), null, null);
+            } else if (type == EMPTY) {
+                element = new OwenElement();
+            } else {
+                final int count = cursor.varint();
+
+                if (count == 0) {
+                    element = type == ARRAY ? Owen.array() : Owen.object();
+                } else {
+                    final int contents = cursor.skip(4);
+                    final int length = cursor.bytes.getInt(contents - 4);
+
+                    // Each member takes at least a byte.
+                    if (length < count || length > end - contents) {
+                        throw new Malformed("Bad length " + length, contents - 4);
+                    }
+
+                    cursor.p = contents + length;
+                    element = new OwenElement();
+                    element.defer(type == ARRAY ? OwenElement.Type.ARRAY : OwenElement.Type.OBJECT,
+                            new Members(this, contents, count, length));
+                }
+            }
+
+            if (cursor.p > end) {
+                throw new Malformed("Element runs past its parent", start);
+            }
+
+            if (comments != null) {
+                element.adoptComments(comments);
+            }
+
+            return element;
+        }
+    }
+
+    private static final class Members implements OwenElement.Deferred {
+        private final Decoder decoder;
+        private final int start;
+        private final int count;
+        private final int length;
+
+        Members(Decoder decoder, int start, int count, int length) {
+            this.decoder = decoder;
+            this.start = start;
+            this.count = count;
+            this.length = length;
+        }
+
+        @Override
+        public int size() {
+            return this.count;
+        }
+
+        @Override
+        public void load(OwenElement element) {
+            final Cursor cursor = new Cursor(this.decoder.bytes, this.start);
+            final int end = this.start + this.length;
+
+            try {
+                if (element.isArray()) {
+                    for (int i = 0; i < this.count; ++i) {
+                        element.addUnshared(this.decoder.value(cursor, end));
+                    }
+                } else {
+                    Map<String, OwenElement> map = element.members();
+
+                    for (int i = 0; i < this.count; ++i) {
+                        final int key = cursor.varint();
+
+                        if (key >= this.decoder.keys.length) {
+                            throw new Malformed("Bad key " + key, cursor.p - 1);
+                        }
+
+                        map.put(this.decoder.keys[key], this.decoder.value(cursor, end));
+                    }
+                }
+            } catch (IndexOutOfBoundsException e) {
+                throw new RuntimeException("Cannot decode binary OWEN element at " + this.start + ", it is truncated!", e);
+            } catch (Malformed e) {
+                throw new RuntimeException("Cannot decode binary OWEN element at " + e.offset + ": " + e.getMessage() + "!", e);
+            }
+
+            if (cursor.p != end) {
+                throw new RuntimeException("Cannot decode binary OWEN element at " + this.start + ", its length is wrong!");
+            }
+        }
+    }
+
+    private static final class Malformed extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int offset;
+
+        Malformed(String message, int offset) {
+            super(message, null, false, false);
+            this.offset = offset;
+        }
+    }
+}
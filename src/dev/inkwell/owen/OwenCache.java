@@ -0,0 +1,353 @@
+package dev.inkwell.owen;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares the documents parsed from files between everyone who reads them. Documents are read-only, so a
+ * cached one can be handed to any number of threads.
+ *
+ * A cached document is returned as long as its file keeps the size and modification time it had when it
+ * was read, which is checked on every {@link #get(Path)}. With {@link Builder#watch()} the cache instead
+ * watches the directories of its files and drops documents as soon as the platform reports a change,
+ * so hits do not touch the file system at all. When a file is requested by several threads at once, one
+ * of them parses it and the others wait for its result. The least recently used documents are dropped
+ * once they take up more than the byte budget.
+ */
+@SuppressWarnings("unused")
+public final class OwenCache implements Closeable {
+    private final long maxBytes;
+    private final WatchService watcher;
+    private final Map<Path, WatchKey> keys = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+
+    // Least recently used first, including documents that are still being parsed. Guarded by itself.
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private OwenCache(Builder builder) throws IOException {
+        if (builder.maxBytes < 0) {
+            throw new IllegalArgumentException("Byte budget must not be negative!");
+        }
+
+        this.maxBytes = builder.maxBytes;
+
+        if (builder.watch) {
+            this.watcher = FileSystems.getDefault().newWatchService();
+
+            Thread thread = new Thread(this::watch, "owen-cache-watcher");
+
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            this.watcher = null;
+        }
+    }
+
+    /**
+     * @return the document parsed from the file, which is shared with every other caller until the file
+     * changes or the document is evicted
+     */
+    public OwenDocument get(Path path) throws IOException, ParseException {
+        final Path key = path.toAbsolutePath().normalize();
+
+        while (true) {
+            Entry entry;
+            boolean created = false;
+
+            synchronized (this.entries) {
+                entry = this.entries.get(key);
+
+                if (entry == null) {
+                    entry = new Entry();
+                    created = true;
+                    this.entries.put(key, entry);
+                }
+            }
+
+            if (created) {
+                this.misses.increment();
+                return load(key, entry);
+            }
+
+            OwenDocument document = entry.await();
+
+            try {
+                if (entry.watched || unchanged(key, entry)) {
+                    this.hits.increment();
+                    return document;
+                }
+            } catch (IOException e) {
+                remove(key, entry);
+                throw e;
+            }
+
+            remove(key, entry);
+        }
+    }
+
+    public void invalidate(Path path) {
+        final Path key = path.toAbsolutePath().normalize();
+
+        synchronized (this.entries) {
+            Entry entry = this.entries.remove(key);
+
+            if (entry != null) {
+                release(entry);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (this.entries) {
+            for (Entry entry : this.entries.values()) {
+                release(entry);
+            }
+
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * @return the estimated size of the cached documents
+     */
+    public long getBytes() {
+        synchronized (this.entries) {
+            return this.bytes;
+        }
+    }
+
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Stops watching directories and drops every document. The cache remains usable, checking files
+     * on every {@link #get(Path)} from then on.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.watcher != null) {
+            this.closed = true;
+            this.watcher.close();
+            this.keys.clear();
+            this.directories.clear();
+        }
+
+        invalidateAll();
+    }
+
+    private OwenDocument load(Path path, Entry entry) throws IOException, ParseException {
+        final OwenDocument document;
+
+        try {
+            // Watch first, so changes made while the file is read are not missed.
+            entry.watched = this.watcher != null && path.getParent() != null && watch(path.getParent());
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+                entry.modified = attributes.lastModifiedTime();
+                entry.size = attributes.size();
+                document = OwenDocument.parse(MappedFileReader.read(channel));
+            }
+        } catch (IOException | ParseException | RuntimeException | Error e) {
+            // Waiting callers get the same failure, and the next call tries again.
+            remove(path, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+
+        entry.bytes = document.footprint();
+        entry.future.complete(document);
+
+        synchronized (this.entries) {
+            // Unless it was invalidated in the meantime.
+            if (this.entries.get(path) == entry) {
+                entry.counted = true;
+                this.bytes += entry.bytes;
+                evict();
+            }
+        }
+
+        return document;
+    }
+
+    private static boolean unchanged(Path path, Entry entry) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+        return attributes.size() == entry.size && attributes.lastModifiedTime().equals(entry.modified);
+    }
+
+    private void remove(Path path, Entry entry) {
+        synchronized (this.entries) {
+            if (this.entries.remove(path, entry)) {
+                release(entry);
+            }
+        }
+    }
+
+    private void release(Entry entry) {
+        if (entry.counted) {
+            entry.counted = false;
+            this.bytes -= entry.bytes;
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = this.entries.values().iterator();
+
+        while (this.bytes > this.maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+
+            // Documents still being parsed are not counted yet.
+            if (entry.counted) {
+                iterator.remove();
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * @return whether changes to files in the directory will be reported
+     */
+    private boolean watch(Path directory) {
+        if (this.closed) {
+            return false;
+        }
+
+        if (this.keys.containsKey(directory)) {
+            return true;
+        }
+
+        try {
+            WatchKey key = directory.register(this.watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+            this.directories.put(key, directory);
+            this.keys.put(directory, key);
+
+            return true;
+        } catch (IOException | UnsupportedOperationException | ClosedWatchServiceException e) {
+            // Files in the directory are checked on every get instead.
+            return false;
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = this.watcher.take();
+                Path directory = this.directories.get(key);
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                        invalidateAll();
+                    } else {
+                        invalidate(directory.resolve((Path) event.context()));
+                    }
+                }
+
+                if (!key.reset() && directory != null) {
+                    // The directory is gone or no longer accessible.
+                    this.directories.remove(key);
+                    this.keys.remove(directory);
+                    invalidateDirectory(directory);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed.
+        }
+    }
+
+    private void invalidateDirectory(Path directory) {
+        synchronized (this.entries) {
+            Iterator<Map.Entry<Path, Entry>> iterator = this.entries.entrySet().iterator();
+
+            while (iterator.hasNext()) {
+                Map.Entry<Path, Entry> entry = iterator.next();
+
+                if (directory.equals(entry.getKey().getParent())) {
+                    iterator.remove();
+                    release(entry.getValue());
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        final CompletableFuture<OwenDocument> future = new CompletableFuture<>();
+
+        // Written by the loading thread before the future completes.
+        boolean watched;
+        FileTime modified;
+        long size;
+        long bytes;
+
+        // Whether the bytes are part of the cache's total. Guarded by the entries.
+        boolean counted;
+
+        OwenDocument await() throws IOException, ParseException {
+            try {
+                return this.future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof ParseException) throw (ParseException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw e;
+            }
+        }
+    }
+
+    public static class Builder {
+        private long maxBytes = 64L << 20;
+        private boolean watch = false;
+
+        /**
+         * Sets how many bytes of documents, as estimated from their source length and structure, are
+         * kept. Defaults to 64 MiB.
+         */
+        public Builder maxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Drops documents when a {@link WatchService} reports that their file changed, instead of checking
+         * the file on every get. Changes become visible as quickly as the platform reports them.
+         */
+        public Builder watch() {
+            this.watch = true;
+            return this;
+        }
+
+        public OwenCache build() throws IOException {
+            return new OwenCache(this);
+        }
+    }
+}
@@ -0,0 +1,865 @@
+package dev.inkwell.owen;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.text.ParseException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Converts between one Java type and Owen values, both as trees and as {@link OwenReader} events and
+ * {@link OwenWriter} calls. Codecs are built once per type by {@link OwenMapper} and never see null.
+ */
+abstract class OwenCodec {
+    final Type type;
+
+    OwenCodec(Type type) {
+        this.type = type;
+    }
+
+    abstract Object decode(OwenElement element);
+
+    /**
+     * Reads the value that starts at the reader's current event, leaving the reader on its last event.
+     */
+    abstract Object read(OwenReader reader) throws IOException, ParseException;
+
+    abstract OwenElement encode(Object value);
+
+    abstract void write(OwenWriter writer, Object value) throws IOException;
+
+    /**
+     * Writes the members of an object-like value without enclosing braces, as the document root.
+     */
+    void writeMembers(OwenWriter writer, Object value) throws IOException {
+        throw new RuntimeException("Cannot write " + this.type.getTypeName() + " as a document!");
+    }
+
+    RuntimeException mismatch(Object found) {
+        return new RuntimeException("Cannot bind " + found + " to " + this.type.getTypeName() + "!");
+    }
+
+    RuntimeException mismatch(OwenReader.Event event) {
+        switch (event) {
+            case VALUE:        return mismatch(OwenElement.Type.LITERAL);
+            case START_ARRAY:  return mismatch(OwenElement.Type.ARRAY);
+            case START_OBJECT: return mismatch(OwenElement.Type.OBJECT);
+            default:           return mismatch((Object) event);
+        }
+    }
+
+    /**
+     * Empty objects and arrays parse as {@link OwenElement.Type#EMPTY}, just like empty literals, so an
+     * empty compound read from events is treated like an empty literal.
+     *
+     * @return whether the object or array that was just started is empty
+     */
+    static boolean emptyCompound(OwenReader reader) throws IOException, ParseException {
+        OwenReader.Event event;
+
+        while ((event = reader.next()) == OwenReader.Event.COMMENT) ;
+
+        return event == OwenReader.Event.END_OBJECT || event == OwenReader.Event.END_ARRAY;
+    }
+
+    static RuntimeException rethrow(Throwable throwable) {
+        if (throwable instanceof RuntimeException) return (RuntimeException) throwable;
+        if (throwable instanceof Error) throw (Error) throwable;
+
+        return new RuntimeException(throwable);
+    }
+
+    static final class Scalar extends OwenCodec {
+        private final Function<OwenElement, Object> fromElement;
+        private final Function<String, Object> fromText;
+        private final Function<Object, String> toText;
+
+        Scalar(Type type, Function<OwenElement, Object> fromElement, Function<String, Object> fromText, Function<Object, String> toText) {
+            super(type);
+            this.fromElement = fromElement;
+            this.fromText = fromText;
+            this.toText = toText;
+        }
+
+        static Scalar[] of(Class<?> type, Function<OwenElement, Object> fromElement, Function<String, Object> fromText) {
+            return new Scalar[] {new Scalar(type, fromElement, fromText, String::valueOf)};
+        }
+
+        static Scalar[] of(Class<?> primitive, Class<?> box, Function<OwenElement, Object> fromElement, Function<String, Object> fromText) {
+            return new Scalar[] {
+                    new Scalar(primitive, fromElement, fromText, String::valueOf),
+                    new Scalar(box, fromElement, fromText, String::valueOf)
+            };
+        }
+
+        @Override
+        Object decode(OwenElement element) {
+            switch (element.getType()) {
+                case LITERAL: return this.fromElement.apply(element);
+                case EMPTY:   return this.fromText.apply("");
+                default:      throw mismatch(element.getType());
+            }
+        }
+
+        @Override
+        Object read(OwenReader reader) throws IOException, ParseException {
+            final OwenReader.Event event = reader.getEvent();
+
+            if (event == OwenReader.Event.VALUE) {
+                return this.fromText.apply(reader.getString());
+            }
+
+            if (emptyCompound(reader)) {
+                return this.fromText.apply("");
+            }
+
+            throw mismatch(event);
+        }
+
+        @Override
+        OwenElement encode(Object value) {
+            return Owen.literal(this.toText.apply(value));
+        }
+
+        @Override
+        void write(OwenWriter writer, Object value) throws IOException {
+            writer.value(this.toText.apply(value));
+        }
+    }
+
+    static final class Element extends OwenCodec {
+        Element() {
+            super(OwenElement.class);
+        }
+
+        @Override
+        Object decode(OwenElement element) {
+            return element;
+        }
+
+        @Override
+        Object read(OwenReader reader) throws IOException, ParseException {
+            return reader.readCurrent(null);
+        }
+
+        @Override
+        OwenElement encode(Object value) {
+            return (OwenElement) value;
+        }
+
+        @Override
+        void write(OwenWriter writer, Object value) throws IOException {
+            writer.value((OwenElement) value);
+        }
+
+        @Override
+        void writeMembers(OwenWriter writer, Object value) throws IOException {
+            writer.document((OwenElement) value);
+        }
+    }
+
+    /**
+     * Binds {@link Object}: literals to strings, arrays to lists and objects to maps. Values are written
+     * with the codec of their runtime class.
+     */
+    static final class Dynamic extends OwenCodec {
+        private final OwenMapper mapper;
+
+        Dynamic(OwenMapper mapper) {
+            super(Object.class);
+            this.mapper = mapper;
+        }
+
+        @Override
+        Object decode(OwenElement element) {
+            switch (element.getType()) {
+                case LITERAL:
+                    return element.asString();
+                case ARRAY: {
+                    List<Object> list = new ArrayList<>();
+
+                    for (OwenElement child : element.elements()) {
+                        list.add(decode(child));
+                    }
+
+                    return list;
+                }
+                case OBJECT: {
+                    Map<String, Object> map = new LinkedHashMap<>();
+
+                    for (Map.Entry<String, OwenElement> entry : element.members().entrySet()) {
+                        map.put(entry.getKey(), decode(entry.getValue()));
+                    }
+
+                    return map;
+                }
+                default:
+                    return "";
+            }
+        }
+
+        @Override
+        Object read(OwenReader reader) throws IOException, ParseException {
+            final OwenReader.Event event = reader.getEvent();
+
+            switch (event) {
+                case VALUE:
+                    return reader.getString();
+                case START_ARRAY: {
+                    List<Object> list = new ArrayList<>();
+
+                    while (true) {
+                        switch (reader.next()) {
+                            case COMMENT:
+                                continue;
+                            case END_ARRAY:
+                                return list.isEmpty() ? "" : list;
+                            default:
+                                list.add(read(reader));
+                        }
+                    }
+                }
+                case START_OBJECT: {
+                    Map<String, Object> map = new LinkedHashMap<>();
+
+                    while (true) {
+                        switch (reader.next()) {
+                            case COMMENT:
+                                continue;
+                            case KEY:
+                                String key = reader.getString();
+                                reader.next();
+                                map.put(key, read(reader));
+                                continue;
+                            default:
+                                return map.isEmpty() ? "" : map;
+                        }
+                    }
+                }
+            }
+
+            throw mismatch(event);
+        }
+
+        @Override
+        OwenElement encode(Object value) {
+            return codec(value).encode(value);
+        }
+
+        @Override
+        void write(OwenWriter writer, Object value) throws IOException {
+            codec(value).write(writer, value);
+        }
+
+        @Override
+        void writeMembers(OwenWriter writer, Object value) throws IOException {
+            codec(value).writeMembers(writer, value);
+        }
+
+        private OwenCodec codec(Object value) {
+            if (value.getClass() == Object.class) {
+                throw new RuntimeException("Cannot write plain java.lang.Object!");
+            }
+
+            return this.mapper.codec(value.getClass());
+        }
+    }
+
+    static final class Enumeration extends OwenCodec {
+        private final Map<String, Object> constants = new HashMap<>();
+
+        Enumeration(Class<?> type) {
+            super(type);
+
+            for (Object constant : type.getEnumConstants()) {
+                this.constants.put(((Enum<?>) constant).name(), constant);
+            }
+        }
+
+        private Object constant(String name) {
+            Object constant = this.constants.get(name);
+
+            if (constant == null) {
+                throw mismatch("'" + name + "'");
+            }
+
+            return constant;
+        }
+
+        @Override
+        Object decode(OwenElement element) {
+            if (element.isCompound()) {
+                throw mismatch(element.getType());
+            }
+
+            return constant(element.isLiteral() ? element.asString() : "");
+        }
+
+        @Override
+        Object read(OwenReader reader) throws IOException, ParseException {
+            final OwenReader.Event event = reader.getEvent();
+
+            if (event == OwenReader.Event.VALUE) {
+                return constant(reader.getString());
+            }
+
+            throw mismatch(event);
+        }
+
+        @Override
+        OwenElement encode(Object value) {
+            return Owen.literal(((Enum<?>) value).name());
+        }
+
+        @Override
+        void write(OwenWriter writer, Object value) throws IOException {
+            writer.value(((Enum<?>) value).name());
+        }
+    }
+
+    static final class Sequence extends OwenCodec {
+        private final MethodHandle constructor;
+        private final OwenCodec elements;
+
+        Sequence(Type type, MethodHandle constructor, OwenCodec elements) {
+            super(type);
+            this.constructor = constructor;
+            this.elements = elements;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Collection<Object> create() {
+            try {
+                return (Collection<Object>) (Object) this.constructor.invokeExact();
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("fallthrough")
+        Object decode(OwenElement element) {
+            Collection<Object> collection = create();
+
+            switch (element.getType()) {
+                case ARRAY:
+                    for (OwenElement child : element.elements()) {
+                        collection.add(this.elements.decode(child));
+                    }
+                    // fall through
+                case EMPTY:
+                    return collection;
+                default:
+                    throw mismatch(element.getType());
+            }
+        }
+
+        @Override
+        Object read(OwenReader reader) throws IOException, ParseException {
+            final OwenReader.Event event = reader.getEvent();
+
+            Collection<Object> collection = create();
+
+            switch (event) {
+                case START_ARRAY:
+                    while (true) {
+                        switch (reader.next()) {
+                            case COMMENT:
+                                continue;
+                            case END_ARRAY:
+                                return collection;
+                            default:
+                                collection.add(this.elements.read(reader));
+                        }
+                    }
+                case START_OBJECT:
+                    if (emptyCompound(reader)) return collection;
+                    break;
+                case VALUE:
+                    if (reader.getString().isEmpty()) return collection;
+                    break;
+            }
+
+            throw mismatch(event);
+        }
+
+        @Override
+        OwenElement encode(Object value) {
+            OwenElement array = Owen.array();
+
+            for (Object element : (Iterable<?>) value) {
+                array.add(element == null ? Owen.empty() : this.elements.encode(element));
+            }
+
+            return array;
+        }
+
+        @Override
+        void write(OwenWriter writer, Object value) throws IOException {
+            writer.beginArray();
+
+            for (Object element : (Iterable<?>) value) {
+                if (element == null) {
+                    writer.value("");
+                } else {
+                    this.elements.write(writer, element);
+                }
+            }
+
+            writer.endArray();
+        }
+    }
+
+    static final class FixedArray extends OwenCodec {
+        private final Class<?> component;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final OwenCodec elements;
+
+        FixedArray(Class<?> type, MethodHandle getter, MethodHandle setter, OwenCodec elements) {
+            super(type);
+            this.component = type.getComponentType();
+            this.getter = getter;
+            this.setter = setter;
+            this.elements = elements;
+        }
+
+        private Object toArray(List<Object> list) {
+            Object array = Array.newInstance(this.component, list.size());
+
+            try {
+                for (int i = 0; i < list.size(); ++i) {
+                    this.setter.invokeExact(array, i, list.get(i));
+                }
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+
+            return array;
+        }
+
+        @Override
+        @SuppressWarnings("fallthrough")
+        Object decode(OwenElement element) {
+            List<Object> list = new ArrayList<>();
+
+            switch (element.getType()) {
+                case ARRAY:
+                    for (OwenElement child : element.elements()) {
+                        list.add(this.elements.decode(child));
+                    }
+                    // fall through
+                case EMPTY:
+                    return toArray(list);
+                default:
+                    throw mismatch(element.getType());
+            }
+        }
+
+        @Override
+        Object read(OwenReader reader) throws IOException, ParseException {
+            final OwenReader.Event event = reader.getEvent();
+
+            List<Object> list = new ArrayList<>();
+
+            switch (event) {
+                case START_ARRAY:
+                    while (true) {
+                        switch (reader.next()) {
+                            case COMMENT:
+                                continue;
+                            case END_ARRAY:
+                                return toArray(list);
+                            default:
+                                list.add(this.elements.read(reader));
+                        }
+                    }
+                case START_OBJECT:
+                    if (emptyCompound(reader)) return toArray(list);
+                    break;
+                case VALUE:
+                    if (reader.getString().isEmpty()) return toArray(list);
+                    break;
+            }
+
+            throw mismatch(event);
+        }
+
+        private Object get(Object array, int index) {
+            try {
+                return (Object) this.getter.invokeExact(array, index);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        OwenElement encode(Object value) {
+            OwenElement array = Owen.array();
+
+            for (int i = 0, length = Array.getLength(value); i < length; ++i) {
+                Object element = get(value, i);
+                array.add(element == null ? Owen.empty() : this.elements.encode(element));
+            }
+
+            return array;
+        }
+
+        @Override
+        void write(OwenWriter writer, Object value) throws IOException {
+            writer.beginArray();
+
+            for (int i = 0, length = Array.getLength(value); i < length; ++i) {
+                Object element = get(value, i);
+
+                if (element == null) {
+                    writer.value("");
+                } else {
+                    this.elements.write(writer, element);
+                }
+            }
+
+            writer.endArray();
+        }
+    }
+
+    static final class Mapping extends OwenCodec {
+        private final MethodHandle constructor;
+        private final OwenCodec values;
+
+        Mapping(Type type, MethodHandle constructor, OwenCodec values) {
+            super(type);
+            this.constructor = constructor;
+            this.values = values;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map<String, Object> create() {
+            try {
+                return (Map<String, Object>) (Object) this.constructor.invokeExact();
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("fallthrough")
+        Object decode(OwenElement element) {
+            Map<String, Object> map = create();
+
+            switch (element.getType()) {
+                case OBJECT:
+                    for (Map.Entry<String, OwenElement> entry : element.members().entrySet()) {
+                        map.put(entry.getKey(), this.values.decode(entry.getValue()));
+                    }
+                    // fall through
+                case EMPTY:
+                    return map;
+                default:
+                    throw mismatch(element.getType());
+            }
+        }
+
+        @Override
+        Object read(OwenReader reader) throws IOException, ParseException {
+            final OwenReader.Event event = reader.getEvent();
+
+            Map<String, Object> map = create();
+
+            switch (event) {
+                case START_OBJECT:
+                    while (true) {
+                        switch (reader.next()) {
+                            case COMMENT:
+                                continue;
+                            case KEY:
+                                String key = reader.getString();
+                                reader.next();
+                                map.put(key, this.values.read(reader));
+                                continue;
+                            default:
+                                return map;
+                        }
+                    }
+                case START_ARRAY:
+                    if (emptyCompound(reader)) return map;
+                    break;
+                case VALUE:
+                    if (reader.getString().isEmpty()) return map;
+                    break;
+            }
+
+            throw mismatch(event);
+        }
+
+        @Override
+        OwenElement encode(Object value) {
+            OwenElement object = Owen.object();
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getValue() != null) {
+                    object.put(String.valueOf(entry.getKey()), this.values.encode(entry.getValue()));
+                }
+            }
+
+            return object;
+        }
+
+        @Override
+        void write(OwenWriter writer, Object value) throws IOException {
+            writer.beginObject();
+            writeMembers(writer, value);
+            writer.endObject();
+        }
+
+        @Override
+        void writeMembers(OwenWriter writer, Object value) throws IOException {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getValue() != null) {
+                    writer.key(String.valueOf(entry.getKey()));
+                    this.values.write(writer, entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * A named member of a bean or record. The accessor has the type {@code (Object)Object}; a bean's
+     * mutator has the type {@code (Object, Object)void}.
+     */
+    static final class Property {
+        final String name;
+        final Type type;
+        final MethodHandle accessor;
+        final MethodHandle mutator;
+        OwenCodec codec;
+
+        Property(String name, Type type, MethodHandle accessor, MethodHandle mutator) {
+            this.name = name;
+            this.type = type;
+            this.accessor = accessor;
+            this.mutator = mutator;
+        }
+
+        Object get(Object instance) {
+            try {
+                return (Object) this.accessor.invokeExact(instance);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+    }
+
+    /**
+     * Shared by beans and records, whose properties are resolved after the codec is registered so that
+     * types can refer to themselves.
+     */
+    abstract static class Structure extends OwenCodec {
+        Property[] properties;
+        final Map<String, Integer> indices = new HashMap<>();
+
+        Structure(Type type) {
+            super(type);
+        }
+
+        void setProperties(Property[] properties) {
+            this.properties = properties;
+
+            for (int i = 0; i < properties.length; ++i) {
+                this.indices.put(properties[i].name, i);
+            }
+        }
+
+        /**
+         * @return the state that members are bound into
+         */
+        abstract Object begin();
+
+        abstract void set(Object state, int index, Object value);
+
+        abstract Object end(Object state);
+
+        @Override
+        @SuppressWarnings("fallthrough")
+        Object decode(OwenElement element) {
+            Object state = begin();
+
+            switch (element.getType()) {
+                case OBJECT:
+                    for (Map.Entry<String, OwenElement> entry : element.members().entrySet()) {
+                        Integer index = this.indices.get(entry.getKey());
+
+                        if (index != null) {
+                            set(state, index, this.properties[index].codec.decode(entry.getValue()));
+                        }
+                    }
+                    // fall through
+                case EMPTY:
+                    return end(state);
+                default:
+                    throw mismatch(element.getType());
+            }
+        }
+
+        @Override
+        Object read(OwenReader reader) throws IOException, ParseException {
+            final OwenReader.Event event = reader.getEvent();
+
+            Object state = begin();
+
+            switch (event) {
+                case START_OBJECT:
+                    while (true) {
+                        switch (reader.next()) {
+                            case COMMENT:
+                                continue;
+                            case KEY:
+                                Integer index = this.indices.get(reader.getString());
+                                reader.next();
+
+                                if (index == null) {
+                                    reader.skipValue();
+                                } else {
+                                    set(state, index, this.properties[index].codec.read(reader));
+                                }
+
+                                continue;
+                            default:
+                                return end(state);
+                        }
+                    }
+                case START_ARRAY:
+                    if (emptyCompound(reader)) return end(state);
+                    break;
+                case VALUE:
+                    if (reader.getString().isEmpty()) return end(state);
+                    break;
+            }
+
+            throw mismatch(event);
+        }
+
+        @Override
+        OwenElement encode(Object value) {
+            OwenElement object = Owen.object();
+
+            for (Property property : this.properties) {
+                if (property.accessor == null) continue;
+
+                Object member = property.get(value);
+
+                if (member != null) {
+                    object.put(property.name, property.codec.encode(member));
+                }
+            }
+
+            return object;
+        }
+
+        @Override
+        void write(OwenWriter writer, Object value) throws IOException {
+            writer.beginObject();
+            writeMembers(writer, value);
+            writer.endObject();
+        }
+
+        @Override
+        void writeMembers(OwenWriter writer, Object value) throws IOException {
+            for (Property property : this.properties) {
+                if (property.accessor == null) continue;
+
+                Object member = property.get(value);
+
+                if (member != null) {
+                    writer.key(property.name);
+                    property.codec.write(writer, member);
+                }
+            }
+        }
+    }
+
+    static final class Bean extends Structure {
+        private final MethodHandle constructor;
+
+        Bean(Type type, MethodHandle constructor) {
+            super(type);
+            this.constructor = constructor;
+        }
+
+        @Override
+        Object begin() {
+            try {
+                return (Object) this.constructor.invokeExact();
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        void set(Object state, int index, Object value) {
+            MethodHandle mutator = this.properties[index].mutator;
+
+            if (mutator == null) return;
+
+            try {
+                mutator.invokeExact(state, value);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        Object end(Object state) {
+            return state;
+        }
+    }
+
+    static final class Record extends Structure {
+        private final MethodHandle constructor;
+        private Object[] defaults;
+
+        /**
+         * @param constructor the canonical constructor, spread to the type {@code (Object[])Object}
+         */
+        Record(Type type, MethodHandle constructor) {
+            super(type);
+            this.constructor = constructor;
+        }
+
+        @Override
+        void setProperties(Property[] properties) {
+            super.setProperties(properties);
+            this.defaults = new Object[properties.length];
+
+            for (int i = 0; i < properties.length; ++i) {
+                Class<?> raw = OwenMapper.raw(properties[i].type);
+
+                // Absent primitive components are zero, as they would be in a bean.
+                if (raw.isPrimitive()) {
+                    this.defaults[i] = Array.get(Array.newInstance(raw, 1), 0);
+                }
+            }
+        }
+
+        @Override
+        Object begin() {
+            return this.defaults.clone();
+        }
+
+        @Override
+        void set(Object state, int index, Object value) {
+            ((Object[]) state)[index] = value;
+        }
+
+        @Override
+        Object end(Object state) {
+            try {
+                return (Object) this.constructor.invokeExact((Object[]) state);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+    }
+}
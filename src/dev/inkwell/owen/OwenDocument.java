@@ -0,0 +1,720 @@
+package dev.inkwell.owen;
+
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only document that stores its structure as a flat tape of ints referencing the source text.
+ *
+ * Each node takes {@value #STRIDE} ints: type and flags, the literal span or child count, the tape index
+ * of its next sibling, its key span and its comment range. Literals are exposed as {@link CharSequence}
+ * views over the source and only turned into {@link String}s on request.
+ */
+@SuppressWarnings("unused")
+public final class OwenDocument {
+    private static final int STRIDE = 8;
+
+    private static final int TYPE = 0;
+    private static final int OFFSET = 1;
+    private static final int LENGTH = 2;
+    private static final int NEXT = 3;
+    private static final int KEY_OFFSET = 4;
+    private static final int KEY_LENGTH = 5;
+    private static final int COMMENT_INDEX = 6;
+    private static final int COMMENT_COUNT = 7;
+
+    private static final int TYPE_MASK = 0xFF;
+    private static final int ESCAPED = 0x100;
+
+    private static final OwenElement.Type[] TYPES = OwenElement.Type.values();
+
+    // Objects with more members than this get a lazily built hash index for keyed lookups, and arrays with
+    // more elements a lazily built table of their nodes for indexed ones.
+    private static final int INDEX_THRESHOLD = 8;
+
+    private final String source;
+    private final int[] tape;
+    private final int nodes;
+    private final int[] comments;
+
+    private final Map<Integer, int[]> indexes = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> elements = new ConcurrentHashMap<>();
+
+    private OwenDocument(String source, int[] tape, int nodes, int[] comments) {
+        this.source = source;
+        this.tape = tape;
+        this.nodes = nodes;
+        this.comments = comments;
+    }
+
+    public static OwenDocument parse(String string) throws ParseException {
+        return new Parser(string).parse();
+    }
+
+    public Node root() {
+        return new Node(0);
+    }
+
+    /**
+     * @return the number of nodes in the document, including the root
+     */
+    public int size() {
+        return this.nodes;
+    }
+
+    public OwenElement toElement() {
+        return root().toElement();
+    }
+
+    /**
+     * @return roughly how many bytes the document keeps reachable, counting two per source character
+     */
+    long footprint() {
+        return 2L * this.source.length() + 4L * (this.tape.length + this.comments.length) + 64;
+    }
+
+    private int type(int node) {
+        return this.tape[node * STRIDE + TYPE] & TYPE_MASK;
+    }
+
+    private int child(int node, String key) {
+        int base = node * STRIDE;
+        int count = this.tape[base + OFFSET];
+
+        if (count > INDEX_THRESHOLD) {
+            return indexed(node, key);
+        }
+
+        int found = -1;
+
+        for (int i = 0, child = node + 1; i < count; ++i, child = this.tape[child * STRIDE + NEXT]) {
+            if (keyEquals(child, key)) {
+                // Later duplicates replace earlier ones, as they do in OwenElement's map.
+                found = child;
+            }
+        }
+
+        return found;
+    }
+
+    private int indexed(int node, String key) {
+        int[] index = this.indexes.computeIfAbsent(node, this::index);
+        int mask = index.length - 1;
+
+        for (int slot = key.hashCode() & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            if (keyEquals(index[slot], key)) {
+                return index[slot];
+            }
+        }
+
+        return -1;
+    }
+
+    private int[] index(int node) {
+        int count = this.tape[node * STRIDE + OFFSET];
+        int[] index = new int[Integer.highestOneBit(count * 2 - 1) << 1];
+        int mask = index.length - 1;
+
+        // Child indices are never 0, so 0 marks an empty slot.
+        for (int i = 0, child = node + 1; i < count; ++i, child = this.tape[child * STRIDE + NEXT]) {
+            int slot = keyHash(child) & mask;
+
+            while (index[slot] != 0 && !keyEquals(index[slot], child)) {
+                slot = (slot + 1) & mask;
+            }
+
+            index[slot] = child;
+        }
+
+        return index;
+    }
+
+    private int element(int node, int index) {
+        if (this.tape[node * STRIDE + OFFSET] > INDEX_THRESHOLD) {
+            return this.elements.computeIfAbsent(node, this::elements)[index];
+        }
+
+        int child = node + 1;
+
+        for (int i = 0; i < index; ++i) {
+            child = this.tape[child * STRIDE + NEXT];
+        }
+
+        return child;
+    }
+
+    private int[] elements(int node) {
+        int[] elements = new int[this.tape[node * STRIDE + OFFSET]];
+
+        for (int i = 0, child = node + 1; i < elements.length; ++i, child = this.tape[child * STRIDE + NEXT]) {
+            elements[i] = child;
+        }
+
+        return elements;
+    }
+
+    private boolean keyEquals(int node, String key) {
+        int base = node * STRIDE;
+        int length = this.tape[base + KEY_LENGTH];
+
+        return length == key.length() && this.source.regionMatches(this.tape[base + KEY_OFFSET], key, 0, length);
+    }
+
+    private boolean keyEquals(int a, int b) {
+        int baseA = a * STRIDE, baseB = b * STRIDE;
+        int length = this.tape[baseA + KEY_LENGTH];
+
+        return length == this.tape[baseB + KEY_LENGTH]
+                && this.source.regionMatches(this.tape[baseA + KEY_OFFSET], this.source, this.tape[baseB + KEY_OFFSET], length);
+    }
+
+    private int keyHash(int node) {
+        int base = node * STRIDE;
+        int hash = 0;
+
+        for (int i = this.tape[base + KEY_OFFSET], end = i + this.tape[base + KEY_LENGTH]; i < end; ++i) {
+            hash = 31 * hash + this.source.charAt(i);
+        }
+
+        return hash;
+    }
+
+    private String key(int node) {
+        int base = node * STRIDE;
+        int offset = this.tape[base + KEY_OFFSET];
+
+        return this.source.substring(offset, offset + this.tape[base + KEY_LENGTH]);
+    }
+
+    private CharSequence literal(int node) {
+        int base = node * STRIDE;
+        int offset = this.tape[base + OFFSET];
+        int end = offset + this.tape[base + LENGTH];
+
+        if ((this.tape[base + TYPE] & ESCAPED) != 0) {
+            return decode(this.source, offset, end);
+        }
+
+        return new Slice(this.source, offset, end);
+    }
+
+    private List<String> comments(int node) {
+        int base = node * STRIDE;
+        int count = this.tape[base + COMMENT_COUNT];
+
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+
+        String[] comments = new String[count];
+
+        for (int i = 0, c = this.tape[base + COMMENT_INDEX] * 2; i < count; ++i, c += 2) {
+            comments[i] = this.source.substring(this.comments[c], this.comments[c] + this.comments[c + 1]);
+        }
+
+        return Arrays.asList(comments);
+    }
+
+    private OwenElement toElement(int node) {
+        int base = node * STRIDE;
+        int count = this.tape[base + OFFSET];
+
+        OwenElement element;
+
+        switch (TYPES[type(node)]) {
+            case LITERAL:
+                element = Owen.literal(literal(node).toString());
+                break;
+            case ARRAY:
+                element = Owen.array();
+
+                for (int i = 0, child = node + 1; i < count; ++i, child = this.tape[child * STRIDE + NEXT]) {
+                    element.add(toElement(child));
+                }
+                break;
+            case OBJECT:
+                element = Owen.object();
+
+                for (int i = 0, child = node + 1; i < count; ++i, child = this.tape[child * STRIDE + NEXT]) {
+                    element.put(key(child), toElement(child));
+                }
+                break;
+            default:
+                element = Owen.empty();
+        }
+
+        if (this.tape[base + COMMENT_COUNT] > 0) {
+            element.addComments(comments(node));
+        }
+
+        return element;
+    }
+
+    /**
+     * Decodes the escapes of a literal span that has already been validated by a parser.
+     */
+    static String decode(String source, int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start);
+
+        for (int p = start; p < end; ++p) {
+            char c = source.charAt(p);
+
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+
+            c = source.charAt(++p);
+
+            switch (c) {
+                case 'n': builder.append('\n'); break;
+                case 'r': builder.append('\r'); break;
+                case 't': builder.append('\t'); break;
+                case '\\': builder.append('\\'); break;
+                case '\n': ++p; break;
+            }
+        }
+
+        return builder.toString();
+    }
+
+    public final class Node {
+        private final int node;
+
+        private Node(int node) {
+            this.node = node;
+        }
+
+        public OwenElement.Type getType() {
+            return TYPES[type(this.node)];
+        }
+
+        public boolean isObject() {
+            return getType() == OwenElement.Type.OBJECT;
+        }
+
+        public boolean isArray() {
+            return getType() == OwenElement.Type.ARRAY;
+        }
+
+        public boolean isLiteral() {
+            return getType() == OwenElement.Type.LITERAL;
+        }
+
+        public boolean isCompound() {
+            return isObject() || isArray();
+        }
+
+        public boolean isEmpty() {
+            // Empty objects, arrays and literals are all parsed as EMPTY.
+            return getType() == OwenElement.Type.EMPTY;
+        }
+
+        /**
+         * @return the number of members or elements of an object or array
+         */
+        public int size() {
+            return isCompound() ? OwenDocument.this.tape[this.node * STRIDE + OFFSET] : 0;
+        }
+
+        public Node get(String key) {
+            OwenElement.Type type = getType();
+
+            if (type == OwenElement.Type.EMPTY) {
+                return null;
+            }
+
+            if (type != OwenElement.Type.OBJECT) {
+                throw new RuntimeException("Cannot get keyed element from non-Object element!");
+            }
+
+            int child = child(this.node, key);
+
+            return child < 0 ? null : new Node(child);
+        }
+
+        public Node get(int index) {
+            OwenElement.Type type = getType();
+
+            if (type == OwenElement.Type.EMPTY) {
+                return null;
+            }
+
+            if (type != OwenElement.Type.ARRAY) {
+                throw new RuntimeException("Cannot get indexed element from non-Array element!");
+            }
+
+            int count = size();
+
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+            }
+
+            return new Node(element(this.node, index));
+        }
+
+        public List<Node> asList() {
+            OwenElement.Type type = getType();
+
+            if (type == OwenElement.Type.EMPTY) {
+                return Collections.emptyList();
+            }
+
+            if (type != OwenElement.Type.ARRAY) {
+                throw new RuntimeException("Cannot get non-Array element as list!");
+            }
+
+            int count = size();
+            List<Node> list = new ArrayList<>(count);
+
+            for (int i = 0, child = this.node + 1; i < count; ++i, child = OwenDocument.this.tape[child * STRIDE + NEXT]) {
+                list.add(new Node(child));
+            }
+
+            return Collections.unmodifiableList(list);
+        }
+
+        public Map<String, Node> asMap() {
+            OwenElement.Type type = getType();
+
+            if (type == OwenElement.Type.EMPTY) {
+                return Collections.emptyMap();
+            }
+
+            if (type != OwenElement.Type.OBJECT) {
+                throw new RuntimeException("Cannot get non-Object element as map.");
+            }
+
+            int count = size();
+            Map<String, Node> map = new LinkedHashMap<>();
+
+            for (int i = 0, child = this.node + 1; i < count; ++i, child = OwenDocument.this.tape[child * STRIDE + NEXT]) {
+                map.put(key(child), new Node(child));
+            }
+
+            return Collections.unmodifiableMap(map);
+        }
+
+        /**
+         * @return a view of the literal's characters; escape-free literals are not copied
+         */
+        public CharSequence asCharSequence() {
+            if (getType() != OwenElement.Type.LITERAL) {
+                throw new RuntimeException("Cannot get non-Literal element as string!");
+            }
+
+            return literal(this.node);
+        }
+
+        public String asString() {
+            return asCharSequence().toString();
+        }
+
+        public int asInt() {
+            CharSequence literal = asCharSequence();
+            return OwenPrimitives.parseInt(literal, 0, literal.length());
+        }
+
+        public long asLong() {
+            CharSequence literal = asCharSequence();
+            return OwenPrimitives.parseLong(literal, 0, literal.length());
+        }
+
+        public double asDouble() {
+            CharSequence literal = asCharSequence();
+            return OwenPrimitives.parseDouble(literal, 0, literal.length());
+        }
+
+        public boolean asBoolean() {
+            CharSequence literal = asCharSequence();
+            return OwenPrimitives.parseBoolean(literal, 0, literal.length());
+        }
+
+        public List<String> getComments() {
+            return comments(this.node);
+        }
+
+        public OwenElement toElement() {
+            return OwenDocument.this.toElement(this.node);
+        }
+    }
+
+    private static final class Slice implements CharSequence {
+        private final String source;
+        private final int start;
+        private final int end;
+
+        Slice(String source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return this.end - this.start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length());
+            }
+
+            return this.source.charAt(this.start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length() || start > end) {
+                throw new IndexOutOfBoundsException("Range: [" + start + ", " + end + "), Length: " + length());
+            }
+
+            return new Slice(this.source, this.start + start, this.start + end);
+        }
+
+        @Override
+        public String toString() {
+            return this.source.substring(this.start, this.end);
+        }
+    }
+
+    /**
+     * Mirrors {@link OwenFusedParser}, recording spans on the tape instead of building elements.
+     */
+    private static final class Parser {
+        private final String string;
+        private final int eof;
+
+        private int[] tape = new int[STRIDE * 64];
+        private int nodes = 0;
+        private int[] comments = new int[16];
+        private int commentPairs = 0;
+        private int leadingComments = 0;
+
+        private int p = 0;
+
+        Parser(String string) {
+            this.string = string;
+            this.eof = string.length();
+        }
+
+        OwenDocument parse() throws ParseException {
+            seek();
+
+            int root = node(-1, 0);
+
+            object(root);
+
+            return new OwenDocument(this.string, this.tape, this.nodes, this.comments);
+        }
+
+        private int node(int keyOffset, int keyLength) {
+            if ((this.nodes + 1) * STRIDE > this.tape.length) {
+                this.tape = Arrays.copyOf(this.tape, this.tape.length * 2);
+            }
+
+            int node = this.nodes++;
+            int base = node * STRIDE;
+
+            this.tape[base + TYPE] = OwenElement.Type.EMPTY.ordinal();
+            this.tape[base + NEXT] = node + 1;
+            this.tape[base + KEY_OFFSET] = keyOffset;
+            this.tape[base + KEY_LENGTH] = keyLength;
+            this.tape[base + COMMENT_INDEX] = this.commentPairs - this.leadingComments;
+            this.tape[base + COMMENT_COUNT] = this.leadingComments;
+
+            this.leadingComments = 0;
+
+            return node;
+        }
+
+        private void element(int keyOffset, int keyLength) throws ParseException {
+            if (p < eof) {
+                char c = string.charAt(p);
+
+                switch (c) {
+                    case '{': {
+                        consume('{');
+                        int node = node(keyOffset, keyLength);
+                        object(node);
+                        consume('}');
+                        return;
+                    }
+                    case '[': {
+                        consume('[');
+                        int node = node(keyOffset, keyLength);
+                        array(node);
+                        consume(']');
+                        return;
+                    }
+                    default:
+                        value(node(keyOffset, keyLength));
+                }
+            } else {
+                node(keyOffset, keyLength);
+            }
+        }
+
+        private void object(int node) throws ParseException {
+            seek();
+
+            int count = 0;
+            char c;
+
+            while (p < eof && (c = string.charAt(p)) != '}') {
+                if (!Character.isAlphabetic(c)) {
+                    throw new ParseException("Identifier must start with alphabetic character", p);
+                }
+
+                final int s = p++;
+
+                while (p < eof && OwenTokenizer.isIdentifierPart(string.charAt(p))) {
+                    ++p;
+                }
+
+                final int keyLength = p - s;
+
+                whitespace();
+
+                consume('=');
+
+                nonBreakingWhitespace();
+
+                element(s, keyLength);
+                seek();
+
+                ++count;
+            }
+
+            close(node, count, OwenElement.Type.OBJECT);
+        }
+
+        private void array(int node) throws ParseException {
+            seek();
+
+            int count = 0;
+
+            while (p < eof && string.charAt(p) != ']') {
+                element(-1, 0);
+                seek();
+
+                ++count;
+            }
+
+            close(node, count, OwenElement.Type.ARRAY);
+        }
+
+        private void close(int node, int count, OwenElement.Type type) {
+            int base = node * STRIDE;
+
+            if (count > 0) {
+                this.tape[base + TYPE] = type.ordinal();
+                this.tape[base + OFFSET] = count;
+            }
+
+            this.tape[base + NEXT] = this.nodes;
+
+            // Comments trailing the last member have nothing to attach to.
+            this.commentPairs -= this.leadingComments;
+            this.leadingComments = 0;
+        }
+
+        private void value(int node) throws ParseException {
+            final int s = p;
+            boolean escaped = false;
+
+            char c;
+
+            while (p < eof && (c = string.charAt(p)) != '\n') {
+                if (c == '\\') {
+                    escaped = true;
+
+                    if (++p == eof) {
+                        throw new ParseException("Unexpected escaped token 'EOF'", p);
+                    }
+
+                    c = string.charAt(p);
+
+                    if (c == '\n') {
+                        // The value goes on past the escaped line break and the character after it.
+                        if (++p == eof) break;
+                    } else {
+                        OwenTokenizer.escape(c, p);
+                    }
+                }
+
+                ++p;
+            }
+
+            int base = node * STRIDE;
+            int end = Math.min(p, eof);
+
+            if (end > s) {
+                this.tape[base + TYPE] = OwenElement.Type.LITERAL.ordinal() | (escaped ? ESCAPED : 0);
+                this.tape[base + OFFSET] = s;
+                this.tape[base + LENGTH] = end - s;
+
+                if (escaped && decode(string, s, end).isEmpty()) {
+                    this.tape[base + TYPE] = OwenElement.Type.EMPTY.ordinal();
+                }
+            }
+        }
+
+        private void seek() {
+            while (p < eof) {
+                char c = string.charAt(p);
+                if (Character.isWhitespace(c)) {
+                    ++p;
+                } else if (c == '#') {
+                    comment();
+                } else {
+                    break;
+                }
+            }
+        }
+
+        private void comment() {
+            ++p;
+            whitespace();
+
+            final int s = p;
+
+            while (p < eof && string.charAt(p) != '\n') {
+                ++p;
+            }
+
+            if ((this.commentPairs + 1) * 2 > this.comments.length) {
+                this.comments = Arrays.copyOf(this.comments, this.comments.length * 2);
+            }
+
+            this.comments[this.commentPairs * 2] = s;
+            this.comments[this.commentPairs * 2 + 1] = p - s;
+            ++this.commentPairs;
+            ++this.leadingComments;
+        }
+
+        private void nonBreakingWhitespace() {
+            char c;
+
+            while (p < eof && ((c = string.charAt(p)) == ' ' || c == '\t')) {
+                ++p;
+            }
+        }
+
+        private void whitespace() {
+            while (p < eof && Character.isWhitespace(string.charAt(p))) {
+                ++p;
+            }
+        }
+
+        private void consume(char c) throws ParseException {
+            if (p < eof && string.charAt(p) == c) {
+                ++p;
+            } else {
+                throw new ParseException("Expected '" + c + "'. Found '" + (p < eof ? String.valueOf(string.charAt(p)) : "EOF") + "'", p);
+            }
+        }
+    }
+}
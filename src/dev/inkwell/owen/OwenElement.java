@@ -4,12 +4,21 @@ import java.util.*;
 
 @SuppressWarnings("unused")
 public class OwenElement {
-    private final List<String> comments = new ArrayList<>();
+    // Allocated with the first comment, as most elements have none.
+    private List<String> comments;
 
     private Type type;
     private String literalValue;
     private List<OwenElement> list;
     private Map<String, OwenElement> map;
+    private Deferred deferred;
+
+    // The primitives decoded from the literal, allocated with the first. Replaced rather than changed, so
+    // elements that are only read may be shared between threads.
+    private Decoded decoded;
+
+    // How the hash of a plain literal starts, for those packed into arrays.
+    private static final long LITERAL_HASH = mix(Type.LITERAL.ordinal() + 1);
 
     OwenElement() {
         this(Type.EMPTY, null, null, null);
@@ -22,30 +31,61 @@ public class OwenElement {
         this.map = map;
     }
 
+    void defer(Type type, Deferred deferred) {
+        this.type = type;
+        this.deferred = deferred;
+    }
+
+    private void load() {
+        if (this.deferred != null) {
+            // Cleared while loading, as members are added through methods that load.
+            Deferred deferred = this.deferred;
+            this.deferred = null;
+
+            if (this.type == Type.ARRAY) {
+                this.list = new OwenElements(deferred.size());
+            } else {
+                this.map = new OwenMembers(deferred.size());
+            }
+
+            try {
+                deferred.load(this);
+            } catch (RuntimeException | Error e) {
+                // So that the next access fails the same way, instead of finding the members loaded so far.
+                this.list = null;
+                this.map = null;
+                this.deferred = deferred;
+                throw e;
+            }
+        }
+    }
+
     public void addComment(String comment) {
-        this.comments.add(comment);
+        commentList().add(comment);
     }
 
     public void addComments(String... comments) {
-        this.comments.addAll(Arrays.asList(comments));
+        addComments(Arrays.asList(comments));
     }
 
     public void addComments(List<String> comments) {
-        this.comments.addAll(comments);
+        if (!comments.isEmpty()) {
+            commentList().addAll(comments);
+        }
     }
 
     public OwenElement withComment(String comment) {
-        this.comments.add(comment);
+        addComment(comment);
         return this;
     }
 
     public OwenElement withComments(String... comments) {
-        this.comments.addAll(Arrays.asList(comments));
+        addComments(Arrays.asList(comments));
         return this;
     }
 
     public OwenElement withComments(List<String> comments) {
-        this.comments.addAll(comments);
+        addComments(comments);
         return this;
     }
 
@@ -56,6 +96,7 @@ public class OwenElement {
 
         this.type = Type.LITERAL;
         this.literalValue = value;
+        this.decoded = null;
     }
 
     public String asString() {
@@ -66,10 +107,128 @@ public class OwenElement {
         return this.literalValue;
     }
 
+    /**
+     * Parses the literal as {@link Integer#parseInt(String)} would. The result is cached.
+     */
+    public int asInt() {
+        return toInt(asLong("int"), this.literalValue);
+    }
+
+    private static int toInt(long value, String literal) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Cannot parse '" + literal + "' as int!");
+        }
+
+        return (int) value;
+    }
+
+    /**
+     * Parses the literal as {@link Long#parseLong(String)} would. The result is cached.
+     */
+    public long asLong() {
+        return asLong("long");
+    }
+
+    private long asLong(String type) {
+        final Decoded decoded = this.decoded;
+
+        if (decoded != null && (decoded.flags & Decoded.LONG) != 0) {
+            return decoded.longValue;
+        }
+
+        String literal = literal(type);
+        long value = OwenPrimitives.parseLong(literal, 0, literal.length());
+
+        this.decoded = decoded == null ? new Decoded(Decoded.LONG, value, 0)
+                : new Decoded(decoded.flags | Decoded.LONG, value, decoded.doubleValue);
+
+        return value;
+    }
+
+    /**
+     * Parses the literal as {@link Double#parseDouble(String)} would. The result is cached.
+     */
+    public double asDouble() {
+        final Decoded decoded = this.decoded;
+
+        if (decoded != null && (decoded.flags & Decoded.DOUBLE) != 0) {
+            return decoded.doubleValue;
+        }
+
+        String literal = literal("double");
+        double value = OwenPrimitives.parseDouble(literal, 0, literal.length());
+
+        this.decoded = decoded == null ? new Decoded(Decoded.DOUBLE, 0, value)
+                : new Decoded(decoded.flags | Decoded.DOUBLE, decoded.longValue, value);
+
+        return value;
+    }
+
+    /**
+     * Parses "true" or "false", ignoring case. The result is cached.
+     */
+    public boolean asBoolean() {
+        final Decoded decoded = this.decoded;
+        final int flags = decoded == null ? 0 : decoded.flags;
+
+        if ((flags & Decoded.TRUE) != 0) return true;
+        if ((flags & Decoded.FALSE) != 0) return false;
+
+        String literal = literal("boolean");
+        boolean value = OwenPrimitives.parseBoolean(literal, 0, literal.length());
+
+        this.decoded = decoded == null ? new Decoded(value ? Decoded.TRUE : Decoded.FALSE, 0, 0)
+                : new Decoded(flags | (value ? Decoded.TRUE : Decoded.FALSE), decoded.longValue, decoded.doubleValue);
+
+        return value;
+    }
+
+    private String literal(String type) {
+        if (this.type != Type.LITERAL) {
+            throw new RuntimeException("Cannot get non-Literal element as " + type + "!");
+        }
+
+        return this.literalValue;
+    }
+
+    /**
+     * @return the elements of an array of integer literals, without boxing
+     */
+    public int[] asIntArray() {
+        List<OwenElement> list = asList();
+        String[] literals = literals();
+        int[] array = new int[list.size()];
+
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = literals == null ? list.get(i).asInt()
+                    : toInt(OwenPrimitives.parseLong(literals[i], 0, literals[i].length()), literals[i]);
+        }
+
+        return array;
+    }
+
+    /**
+     * @return the elements of an array of numeric literals, without boxing
+     */
+    public double[] asDoubleArray() {
+        List<OwenElement> list = asList();
+        String[] literals = literals();
+        double[] array = new double[list.size()];
+
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = literals == null ? list.get(i).asDouble()
+                    : OwenPrimitives.parseDouble(literals[i], 0, literals[i].length());
+        }
+
+        return array;
+    }
+
     public void add(OwenElement element) {
+        load();
+
         if (this.type == Type.EMPTY) {
             this.type = Type.ARRAY;
-            this.list = new ArrayList<>();
+            this.list = new OwenElements();
         }
 
         if (this.type != Type.ARRAY) {
@@ -80,9 +239,11 @@ public class OwenElement {
     }
 
     public void add(OwenElement element, int index) {
+        load();
+
         if (this.type == Type.EMPTY) {
             this.type = Type.ARRAY;
-            this.list = new ArrayList<>();
+            this.list = new OwenElements();
         }
 
         if (this.type != Type.ARRAY) {
@@ -92,7 +253,32 @@ public class OwenElement {
         this.list.add(index, element);
     }
 
+    /**
+     * Adds an element that nothing else refers to, such as one that was just parsed, so that arrays of
+     * plain literals can be packed.
+     */
+    void addUnshared(OwenElement element) {
+        load();
+
+        if (this.type == Type.EMPTY) {
+            this.type = Type.ARRAY;
+            this.list = new OwenElements();
+        }
+
+        if (this.type != Type.ARRAY) {
+            throw new RuntimeException("Cannot add element to non-Array element!");
+        }
+
+        if (this.list instanceof OwenElements) {
+            ((OwenElements) this.list).addUnshared(element);
+        } else {
+            this.list.add(element);
+        }
+    }
+
     public OwenElement get(int index) {
+        load();
+
         if (this.type == Type.EMPTY) {
             return null;
         }
@@ -104,10 +290,15 @@ public class OwenElement {
         return this.list.get(index);
     }
 
+    /**
+     * @return the elements of an array, which may be modified
+     */
     public List<OwenElement> asList() {
+        load();
+
         if (this.type == Type.EMPTY) {
             this.type = Type.ARRAY;
-            this.list = new ArrayList<>();
+            this.list = new OwenElements();
         }
 
         if (this.type != Type.ARRAY) {
@@ -122,9 +313,11 @@ public class OwenElement {
     }
 
     public void put(String key, OwenElement element) {
+        load();
+
         if (this.type == Type.EMPTY) {
             this.type = Type.OBJECT;
-            this.map = new LinkedHashMap<>();
+            this.map = new OwenMembers();
         }
 
         if (this.type != Type.OBJECT) {
@@ -135,6 +328,8 @@ public class OwenElement {
     }
 
     public OwenElement get(String key) {
+        load();
+
         if (this.type == Type.EMPTY) {
             return null;
         }
@@ -146,10 +341,48 @@ public class OwenElement {
         return this.map.get(key);
     }
 
+    public String getString(String key, String defaultValue) {
+        OwenElement element = get(key);
+
+        return element == null ? defaultValue : element.asString();
+    }
+
+    /**
+     * @return the member's value parsed by {@link #asInt()}, or the default if this object has no such member
+     */
+    public int getInt(String key, int defaultValue) {
+        OwenElement element = get(key);
+
+        return element == null ? defaultValue : element.asInt();
+    }
+
+    public long getLong(String key, long defaultValue) {
+        OwenElement element = get(key);
+
+        return element == null ? defaultValue : element.asLong();
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        OwenElement element = get(key);
+
+        return element == null ? defaultValue : element.asDouble();
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        OwenElement element = get(key);
+
+        return element == null ? defaultValue : element.asBoolean();
+    }
+
+    /**
+     * @return the members of an object, which may be modified
+     */
     public Map<String, OwenElement> asMap() {
+        load();
+
         if (this.type == Type.EMPTY) {
             this.type = Type.OBJECT;
-            this.map = new LinkedHashMap<>();
+            this.map = new OwenMembers();
         }
 
         if (this.type != Type.OBJECT) {
@@ -159,6 +392,13 @@ public class OwenElement {
         return this.map;
     }
 
+    /**
+     * @return an immutable copy of this element, see {@link OwenValue}
+     */
+    public OwenValue freeze() {
+        return OwenValue.of(this);
+    }
+
     public boolean isObject() {
         return this.type == Type.OBJECT;
     }
@@ -176,6 +416,11 @@ public class OwenElement {
     }
 
     public boolean isEmpty() {
+        if (this.deferred != null) {
+            // Only objects and arrays with members are deferred.
+            return false;
+        }
+
         switch (this.type) {
             case LITERAL:    return this.literalValue.isEmpty();
             case ARRAY:     return this.list.isEmpty();
@@ -186,15 +431,254 @@ public class OwenElement {
         throw new RuntimeException("Impossible type!");
     }
 
+    /**
+     * @return the comments of this element, which may be modified
+     */
     public List<String> getComments() {
+        return commentList();
+    }
+
+    /**
+     * @return the elements of an array for reading, or none if this element is empty
+     */
+    List<OwenElement> elements() {
+        load();
+        return this.type == Type.ARRAY ? this.list : Collections.emptyList();
+    }
+
+    /**
+     * @return the strings of an array whose elements are packed as plain literals, of which the first
+     * {@code elements().size()} are used, or null
+     */
+    String[] literals() {
+        load();
+        return this.type == Type.ARRAY && this.list instanceof OwenElements ? ((OwenElements) this.list).literals() : null;
+    }
+
+    /**
+     * @return whether this is a literal without comments, which is all a packed array keeps of its elements
+     */
+    boolean isPlainLiteral() {
+        return this.type == Type.LITERAL && (this.comments == null || this.comments.isEmpty());
+    }
+
+    /**
+     * @return the members of an object for reading, or none if this element is empty
+     */
+    Map<String, OwenElement> members() {
+        load();
+        return this.type == Type.OBJECT ? this.map : Collections.emptyMap();
+    }
+
+    /**
+     * @return the comments for reading, without allocating a list for an element that has none
+     */
+    List<String> comments() {
+        return this.comments == null ? Collections.emptyList() : this.comments;
+    }
+
+    /**
+     * Adds comments from a list that is taken over rather than copied, and so must not be used afterwards.
+     */
+    void adoptComments(List<String> comments) {
+        if (this.comments == null) {
+            this.comments = comments;
+        } else {
+            this.comments.addAll(comments);
+        }
+    }
+
+    private List<String> commentList() {
+        if (this.comments == null) {
+            this.comments = new ArrayList<>();
+        }
+
         return this.comments;
     }
 
+    /**
+     * Compares type, comments, literal value, elements and members, including the order of members, so
+     * equal elements are written out identically.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof OwenElement)) {
+            return false;
+        }
+
+        OwenElement other = (OwenElement) o;
+
+        if (this.type != other.type || !comments().equals(other.comments())) {
+            return false;
+        }
+
+        switch (this.type) {
+            case LITERAL:
+                return this.literalValue.equals(other.literalValue);
+            case ARRAY: {
+                List<OwenElement> elements = elements();
+                List<OwenElement> otherElements = other.elements();
+                String[] literals = literals();
+                String[] otherLiterals = other.literals();
+
+                if (literals == null && otherLiterals == null) {
+                    return elements.equals(otherElements);
+                }
+
+                if (elements.size() != otherElements.size()) {
+                    return false;
+                }
+
+                for (int i = 0; i < elements.size(); ++i) {
+                    if (literals == null ? !elements.get(i).isLiteral(otherLiterals[i])
+                            : otherLiterals == null ? !otherElements.get(i).isLiteral(literals[i]) : !literals[i].equals(otherLiterals[i])) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+            case OBJECT: {
+                Map<String, OwenElement> members = members();
+                Map<String, OwenElement> otherMembers = other.members();
+
+                if (members.size() != otherMembers.size()) {
+                    return false;
+                }
+
+                Iterator<Map.Entry<String, OwenElement>> iterator = otherMembers.entrySet().iterator();
+
+                for (Map.Entry<String, OwenElement> entry : members.entrySet()) {
+                    Map.Entry<String, OwenElement> otherEntry = iterator.next();
+
+                    if (!entry.getKey().equals(otherEntry.getKey()) || !entry.getValue().equals(otherEntry.getValue())) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        long hash = contentHash();
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    long contentHash() {
+        return contentHash(null);
+    }
+
+    /**
+     * @param hashes where to record the hashes of the objects and arrays in this subtree, or null
+     * @return a 64-bit hash of this subtree, combined from the hashes of its children
+     *
+     * Nothing is cached on the element, so no modification can leave a hash stale. It is made from the
+     * hash codes that strings cache themselves, so hashing a tree again only walks it.
+     */
+    long contentHash(Map<OwenElement, Long> hashes) {
+        long hash = mix(this.type.ordinal() + 1);
+
+        for (String comment : comments()) {
+            hash = combine(hash, comment.hashCode());
+        }
+
+        switch (this.type) {
+            case LITERAL:
+                return combine(hash, this.literalValue.hashCode());
+            case ARRAY: {
+                List<OwenElement> elements = elements();
+                String[] literals = literals();
+
+                for (int i = 0; i < elements.size(); ++i) {
+                    hash = combine(hash, literals == null ? elements.get(i).contentHash(hashes) : literalHash(literals[i]));
+                }
+
+                break;
+            }
+            case OBJECT:
+                for (Map.Entry<String, OwenElement> entry : members().entrySet()) {
+                    hash = combine(hash, entry.getKey().hashCode());
+                    hash = combine(hash, entry.getValue().contentHash(hashes));
+                }
+
+                break;
+            default:
+                return hash;
+        }
+
+        if (hashes != null) {
+            hashes.put(this, hash);
+        }
+
+        return hash;
+    }
+
+    private boolean isLiteral(String literal) {
+        return isPlainLiteral() && this.literalValue.equals(literal);
+    }
+
+    /**
+     * @return the hash of a plain literal, the same whether it is packed into an array or not
+     */
+    private static long literalHash(String literal) {
+        return combine(LITERAL_HASH, literal.hashCode());
+    }
+
+    private static long combine(long hash, long value) {
+        return mix(hash * 0x9E3779B97F4A7C15L + value);
+    }
+
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
     public Type getType() {
         return this.type;
     }
 
+    /**
+     * The primitives decoded from a literal so far, each valid if its flag is set.
+     */
+    private static final class Decoded {
+        static final int LONG = 1, DOUBLE = 2, TRUE = 4, FALSE = 8;
+
+        final int flags;
+        final long longValue;
+        final double doubleValue;
+
+        Decoded(int flags, long longValue, double doubleValue) {
+            this.flags = flags;
+            this.longValue = longValue;
+            this.doubleValue = doubleValue;
+        }
+    }
+
     public enum Type {
         LITERAL, ARRAY, OBJECT, EMPTY
     }
+
+    /**
+     * Fills in the members of an object or array when they are first accessed. Loading writes to the
+     * element without synchronization, so a tree with deferred elements must not be read by several
+     * threads at once until everything in it has been accessed.
+     */
+    interface Deferred {
+        /**
+         * @return how many members will be loaded, at most
+         */
+        int size();
+
+        void load(OwenElement element);
+    }
 }
@@ -0,0 +1,165 @@
+package dev.inkwell.owen;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The elements of an array. While all of them are plain literals that were parsed or decoded, only their
+ * strings are kept. Elements are made for them when any is first asked for, since elements can be modified
+ * and compared by identity.
+ *
+ * Making the elements is synchronized, so arrays that are only read may be shared between threads.
+ */
+final class OwenElements extends AbstractList<OwenElement> implements RandomAccess {
+    private static final String[] NO_LITERALS = new String[0];
+
+    // The literals while packed, otherwise null. The elements are written before the literals are dropped.
+    private volatile String[] literals;
+    private volatile OwenElement[] elements;
+    private int size;
+
+    OwenElements() {
+        this(0);
+    }
+
+    /**
+     * @param capacity how many elements are expected, at most
+     */
+    OwenElements(int capacity) {
+        this.literals = capacity == 0 ? NO_LITERALS : new String[capacity];
+    }
+
+    /**
+     * @return the literals of a packed array, of which the first {@link #size()} are used, or null
+     */
+    String[] literals() {
+        return this.literals;
+    }
+
+    /**
+     * Adds an element that nothing else refers to, such as one that was just parsed, which keeps the array
+     * packed if it is a plain literal.
+     */
+    void addUnshared(OwenElement element) {
+        String[] literals = this.literals;
+
+        if (literals != null && element.isPlainLiteral()) {
+            if (this.size == literals.length) {
+                this.literals = literals = Arrays.copyOf(literals, grow(this.size));
+            }
+
+            literals[this.size++] = element.asString();
+            ++this.modCount;
+        } else {
+            add(this.size, element);
+        }
+    }
+
+    @Override
+    public OwenElement get(int index) {
+        check(index);
+
+        return elements()[index];
+    }
+
+    @Override
+    public OwenElement set(int index, OwenElement element) {
+        check(index);
+
+        final OwenElement[] elements = elements();
+        final OwenElement previous = elements[index];
+
+        elements[index] = element;
+
+        return previous;
+    }
+
+    @Override
+    public void add(int index, OwenElement element) {
+        if (index < 0 || index > this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+
+        OwenElement[] elements = elements();
+
+        if (this.size == elements.length) {
+            this.elements = elements = Arrays.copyOf(elements, grow(this.size));
+        }
+
+        System.arraycopy(elements, index, elements, index + 1, this.size - index);
+        elements[index] = element;
+        ++this.size;
+        ++this.modCount;
+    }
+
+    @Override
+    public OwenElement remove(int index) {
+        check(index);
+
+        final OwenElement[] elements = elements();
+        final OwenElement removed = elements[index];
+
+        System.arraycopy(elements, index + 1, elements, index, this.size - index - 1);
+        elements[--this.size] = null;
+        ++this.modCount;
+
+        return removed;
+    }
+
+    @Override
+    protected void removeRange(int from, int to) {
+        final String[] literals = this.literals;
+        final Object[] array = literals != null ? literals : this.elements;
+
+        System.arraycopy(array, to, array, from, this.size - to);
+        Arrays.fill(array, this.size - (to - from), this.size, null);
+        this.size -= to - from;
+        ++this.modCount;
+    }
+
+    @Override
+    public void clear() {
+        removeRange(0, this.size);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    private void check(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+    }
+
+    private OwenElement[] elements() {
+        final OwenElement[] elements = this.elements;
+
+        return elements != null ? elements : unpack();
+    }
+
+    private synchronized OwenElement[] unpack() {
+        final String[] literals = this.literals;
+
+        if (literals == null) {
+            return this.elements;
+        }
+
+        final OwenElement[] elements = new OwenElement[literals.length];
+
+        for (int i = 0; i < this.size; ++i) {
+            elements[i] = new OwenElement(OwenElement.Type.LITERAL, literals[i], null, null);
+        }
+
+        this.elements = elements;
+        this.literals = null;
+
+        return elements;
+    }
+
+    private static int grow(int size) {
+        return size < 4 ? 4 : size + (size >> 1);
+    }
+}
@@ -0,0 +1,990 @@
+package dev.inkwell.owen;
+
+import dev.inkwell.owen.OwenParseResult.ParseError;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Single-pass parser that builds {@link OwenElement}s straight from the source characters.
+ *
+ * Follows the same grammar and error reporting as {@link OwenTokenizer} followed by {@link OwenParser},
+ * without materializing an intermediate token queue.
+ *
+ * In lazy mode nested objects and arrays are only scanned for validity and recorded as spans of the
+ * source; their members are parsed the first time the element is accessed, one level at a time.
+ *
+ * In parallel mode the members of the root are first located by a validating scan that builds nothing,
+ * after which their values are parsed in sections on a {@link ForkJoinPool}. The scan reports exactly
+ * the errors a sequential parse would, so the sections themselves cannot fail.
+ *
+ * Errors are collected along with their line and column while parsing goes on at the next line, and
+ * thrown by the entry points that throw once parsing is done. Reaching the end of the input where more
+ * is expected is an error like any other.
+ */
+class OwenFusedParser {
+    private final String string;
+    private final int eof;
+    private final boolean lazy;
+    private final OwenInterner interner;
+    private final boolean skipComments;
+
+    // Collects errors instead of throwing them, and stops parsing once it holds maxErrors.
+    private final List<ParseError> errors;
+    private final int maxErrors;
+
+    private List<String> leadingComments;
+    private int p = 0;
+
+    // The line containing the position that lines have been counted up to, for the positions of errors.
+    private int counted = 0;
+    private int line = 1;
+    private int lineStart = 0;
+
+    // The start of the compound whose members are being built, which spans are relative to.
+    private int base = 0;
+
+    // Whether to build every element as Spanned, which literals packed into arrays could not be.
+    private boolean keepSpans = false;
+
+    // The first backslash at or after backslashFrom, or eof if there is none. Kept between values, so that
+    // the backslashes of the whole input are found in one pass.
+    private int backslashFrom = 0;
+    private int backslash = -1;
+
+    private OwenFusedParser(String string, boolean lazy, OwenInterner interner) {
+        this(string, lazy, interner, false, 1);
+    }
+
+    /**
+     * @param skipComments whether to skip comments without reading them, leaving every element without any
+     * @param maxErrors the number of errors to collect before stopping, at least 1
+     */
+    private OwenFusedParser(String string, boolean lazy, OwenInterner interner, boolean skipComments, int maxErrors) {
+        this.string = string;
+        this.eof = string.length();
+        this.lazy = lazy;
+        this.interner = interner;
+        this.skipComments = skipComments;
+        this.errors = new ArrayList<>();
+        this.maxErrors = maxErrors;
+    }
+
+    private OwenElement root() {
+        seek();
+
+        OwenElement element = withComments(blank());
+
+        object(element);
+
+        if (keepSpans) {
+            ((Spanned) element).end = p;
+        }
+
+        return element;
+    }
+
+    private OwenElement element() {
+        final int start = p;
+        final OwenElement element;
+
+        if (p < eof) {
+            char c = string.charAt(p);
+
+            switch (c) {
+                case '{': {
+                    consume('{');
+                    element = withComments(blank());
+
+                    final int outer = base;
+                    base = start;
+
+                    if (lazy) {
+                        final int s = p;
+                        defer(element, OwenElement.Type.OBJECT, s, skipObject());
+                    } else {
+                        object(element);
+                    }
+
+                    base = outer;
+
+                    consume('}');
+                    break;
+                }
+                case '[': {
+                    consume('[');
+                    element = withComments(blank());
+
+                    final int outer = base;
+                    base = start;
+
+                    if (lazy) {
+                        final int s = p;
+                        defer(element, OwenElement.Type.ARRAY, s, skipArray());
+                    } else {
+                        array(element);
+                    }
+
+                    base = outer;
+
+                    consume(']');
+                    break;
+                }
+                default:
+                    element = withComments(literal(value()));
+            }
+        } else {
+            element = withComments(literal(""));
+        }
+
+        if (keepSpans) {
+            ((Spanned) element).start = start - base;
+            ((Spanned) element).end = p - base;
+        }
+
+        return element;
+    }
+
+    /**
+     * @return an element without a value yet, which is {@link Spanned} if spans are kept
+     */
+    private OwenElement blank() {
+        return keepSpans ? new Spanned(OwenElement.Type.EMPTY, null) : new OwenElement();
+    }
+
+    private OwenElement literal(String value) {
+        if (!keepSpans) {
+            return Owen.literal(value);
+        }
+
+        return value.isEmpty() ? blank() : new Spanned(OwenElement.Type.LITERAL, value);
+    }
+
+    private void object(OwenElement element) {
+        seek();
+
+        while (p < eof && string.charAt(p) != '}') {
+            String id = key();
+
+            if (id != null) {
+                element.put(id, element());
+            }
+
+            seek();
+        }
+
+        // Comments trailing the last member have nothing to attach to.
+        leadingComments = null;
+    }
+
+    /**
+     * Reads a member's key and its '=', up to the start of its value.
+     *
+     * @return the key, or null if it was malformed and skipped
+     */
+    private String key() {
+        final int s = p;
+        final int end = skipKey();
+
+        return end < 0 ? null : intern(s, end);
+    }
+
+    /**
+     * Reads a member's key and its '=' without building the key. A malformed key is skipped along with the
+     * rest of its line.
+     *
+     * @return the end of the key, which starts at the current position, or -1 if it was malformed
+     */
+    private int skipKey() {
+        if (!Character.isAlphabetic(string.charAt(p))) {
+            error("Identifier must start with alphabetic character", p);
+            return recover();
+        }
+
+        ++p;
+
+        while (p < eof && OwenTokenizer.isIdentifierPart(string.charAt(p))) {
+            ++p;
+        }
+
+        final int end = p;
+
+        whitespace();
+
+        if (!consume('=')) {
+            return recover();
+        }
+
+        nonBreakingWhitespace();
+
+        return end;
+    }
+
+    private void array(OwenElement element) {
+        seek();
+
+        while (p < eof && string.charAt(p) != ']') {
+            if (keepSpans) {
+                element.add(element());
+            } else {
+                element.addUnshared(element());
+            }
+
+            seek();
+        }
+
+        leadingComments = null;
+    }
+
+    private void defer(OwenElement element, OwenElement.Type type, int start, int members) {
+        // Empty compounds parse as EMPTY elements, so only compounds with members are deferred.
+        if (members > 0) {
+            element.defer(type, new Deferred(string, start, members, interner, skipComments));
+        }
+    }
+
+    private String value() {
+        final int s = p;
+        int end = lineEnd();
+
+        if (nextBackslash() >= end) {
+            p = end;
+            return intern(s, end);
+        }
+
+        StringBuilder builder = new StringBuilder(end - s + 16);
+
+        while (true) {
+            // Runs between escapes are copied whole.
+            final int backslash = nextBackslash();
+
+            if (backslash >= end) {
+                builder.append(string, p, end);
+                p = end;
+                break;
+            }
+
+            builder.append(string, p, backslash);
+            p = backslash;
+
+            if (!nextEscaped()) break;
+
+            final char c = string.charAt(p);
+
+            if (c == '\n') {
+                // The value goes on past the escaped line break and the character after it.
+                if (++p == eof) break;
+
+                ++p;
+                end = lineEnd();
+            } else {
+                final int escaped = OwenTokenizer.unescape(c);
+
+                // An unknown escape is kept as the character itself.
+                if (escaped < 0 && !escape(c)) break;
+
+                builder.append(escaped < 0 ? c : (char) escaped);
+                ++p;
+            }
+        }
+
+        return interner == null ? builder.toString() : interner.intern(builder);
+    }
+
+    /**
+     * @return the position of the line break ending the current line, or eof if it is the last
+     */
+    private int lineEnd() {
+        final int end = string.indexOf('\n', p);
+
+        return end < 0 ? eof : end;
+    }
+
+    /**
+     * @return the position of the first backslash at or after the current one, or eof if there is none
+     */
+    private int nextBackslash() {
+        if (p < backslashFrom || p > backslash) {
+            final int next = string.indexOf('\\', p);
+
+            backslashFrom = p;
+            backslash = next < 0 ? eof : next;
+        }
+
+        return backslash;
+    }
+
+    /**
+     * Moves past a backslash to the character it escapes.
+     *
+     * @return whether there is one
+     */
+    private boolean nextEscaped() {
+        if (++p < eof) {
+            return true;
+        }
+
+        error("Unexpected escaped token 'EOF'", p);
+
+        return false;
+    }
+
+    /**
+     * Reports an unknown escape at the current position.
+     *
+     * @return whether parsing goes on
+     */
+    private boolean escape(char c) {
+        error("Unexpected escaped token '" + c + "'", p);
+
+        return p < eof;
+    }
+
+    private String intern(int start, int end) {
+        return interner == null ? string.substring(start, end) : interner.intern(string, start, end);
+    }
+
+    /**
+     * Validates the members of an object without building them, stopping in front of its closing brace.
+     *
+     * @return the number of members
+     */
+    int skipObject() {
+        skip();
+
+        int members = 0;
+
+        while (p < eof && string.charAt(p) != '}') {
+            if (skipKey() >= 0) {
+                skipElement();
+                ++members;
+            }
+
+            skip();
+        }
+
+        return members;
+    }
+
+    /**
+     * Validates the elements of an array without building them, stopping in front of its closing bracket.
+     *
+     * @return the number of elements
+     */
+    int skipArray() {
+        skip();
+
+        int elements = 0;
+
+        while (p < eof && string.charAt(p) != ']') {
+            skipElement();
+            skip();
+
+            ++elements;
+        }
+
+        return elements;
+    }
+
+    void skipElement() {
+        if (p < eof) {
+            switch (string.charAt(p)) {
+                case '{':
+                    consume('{');
+                    skipObject();
+                    consume('}');
+                    break;
+                case '[':
+                    consume('[');
+                    skipArray();
+                    consume(']');
+                    break;
+                default:
+                    skipValue();
+            }
+        }
+    }
+
+    private void skipValue() {
+        int end = lineEnd();
+
+        while (true) {
+            final int backslash = nextBackslash();
+
+            if (backslash >= end) {
+                p = end;
+                break;
+            }
+
+            p = backslash;
+
+            if (!nextEscaped()) break;
+
+            final char c = string.charAt(p);
+
+            if (c == '\n') {
+                if (++p == eof) break;
+
+                ++p;
+                end = lineEnd();
+            } else {
+                if (OwenTokenizer.unescape(c) < 0 && !escape(c)) break;
+
+                ++p;
+            }
+        }
+    }
+
+    /**
+     * Walks an object, building only the values that match the path trie and skipping everything else.
+     *
+     * @return whether the selection completed, in which case the rest of the input is left unread
+     */
+    private boolean selectObject(OwenPath.Node node, OwenPath.Selection selection) {
+        final boolean outer = selection.enter();
+        int comments = p;
+
+        skip();
+
+        while (p < eof && string.charAt(p) != '}') {
+            final int s = p;
+            final int end = skipKey();
+
+            if (end >= 0) {
+                final OwenPath.Node child = node.key(string, s, end);
+
+                if (child != null) selection.replace(child);
+                if (selectElement(child, node.anyKey, comments, selection)) return true;
+            }
+
+            comments = p;
+            skip();
+        }
+
+        return selection.exit(outer);
+    }
+
+    private boolean selectArray(OwenPath.Node node, OwenPath.Selection selection) {
+        int comments = p;
+
+        skip();
+
+        for (int i = 0; p < eof && string.charAt(p) != ']'; ++i) {
+            if (selectElement(node.index(i), node.anyIndex, comments, selection)) return true;
+
+            comments = p;
+            skip();
+        }
+
+        return false;
+    }
+
+    private boolean selectElement(OwenPath.Node child, OwenPath.Node any, int comments, OwenPath.Selection selection) {
+        if (child == null && any == null) {
+            skipElement();
+            return false;
+        }
+
+        if (any == null && child.terminals == null) {
+            if (p < eof) {
+                switch (string.charAt(p)) {
+                    case '{':
+                        consume('{');
+                        if (selectObject(child, selection)) return true;
+                        consume('}');
+                        return false;
+                    case '[':
+                        consume('[');
+                        if (selectArray(child, selection)) return true;
+                        consume(']');
+                        return false;
+                }
+            }
+
+            skipElement();
+            return false;
+        }
+
+        // Go back for the comments that were skipped before this entry.
+        final int s = p;
+        p = comments;
+        seek();
+        p = s;
+
+        OwenElement element = element();
+
+        if (child != null) OwenPath.select(element, child, selection);
+        if (any != null) OwenPath.select(element, any, selection);
+
+        return selection.done();
+    }
+
+    /**
+     * Like {@link #seek()}, but discards comments instead of collecting them.
+     */
+    private void skip() {
+        while (p < eof) {
+            char c = string.charAt(p);
+            if (Character.isWhitespace(c)) {
+                ++p;
+            } else if (c == '#') {
+                ++p;
+                whitespace();
+                p = lineEnd();
+            } else {
+                break;
+            }
+        }
+    }
+
+    private void seek() {
+        if (skipComments) {
+            skip();
+            return;
+        }
+
+        while (p < eof) {
+            char c = string.charAt(p);
+            if (Character.isWhitespace(c)) {
+                ++p;
+            } else if (c == '#') {
+                comment();
+            } else {
+                break;
+            }
+        }
+    }
+
+    private void comment() {
+        ++p;
+        whitespace();
+
+        final int s = p;
+
+        p = lineEnd();
+
+        if (leadingComments == null) {
+            leadingComments = new ArrayList<>();
+        }
+
+        leadingComments.add(string.substring(s, p));
+    }
+
+    private void nonBreakingWhitespace() {
+        char c;
+
+        while (p < eof && ((c = string.charAt(p)) == ' ' || c == '\t')) {
+            ++p;
+        }
+    }
+
+    private void whitespace() {
+        while (p < eof && Character.isWhitespace(string.charAt(p))) {
+            ++p;
+        }
+    }
+
+    /**
+     * @return whether the character was there, which is an error if not
+     */
+    private boolean consume(char c) {
+        if (p < eof && string.charAt(p) == c) {
+            ++p;
+            return true;
+        }
+
+        error("Expected '" + c + "'. Found '" + (p < eof ? String.valueOf(string.charAt(p)) : "EOF") + "'", p);
+
+        return false;
+    }
+
+    /**
+     * Collects the error. Parsing stops by moving to the end of the input once as many as allowed have been
+     * collected.
+     */
+    private void error(String message, int offset) {
+        if (errors.size() < maxErrors) {
+            if (offset < counted) {
+                counted = 0;
+                line = 1;
+                lineStart = 0;
+            }
+
+            for (; counted < offset; ++counted) {
+                if (string.charAt(counted) == '\n') {
+                    ++line;
+                    lineStart = counted + 1;
+                }
+            }
+
+            errors.add(new ParseError(message, offset, line, offset - lineStart + 1));
+        }
+
+        if (errors.size() >= maxErrors) {
+            p = eof;
+        }
+    }
+
+    /**
+     * Skips the rest of the line after an error, so that parsing goes on at the next key or closing bracket.
+     *
+     * @return -1
+     */
+    private int recover() {
+        p = lineEnd();
+
+        // The comments in front of what was skipped belong to nothing.
+        leadingComments = null;
+
+        return -1;
+    }
+
+    /**
+     * Throws the first error collected, if there is one.
+     */
+    private void check() throws ParseException {
+        if (!errors.isEmpty()) {
+            ParseError error = errors.get(0);
+
+            throw new ParseException(error.getMessage(), error.getOffset());
+        }
+    }
+
+    private OwenElement withComments(OwenElement element) {
+        if (leadingComments != null) {
+            element.adoptComments(leadingComments);
+            leadingComments = null;
+        }
+
+        return element;
+    }
+
+    static OwenElement parse(String string) throws ParseException {
+        return parse(string, false, null, false);
+    }
+
+    /**
+     * Parses like {@link #parse(String)}, building every element as {@link Spanned} and without packing
+     * any array.
+     */
+    static Spanned parseSpanned(String string) throws ParseException {
+        OwenFusedParser parser = new OwenFusedParser(string, false, null);
+        parser.keepSpans = true;
+
+        Spanned root = (Spanned) parser.root();
+
+        parser.check();
+
+        return root;
+    }
+
+    static OwenElement parseLazy(String string) throws ParseException {
+        return parse(string, true, null, false);
+    }
+
+    static OwenElement parse(String string, boolean lazy, OwenInterner interner, boolean skipComments) throws ParseException {
+        OwenFusedParser parser = new OwenFusedParser(string, lazy, interner, skipComments, 1);
+        OwenElement root = parser.root();
+
+        parser.check();
+
+        return root;
+    }
+
+    static OwenParseResult tryParse(String string, OwenInterner interner, int maxErrors) {
+        OwenFusedParser parser = new OwenFusedParser(string, false, interner, false, maxErrors);
+
+        return new OwenParseResult(parser.root(), parser.errors);
+    }
+
+    static OwenElement parseParallel(String string, OwenInterner interner, boolean skipComments, ForkJoinPool pool) throws ParseException {
+        if (string.length() < 2 * MIN_SECTION_LENGTH) {
+            return parse(string, false, interner, skipComments);
+        }
+
+        OwenFusedParser parser = new OwenFusedParser(string, false, interner, skipComments, 1);
+
+        parser.seek();
+
+        OwenElement root = parser.withComments(new OwenElement());
+        List<Member> members = parser.members();
+
+        parser.check();
+
+        int sectionLength = Math.max(MIN_SECTION_LENGTH, string.length() / (pool.getParallelism() * 8));
+        Section section = new Section(parser, members, 0, members.size(), sectionLength);
+
+        pool.invoke(section);
+
+        for (int i = 0; i < members.size(); ++i) {
+            root.put(section.keys[i], section.elements[i]);
+        }
+
+        return root;
+    }
+
+    /**
+     * Scans the members of the root like {@link #object(OwenElement)}, validating their values without
+     * building them.
+     */
+    private List<Member> members() {
+        List<Member> members = new ArrayList<>();
+
+        seek();
+
+        while (p < eof && string.charAt(p) != '}') {
+            final int s = p;
+            final int keyEnd = skipKey();
+
+            if (keyEnd >= 0) {
+                final List<String> comments = leadingComments;
+                final int valueStart = p;
+
+                leadingComments = null;
+                skipElement();
+
+                members.add(new Member(s, keyEnd, valueStart, p, comments));
+            }
+
+            seek();
+        }
+
+        return members;
+    }
+
+    static void select(String string, OwenPath.Node node, OwenPath.Selection selection) throws ParseException {
+        OwenFusedParser parser = new OwenFusedParser(string, false, null);
+
+        parser.skip();
+        parser.selectObject(node, selection);
+        parser.check();
+    }
+
+    /**
+     * Parses members of the object or array starting at {@code base}, from {@code start} until either a
+     * member's value ends at one of the increasing positions {@code ends[from..] + shift}, or the compound
+     * ends at {@code close}. Used by {@link OwenSource} to replace the members an edit touched.
+     *
+     * @return the members, or null if they did not stop at any of the given positions
+     */
+    static Region region(String string, int base, int start, boolean array, boolean root, int[] ends, int from, int shift, int close) {
+        OwenFusedParser parser = new OwenFusedParser(string, false, null);
+        Region region = new Region();
+        final char closing = array ? ']' : '}';
+
+        parser.p = start;
+        parser.base = base;
+        parser.keepSpans = true;
+
+        try {
+            if (root && start == 0) {
+                // Comments in front of the first member belong to the root.
+                parser.seek();
+                region.comments = parser.leadingComments;
+                parser.leadingComments = null;
+            }
+
+            for (int k = from; ; ) {
+                parser.seek();
+
+                if (parser.p == parser.eof || string.charAt(parser.p) == closing) {
+                    // Only the root may end at the end of input.
+                    if (parser.p != close || (parser.p == parser.eof && !root)) {
+                        return null;
+                    }
+
+                    region.end = ends.length;
+                    return region;
+                }
+
+                region.keys.add(array ? null : parser.key());
+                region.elements.add((Spanned) parser.element());
+
+                if (!parser.errors.isEmpty()) {
+                    return null;
+                }
+
+                while (k < ends.length && ends[k] + shift < parser.p) {
+                    ++k;
+                }
+
+                if (k < ends.length && ends[k] + shift == parser.p) {
+                    region.end = k;
+                    return region;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Left for an enclosing compound to handle.
+            return null;
+        }
+    }
+
+    /**
+     * Checks that only comments and its key come before each value of an object, given relative to the
+     * object at {@code base}, so that none of its members were replaced by a later one with the same key.
+     */
+    static boolean keyed(String string, int base, int start, int[] starts, int[] ends) {
+        OwenFusedParser parser = new OwenFusedParser(string, false, null);
+
+        try {
+            for (int i = 0; i < starts.length; ++i) {
+                parser.p = i == 0 ? start : base + ends[i - 1];
+                parser.seek();
+                parser.leadingComments = null;
+                parser.key();
+
+                if (!parser.errors.isEmpty() || parser.p != base + starts[i]) {
+                    return false;
+                }
+            }
+        } catch (RuntimeException e) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * An element that remembers where it was found, which only {@link OwenSource} needs, so elements are only
+     * built this way by {@link #parseSpanned(String)} and {@link #region}.
+     */
+    static final class Spanned extends OwenElement {
+        // Relative to the start of its parent: from the first character of the value to just past its last,
+        // including braces. The root ends where parsing it stopped.
+        int start;
+        int end;
+
+        Spanned(OwenElement.Type type, String literalValue) {
+            super(type, literalValue, null, null);
+        }
+    }
+
+    static final class Region {
+        final List<String> keys = new ArrayList<>();
+        final List<Spanned> elements = new ArrayList<>();
+        List<String> comments;
+
+        /**
+         * The index of the end the members stopped at, or the number of ends if they ran to the close.
+         */
+        int end;
+    }
+
+    private static final int MIN_SECTION_LENGTH = 1 << 16;
+
+    private static final class Member {
+        final int keyStart;
+        final int keyEnd;
+        final int valueStart;
+        final int valueEnd;
+        final List<String> comments;
+
+        Member(int keyStart, int keyEnd, int valueStart, int valueEnd, List<String> comments) {
+            this.keyStart = keyStart;
+            this.keyEnd = keyEnd;
+            this.valueStart = valueStart;
+            this.valueEnd = valueEnd;
+            this.comments = comments;
+        }
+    }
+
+    /**
+     * Parses a run of root members, splitting it in half while it spans more than a section's length.
+     * Every section writes its own slots of the shared result arrays.
+     */
+    private static final class Section extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final OwenFusedParser scan;
+        private final List<Member> members;
+        private final int from;
+        private final int to;
+        private final int sectionLength;
+
+        final String[] keys;
+        final OwenElement[] elements;
+
+        /**
+         * @param scan the parser that located the members, whose settings the sections parse them with
+         */
+        Section(OwenFusedParser scan, List<Member> members, int from, int to, int sectionLength) {
+            this(scan, members, from, to, sectionLength, new String[members.size()], new OwenElement[members.size()]);
+        }
+
+        private Section(OwenFusedParser scan, List<Member> members, int from, int to, int sectionLength, String[] keys, OwenElement[] elements) {
+            this.scan = scan;
+            this.members = members;
+            this.from = from;
+            this.to = to;
+            this.sectionLength = sectionLength;
+            this.keys = keys;
+            this.elements = elements;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > 1 && this.members.get(this.to - 1).valueEnd - this.members.get(this.from).valueStart > this.sectionLength) {
+                int middle = (this.from + this.to) >>> 1;
+
+                invokeAll(new Section(this.scan, this.members, this.from, middle, this.sectionLength, this.keys, this.elements),
+                        new Section(this.scan, this.members, middle, this.to, this.sectionLength, this.keys, this.elements));
+
+                return;
+            }
+
+            // Every member was validated by the scan, so no errors are collected.
+            OwenFusedParser parser = new OwenFusedParser(this.scan.string, false, this.scan.interner, this.scan.skipComments, 1);
+
+            for (int i = this.from; i < this.to; ++i) {
+                Member member = this.members.get(i);
+
+                parser.p = member.valueStart;
+                parser.leadingComments = member.comments;
+
+                this.keys[i] = parser.intern(member.keyStart, member.keyEnd);
+                this.elements[i] = parser.element();
+            }
+        }
+    }
+
+    /**
+     * The unparsed members of a lazily parsed object or array.
+     */
+    static final class Deferred implements OwenElement.Deferred {
+        private final String string;
+        private final int start;
+        private final int members;
+        private final OwenInterner interner;
+        private final boolean skipComments;
+
+        Deferred(String string, int start, int members, OwenInterner interner, boolean skipComments) {
+            this.string = string;
+            this.start = start;
+            this.members = members;
+            this.interner = interner;
+            this.skipComments = skipComments;
+        }
+
+        @Override
+        public int size() {
+            return this.members;
+        }
+
+        @Override
+        public void load(OwenElement element) {
+            // The span was fully validated when it was skipped, so no errors are collected.
+            OwenFusedParser parser = new OwenFusedParser(this.string, true, this.interner, this.skipComments, 1);
+            parser.p = this.start;
+            parser.base = this.start - 1;
+
+            if (element.isObject()) {
+                parser.object(element);
+            } else {
+                parser.array(element);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package dev.inkwell.owen;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves keys and literal values to canonical {@link String} instances while parsing, so documents that
+ * repeat the same keys and values retain one copy of each.
+ *
+ * Set one with {@link Owen.Builder#interner(OwenInterner)}. An interner may be shared across parses and
+ * threads, or created per parse.
+ */
+public interface OwenInterner {
+    /**
+     * @return a string equal to {@code source.substring(start, end)}
+     */
+    String intern(String source, int start, int end);
+
+    /**
+     * @return a string equal to {@code chars.toString()}
+     */
+    default String intern(CharSequence chars) {
+        String string = chars.toString();
+        return intern(string, 0, string.length());
+    }
+
+    /**
+     * Creates a bounded interner that caches strings of up to 64 characters.
+     *
+     * @param capacity the number of cache slots, rounded up to a power of two
+     */
+    static Bounded bounded(int capacity) {
+        return new Bounded(capacity, 64);
+    }
+
+    static Bounded bounded(int capacity, int maxLength) {
+        return new Bounded(capacity, maxLength);
+    }
+
+    /**
+     * A fixed-size, direct-mapped cache: each string hashes to one slot and replaces whatever was there.
+     * Lookups and stores are single reference reads and writes, so it is safe to share without locking.
+     */
+    final class Bounded implements OwenInterner {
+        private final String[] table;
+        private final int mask;
+        private final int maxLength;
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private Bounded(int capacity, int maxLength) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Capacity must be positive!");
+            }
+
+            int size = Integer.highestOneBit(capacity);
+
+            if (size < capacity) {
+                size <<= 1;
+            }
+
+            this.table = new String[size];
+            this.mask = size - 1;
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public String intern(String source, int start, int end) {
+            final int length = end - start;
+
+            if (length > this.maxLength) {
+                this.misses.increment();
+                return source.substring(start, end);
+            }
+
+            int hash = 0;
+
+            for (int i = start; i < end; ++i) {
+                hash = 31 * hash + source.charAt(i);
+            }
+
+            final int slot = (hash ^ (hash >>> 16)) & this.mask;
+            final String cached = this.table[slot];
+
+            if (cached != null && cached.length() == length && source.regionMatches(start, cached, 0, length)) {
+                this.hits.increment();
+                return cached;
+            }
+
+            String string = source.substring(start, end);
+
+            this.table[slot] = string;
+            this.misses.increment();
+
+            return string;
+        }
+
+        @Override
+        public String intern(CharSequence chars) {
+            final int length = chars.length();
+
+            if (length > this.maxLength) {
+                this.misses.increment();
+                return chars.toString();
+            }
+
+            int hash = 0;
+
+            for (int i = 0; i < length; ++i) {
+                hash = 31 * hash + chars.charAt(i);
+            }
+
+            final int slot = (hash ^ (hash >>> 16)) & this.mask;
+            final String cached = this.table[slot];
+
+            if (cached != null && cached.length() == length && contentEquals(cached, chars)) {
+                this.hits.increment();
+                return cached;
+            }
+
+            String string = chars.toString();
+
+            this.table[slot] = string;
+            this.misses.increment();
+
+            return string;
+        }
+
+        public long getHits() {
+            return this.hits.sum();
+        }
+
+        public long getMisses() {
+            return this.misses.sum();
+        }
+
+        /**
+         * @return the fraction of lookups answered from the cache, or 0 if there were none
+         */
+        public double getHitRate() {
+            long hits = getHits();
+            long total = hits + getMisses();
+
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        public void resetStatistics() {
+            this.hits.reset();
+            this.misses.reset();
+        }
+
+        private static boolean contentEquals(String string, CharSequence chars) {
+            for (int i = 0; i < string.length(); ++i) {
+                if (string.charAt(i) != chars.charAt(i)) return false;
+            }
+
+            return true;
+        }
+    }
+}
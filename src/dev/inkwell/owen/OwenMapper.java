@@ -0,0 +1,652 @@
+package dev.inkwell.owen;
+
+import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Binds Owen documents to Java objects and back.
+ *
+ * Supported types are strings, primitives and their boxes, {@link BigInteger}, {@link BigDecimal}, enums,
+ * arrays, collections, maps with string keys, {@link OwenElement}, {@link Object} (as strings, lists and
+ * maps), records and beans. Bean properties come from public getters and setters and public fields;
+ * beans need a no-argument constructor. Unknown keys are ignored, absent ones keep their defaults, and
+ * null values are not written.
+ *
+ * A codec is built once per type from method handles and cached, so binding involves no reflection.
+ * Reading from text binds straight from {@link OwenReader} events, and writing goes straight to an
+ * {@link OwenWriter}, with the formatting of the given {@link Owen}.
+ */
+@SuppressWarnings("unused")
+public final class OwenMapper {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Map<Class<?>, OwenCodec> SCALARS = new HashMap<>();
+
+    private final Owen owen;
+    private final ConcurrentMap<Type, OwenCodec> codecs = new ConcurrentHashMap<>();
+
+    static {
+        scalar(OwenCodec.Scalar.of(String.class, OwenElement::asString, text -> text));
+        scalar(OwenCodec.Scalar.of(int.class, Integer.class, OwenElement::asInt, text -> OwenPrimitives.parseInt(text, 0, text.length())));
+        scalar(OwenCodec.Scalar.of(long.class, Long.class, OwenElement::asLong, text -> OwenPrimitives.parseLong(text, 0, text.length())));
+        scalar(OwenCodec.Scalar.of(double.class, Double.class, OwenElement::asDouble, text -> OwenPrimitives.parseDouble(text, 0, text.length())));
+        scalar(OwenCodec.Scalar.of(boolean.class, Boolean.class, OwenElement::asBoolean, text -> OwenPrimitives.parseBoolean(text, 0, text.length())));
+        scalar(OwenCodec.Scalar.of(float.class, Float.class, element -> (float) element.asDouble(), text -> (float) OwenPrimitives.parseDouble(text, 0, text.length())));
+        scalar(OwenCodec.Scalar.of(short.class, Short.class, element -> (Object) Short.parseShort(element.asString()), Short::parseShort));
+        scalar(OwenCodec.Scalar.of(byte.class, Byte.class, element -> (Object) Byte.parseByte(element.asString()), Byte::parseByte));
+        scalar(OwenCodec.Scalar.of(char.class, Character.class, element -> character(element.asString()), OwenMapper::character));
+        scalar(OwenCodec.Scalar.of(BigInteger.class, element -> new BigInteger(element.asString()), BigInteger::new));
+        scalar(OwenCodec.Scalar.of(BigDecimal.class, element -> new BigDecimal(element.asString()), BigDecimal::new));
+    }
+
+    public OwenMapper() {
+        this(new Owen.Builder().build());
+    }
+
+    /**
+     * @param owen the formatting used for writing, and the interner used for reading
+     */
+    public OwenMapper(Owen owen) {
+        this.owen = owen;
+        this.codecs.putAll(SCALARS);
+        this.codecs.put(OwenElement.class, new OwenCodec.Element());
+        this.codecs.put(Object.class, new OwenCodec.Dynamic(this));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T fromElement(OwenElement element, Class<T> type) {
+        return (T) codec(type).decode(element);
+    }
+
+    /**
+     * Binds a document without building a tree for it.
+     */
+    public <T> T fromString(String source, Class<T> type) throws ParseException {
+        try {
+            return read(new StringReader(source), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T read(Reader reader, Class<T> type) throws IOException, ParseException {
+        // Codecs have no use for comments, so the reader skips them without reading their text.
+        OwenReader owenReader = new OwenReader(reader, OwenReader.DEFAULT_BUFFER_SIZE, this.owen.interner, true);
+
+        owenReader.next();
+
+        return (T) codec(type).read(owenReader);
+    }
+
+    /**
+     * Binds a memory-mapped file, decoded as {@link Owen#parse(Path)} does.
+     */
+    public <T> T read(Path path, Class<T> type) throws IOException, ParseException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(new MappedFileReader(channel), type);
+        }
+    }
+
+    public OwenElement toElement(Object value) {
+        return codec(value.getClass()).encode(value);
+    }
+
+    /**
+     * Writes an object, record, bean or map as a document. The result is the same as
+     * {@code owen.toString(toElement(value))}.
+     */
+    public String toString(Object value) {
+        StringBuilder builder = new StringBuilder();
+
+        try {
+            codec(value.getClass()).writeMembers(this.owen.writer(builder), value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return builder.toString();
+    }
+
+    public void write(Object value, Writer writer) throws IOException {
+        OwenWriter owenWriter = this.owen.writer(writer instanceof BufferedWriter ? writer : new BufferedWriter(writer));
+
+        codec(value.getClass()).writeMembers(owenWriter, value);
+        owenWriter.flush();
+    }
+
+    OwenCodec codec(Type type) {
+        OwenCodec codec = this.codecs.get(type);
+
+        if (codec != null) {
+            return codec;
+        }
+
+        synchronized (this) {
+            codec = this.codecs.get(type);
+
+            if (codec == null) {
+                // Codecs are only published once every codec they refer to is complete.
+                Map<Type, OwenCodec> created = new HashMap<>();
+                codec = codec(type, created);
+                this.codecs.putAll(created);
+            }
+
+            return codec;
+        }
+    }
+
+    private OwenCodec codec(Type type, Map<Type, OwenCodec> created) {
+        OwenCodec codec = this.codecs.get(type);
+
+        if (codec == null) {
+            codec = created.get(type);
+        }
+
+        if (codec == null) {
+            codec = create(type, created);
+            created.put(type, codec);
+        }
+
+        return codec;
+    }
+
+    private OwenCodec create(Type type, Map<Type, OwenCodec> created) {
+        if (type instanceof TypeVariable || type instanceof WildcardType) {
+            return codec(raw(type), created);
+        }
+
+        Class<?> raw = raw(type);
+
+        if (raw.isEnum() || (raw.getSuperclass() != null && raw.getSuperclass().isEnum())) {
+            return new OwenCodec.Enumeration(raw.isEnum() ? raw : raw.getSuperclass());
+        }
+
+        if (raw.isArray()) {
+            Class<?> component = raw.getComponentType();
+            Type componentType = type instanceof GenericArrayType ? ((GenericArrayType) type).getGenericComponentType() : component;
+
+            MethodHandle getter = MethodHandles.arrayElementGetter(raw).asType(MethodType.methodType(Object.class, Object.class, int.class));
+            MethodHandle setter = MethodHandles.arrayElementSetter(raw).asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+
+            return new OwenCodec.FixedArray(raw, getter, setter, codec(componentType, created));
+        }
+
+        if (Collection.class.isAssignableFrom(raw)) {
+            Class<?> implementation = raw.isInterface() || Modifier.isAbstract(raw.getModifiers()) ? collection(raw) : raw;
+
+            return new OwenCodec.Sequence(type, constructor(implementation), codec(argument(type, 0), created));
+        }
+
+        if (Map.class.isAssignableFrom(raw)) {
+            Type key = argument(type, 0);
+
+            if (key != Object.class && key != String.class) {
+                throw new RuntimeException("Cannot bind " + type.getTypeName() + " with non-String keys!");
+            }
+
+            Class<?> implementation = raw.isInterface() || Modifier.isAbstract(raw.getModifiers()) ? map(raw) : raw;
+
+            return new OwenCodec.Mapping(type, constructor(implementation), codec(argument(type, 1), created));
+        }
+
+        if (raw.isInterface() || Modifier.isAbstract(raw.getModifiers())) {
+            throw new RuntimeException("Cannot bind abstract type " + type.getTypeName() + "!");
+        }
+
+        Map<TypeVariable<?>, Type> variables = variables(type);
+        OwenCodec.Structure structure;
+        List<OwenCodec.Property> properties;
+
+        if (Records.isRecord(raw)) {
+            properties = Records.properties(raw, variables);
+            structure = new OwenCodec.Record(type, Records.constructor(raw));
+        } else {
+            properties = beanProperties(raw, variables);
+            structure = new OwenCodec.Bean(type, constructor(raw));
+        }
+
+        // Registered before its properties are resolved, so that they may refer back to it.
+        created.put(type, structure);
+
+        for (OwenCodec.Property property : properties) {
+            property.codec = codec(property.type, created);
+        }
+
+        structure.setProperties(properties.toArray(new OwenCodec.Property[0]));
+
+        return structure;
+    }
+
+    private static Class<?> collection(Class<?> type) {
+        if (type.isAssignableFrom(ArrayList.class)) return ArrayList.class;
+        if (type.isAssignableFrom(LinkedHashSet.class)) return LinkedHashSet.class;
+        if (type.isAssignableFrom(TreeSet.class)) return TreeSet.class;
+        if (type.isAssignableFrom(ArrayDeque.class)) return ArrayDeque.class;
+
+        throw new RuntimeException("Cannot bind abstract collection " + type.getName() + "!");
+    }
+
+    private static Class<?> map(Class<?> type) {
+        if (type.isAssignableFrom(LinkedHashMap.class)) return LinkedHashMap.class;
+        if (type.isAssignableFrom(TreeMap.class)) return TreeMap.class;
+
+        throw new RuntimeException("Cannot bind abstract map " + type.getName() + "!");
+    }
+
+    /**
+     * @return a handle of the type {@code ()Object} for the no-argument constructor
+     */
+    private static MethodHandle constructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+
+            return unreflect(constructor).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException("Cannot bind " + type.getName() + " without a no-argument constructor!");
+        }
+    }
+
+    /**
+     * Collects bean properties in field declaration order, followed by properties without a field in
+     * alphabetical order.
+     */
+    private static List<OwenCodec.Property> beanProperties(Class<?> type, Map<TypeVariable<?>, Type> variables) {
+        Map<String, Method> getters = new HashMap<>();
+        Map<String, Method> setters = new HashMap<>();
+        Map<String, Field> fields = new HashMap<>();
+        Set<String> names = new LinkedHashSet<>();
+
+        List<Class<?>> hierarchy = new ArrayList<>();
+
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+
+        for (Class<?> c : hierarchy) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) continue;
+
+                names.add(field.getName());
+
+                if (Modifier.isPublic(modifiers)) {
+                    fields.put(field.getName(), field);
+                }
+            }
+        }
+
+        Set<String> methodNames = new TreeSet<>();
+
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.getDeclaringClass() == Object.class) continue;
+
+            String name = method.getName();
+            int parameters = method.getParameterCount();
+
+            if (parameters == 0 && name.length() > 3 && name.startsWith("get") && method.getReturnType() != void.class) {
+                getters.put(decapitalize(name.substring(3)), method);
+                methodNames.add(decapitalize(name.substring(3)));
+            } else if (parameters == 0 && name.length() > 2 && name.startsWith("is") && method.getReturnType() == boolean.class) {
+                getters.putIfAbsent(decapitalize(name.substring(2)), method);
+                methodNames.add(decapitalize(name.substring(2)));
+            } else if (parameters == 1 && name.length() > 3 && name.startsWith("set")) {
+                String property = decapitalize(name.substring(3));
+                Method previous = setters.get(property);
+
+                // Of overloaded setters, prefer the one that takes what the getter returns.
+                if (previous == null || (getters.containsKey(property) && getters.get(property).getReturnType() == method.getParameterTypes()[0])) {
+                    setters.put(property, method);
+                }
+
+                methodNames.add(property);
+            }
+        }
+
+        names.addAll(methodNames);
+
+        List<OwenCodec.Property> properties = new ArrayList<>();
+
+        for (String name : names) {
+            Method getter = getters.get(name);
+            Method setter = setters.get(name);
+            Field field = fields.get(name);
+
+            if (setter != null && getter != null && !setter.getParameterTypes()[0].isAssignableFrom(getter.getReturnType())) {
+                setter = null;
+            }
+
+            MethodHandle accessor = null;
+            MethodHandle mutator = null;
+            Type propertyType;
+
+            if (getter != null) {
+                accessor = unreflect(getter);
+                propertyType = getter.getGenericReturnType();
+            } else if (field != null) {
+                accessor = unreflectGetter(field);
+                propertyType = field.getGenericType();
+            } else if (setter != null) {
+                propertyType = setter.getGenericParameterTypes()[0];
+            } else {
+                continue;
+            }
+
+            if (setter != null) {
+                mutator = unreflect(setter);
+            } else if (field != null && !Modifier.isFinal(field.getModifiers())) {
+                mutator = unreflectSetter(field);
+            }
+
+            properties.add(new OwenCodec.Property(name, resolve(propertyType, variables),
+                    accessor == null ? null : accessor.asType(MethodType.methodType(Object.class, Object.class)),
+                    mutator == null ? null : mutator.asType(MethodType.methodType(void.class, Object.class, Object.class))));
+        }
+
+        return properties;
+    }
+
+    private static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static void accessible(AccessibleObject member, Class<?> owner, int modifiers) {
+        if (!Modifier.isPublic(owner.getModifiers()) || !Modifier.isPublic(modifiers)) {
+            member.setAccessible(true);
+        }
+    }
+
+    static MethodHandle unreflect(Method method) {
+        accessible(method, method.getDeclaringClass(), method.getModifiers());
+
+        try {
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access " + method + "!", e);
+        }
+    }
+
+    static MethodHandle unreflect(Constructor<?> constructor) {
+        accessible(constructor, constructor.getDeclaringClass(), constructor.getModifiers());
+
+        try {
+            return LOOKUP.unreflectConstructor(constructor);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access " + constructor + "!", e);
+        }
+    }
+
+    private static MethodHandle unreflectGetter(Field field) {
+        accessible(field, field.getDeclaringClass(), field.getModifiers());
+
+        try {
+            return LOOKUP.unreflectGetter(field);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access " + field + "!", e);
+        }
+    }
+
+    private static MethodHandle unreflectSetter(Field field) {
+        accessible(field, field.getDeclaringClass(), field.getModifiers());
+
+        try {
+            return LOOKUP.unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access " + field + "!", e);
+        }
+    }
+
+    static Class<?> raw(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        } else if (type instanceof GenericArrayType) {
+            return Array.newInstance(raw(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        } else if (type instanceof WildcardType) {
+            return raw(((WildcardType) type).getUpperBounds()[0]);
+        } else if (type instanceof TypeVariable) {
+            return raw(((TypeVariable<?>) type).getBounds()[0]);
+        }
+
+        throw new RuntimeException("Cannot bind type " + type + "!");
+    }
+
+    private static Type argument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) type).getActualTypeArguments()[index];
+
+            return argument instanceof WildcardType || argument instanceof TypeVariable ? raw(argument) : argument;
+        }
+
+        return Object.class;
+    }
+
+    private static Map<TypeVariable<?>, Type> variables(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return Collections.emptyMap();
+        }
+
+        TypeVariable<?>[] parameters = raw(type).getTypeParameters();
+        Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+        Map<TypeVariable<?>, Type> variables = new HashMap<>();
+
+        for (int i = 0; i < parameters.length; ++i) {
+            variables.put(parameters[i], arguments[i]);
+        }
+
+        return variables;
+    }
+
+    /**
+     * Substitutes the type arguments of a generic bean or record into the type of one of its properties.
+     */
+    static Type resolve(Type type, Map<TypeVariable<?>, Type> variables) {
+        if (variables.isEmpty()) {
+            return type;
+        }
+
+        if (type instanceof TypeVariable) {
+            Type resolved = variables.get(type);
+            return resolved == null ? type : resolved;
+        }
+
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Type[] arguments = parameterized.getActualTypeArguments().clone();
+            boolean changed = false;
+
+            for (int i = 0; i < arguments.length; ++i) {
+                Type argument = resolve(arguments[i], variables);
+                changed |= argument != arguments[i];
+                arguments[i] = argument;
+            }
+
+            return changed ? new Parameterized((Class<?>) parameterized.getRawType(), parameterized.getOwnerType(), arguments) : type;
+        }
+
+        if (type instanceof GenericArrayType) {
+            Type component = resolve(((GenericArrayType) type).getGenericComponentType(), variables);
+            return component instanceof Class ? Array.newInstance((Class<?>) component, 0).getClass() : type;
+        }
+
+        return type;
+    }
+
+    private static Object character(String text) {
+        if (text.length() != 1) {
+            throw new IllegalArgumentException("Cannot parse '" + text + "' as char!");
+        }
+
+        return text.charAt(0);
+    }
+
+    private static void scalar(OwenCodec.Scalar[] codecs) {
+        for (OwenCodec.Scalar codec : codecs) {
+            SCALARS.put((Class<?>) codec.type, codec);
+        }
+    }
+
+    /**
+     * A resolved generic type, equal to the JDK's own implementation.
+     */
+    private static final class Parameterized implements ParameterizedType {
+        private final Class<?> raw;
+        private final Type owner;
+        private final Type[] arguments;
+
+        Parameterized(Class<?> raw, Type owner, Type[] arguments) {
+            this.raw = raw;
+            this.owner = owner;
+            this.arguments = arguments;
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return this.arguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return this.raw;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return this.owner;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ParameterizedType)) return false;
+
+            ParameterizedType that = (ParameterizedType) o;
+
+            return this.raw.equals(that.getRawType())
+                    && Objects.equals(this.owner, that.getOwnerType())
+                    && Arrays.equals(this.arguments, that.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(this.arguments) ^ Objects.hashCode(this.owner) ^ this.raw.hashCode();
+        }
+
+        @Override
+        public String getTypeName() {
+            StringBuilder builder = new StringBuilder(this.raw.getTypeName()).append('<');
+
+            for (int i = 0; i < this.arguments.length; ++i) {
+                if (i > 0) builder.append(", ");
+                builder.append(this.arguments[i].getTypeName());
+            }
+
+            return builder.append('>').toString();
+        }
+
+        @Override
+        public String toString() {
+            return getTypeName();
+        }
+    }
+
+    /**
+     * Finds record components reflectively, so that records are supported on runtimes that have them
+     * while this library still targets Java 8.
+     */
+    private static final class Records {
+        private static final Method IS_RECORD;
+        private static final Method GET_RECORD_COMPONENTS;
+        private static final Method GET_NAME;
+        private static final Method GET_TYPE;
+        private static final Method GET_GENERIC_TYPE;
+        private static final Method GET_ACCESSOR;
+
+        static {
+            Method[] methods = new Method[6];
+
+            try {
+                Class<?> component = Class.forName("java.lang.reflect.RecordComponent");
+
+                methods[0] = Class.class.getMethod("isRecord");
+                methods[1] = Class.class.getMethod("getRecordComponents");
+                methods[2] = component.getMethod("getName");
+                methods[3] = component.getMethod("getType");
+                methods[4] = component.getMethod("getGenericType");
+                methods[5] = component.getMethod("getAccessor");
+            } catch (ReflectiveOperationException e) {
+                methods[0] = null;
+            }
+
+            IS_RECORD = methods[0];
+            GET_RECORD_COMPONENTS = methods[1];
+            GET_NAME = methods[2];
+            GET_TYPE = methods[3];
+            GET_GENERIC_TYPE = methods[4];
+            GET_ACCESSOR = methods[5];
+        }
+
+        static boolean isRecord(Class<?> type) {
+            return IS_RECORD != null && (Boolean) invoke(IS_RECORD, type);
+        }
+
+        static List<OwenCodec.Property> properties(Class<?> type, Map<TypeVariable<?>, Type> variables) {
+            List<OwenCodec.Property> properties = new ArrayList<>();
+
+            for (Object component : (Object[]) invoke(GET_RECORD_COMPONENTS, type)) {
+                MethodHandle accessor = unreflect((Method) invoke(GET_ACCESSOR, component));
+
+                properties.add(new OwenCodec.Property((String) invoke(GET_NAME, component),
+                        resolve((Type) invoke(GET_GENERIC_TYPE, component), variables),
+                        accessor.asType(MethodType.methodType(Object.class, Object.class)), null));
+            }
+
+            return properties;
+        }
+
+        /**
+         * @return the canonical constructor, spread to the type {@code (Object[])Object}
+         */
+        static MethodHandle constructor(Class<?> type) {
+            Object[] components = (Object[]) invoke(GET_RECORD_COMPONENTS, type);
+            Class<?>[] parameters = new Class<?>[components.length];
+
+            for (int i = 0; i < components.length; ++i) {
+                parameters[i] = (Class<?>) invoke(GET_TYPE, components[i]);
+            }
+
+            try {
+                return unreflect(type.getDeclaredConstructor(parameters))
+                        .asType(MethodType.methodType(Object.class, parameters))
+                        .asSpreader(Object[].class, parameters.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException("Cannot find canonical constructor of " + type.getName() + "!", e);
+            }
+        }
+
+        private static Object invoke(Method method, Object target) {
+            try {
+                return method.invoke(target);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
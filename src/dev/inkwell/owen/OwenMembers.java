@@ -0,0 +1,233 @@
+package dev.inkwell.owen;
+
+import java.util.*;
+
+/**
+ * The members of an object, in order. Small objects keep their keys and values in two arrays that are
+ * searched from the start, and move them into a hash table once they grow past {@link #COMPACT_SIZE}.
+ */
+final class OwenMembers extends AbstractMap<String, OwenElement> {
+    static final int COMPACT_SIZE = 8;
+
+    private static final String[] NO_KEYS = new String[0];
+    private static final OwenElement[] NO_VALUES = new OwenElement[0];
+
+    // The members while compact, otherwise null.
+    private String[] keys;
+    private OwenElement[] values;
+    private int size;
+
+    // The members once there were too many to search.
+    private LinkedHashMap<String, OwenElement> table;
+
+    // Counts additions and removals of compact members, so that iterators can detect them.
+    private int modifications;
+
+    OwenMembers() {
+        this(0);
+    }
+
+    /**
+     * @param capacity how many members are expected, at most
+     */
+    OwenMembers(int capacity) {
+        if (capacity > COMPACT_SIZE) {
+            this.table = new LinkedHashMap<>((int) Math.min(capacity * 4L / 3 + 1, 1 << 30));
+        } else {
+            this.keys = capacity == 0 ? NO_KEYS : new String[capacity];
+            this.values = capacity == 0 ? NO_VALUES : new OwenElement[capacity];
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.table == null ? this.size : this.table.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.table == null ? indexOf(key) >= 0 : this.table.containsKey(key);
+    }
+
+    @Override
+    public OwenElement get(Object key) {
+        if (this.table != null) {
+            return this.table.get(key);
+        }
+
+        final int index = indexOf(key);
+
+        return index < 0 ? null : this.values[index];
+    }
+
+    @Override
+    public OwenElement put(String key, OwenElement value) {
+        if (this.table == null) {
+            final int index = indexOf(key);
+
+            if (index >= 0) {
+                OwenElement previous = this.values[index];
+
+                this.values[index] = value;
+
+                return previous;
+            }
+
+            ++this.modifications;
+
+            if (this.size < COMPACT_SIZE) {
+                if (this.size == this.keys.length) {
+                    final int capacity = Math.min(Math.max(4, this.size * 2), COMPACT_SIZE);
+
+                    this.keys = Arrays.copyOf(this.keys, capacity);
+                    this.values = Arrays.copyOf(this.values, capacity);
+                }
+
+                this.keys[this.size] = key;
+                this.values[this.size] = value;
+                ++this.size;
+
+                return null;
+            }
+
+            this.table = new LinkedHashMap<>(COMPACT_SIZE * 4);
+
+            for (int i = 0; i < this.size; ++i) {
+                this.table.put(this.keys[i], this.values[i]);
+            }
+
+            this.keys = null;
+            this.values = null;
+            this.size = 0;
+        }
+
+        return this.table.put(key, value);
+    }
+
+    @Override
+    public OwenElement remove(Object key) {
+        if (this.table != null) {
+            return this.table.remove(key);
+        }
+
+        final int index = indexOf(key);
+
+        return index < 0 ? null : removeAt(index);
+    }
+
+    @Override
+    public void clear() {
+        ++this.modifications;
+        this.keys = NO_KEYS;
+        this.values = NO_VALUES;
+        this.size = 0;
+        this.table = null;
+    }
+
+    @Override
+    public Set<Entry<String, OwenElement>> entrySet() {
+        return new AbstractSet<Entry<String, OwenElement>>() {
+            @Override
+            public Iterator<Entry<String, OwenElement>> iterator() {
+                return OwenMembers.this.table == null ? new Members() : OwenMembers.this.table.entrySet().iterator();
+            }
+
+            @Override
+            public int size() {
+                return OwenMembers.this.size();
+            }
+
+            @Override
+            public void clear() {
+                OwenMembers.this.clear();
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < this.size; ++i) {
+            if (Objects.equals(key, this.keys[i])) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private OwenElement removeAt(int index) {
+        final OwenElement removed = this.values[index];
+        final int moved = this.size - index - 1;
+
+        System.arraycopy(this.keys, index + 1, this.keys, index, moved);
+        System.arraycopy(this.values, index + 1, this.values, index, moved);
+
+        --this.size;
+        this.keys[this.size] = null;
+        this.values[this.size] = null;
+        ++this.modifications;
+
+        return removed;
+    }
+
+    private final class Members implements Iterator<Entry<String, OwenElement>> {
+        private int next = 0;
+        private int last = -1;
+        private int expected = OwenMembers.this.modifications;
+
+        @Override
+        public boolean hasNext() {
+            return this.next < OwenMembers.this.size;
+        }
+
+        @Override
+        public Entry<String, OwenElement> next() {
+            check();
+
+            if (this.next >= OwenMembers.this.size) {
+                throw new NoSuchElementException();
+            }
+
+            this.last = this.next++;
+
+            return new Member(OwenMembers.this.keys[this.last], OwenMembers.this.values[this.last]);
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+
+            check();
+            removeAt(this.last);
+
+            this.next = this.last;
+            this.last = -1;
+            this.expected = OwenMembers.this.modifications;
+        }
+
+        private void check() {
+            if (OwenMembers.this.modifications != this.expected) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * A compact member, which writes a new value through to the object.
+     */
+    private final class Member extends SimpleEntry<String, OwenElement> {
+        private static final long serialVersionUID = 1L;
+
+        Member(String key, OwenElement value) {
+            super(key, value);
+        }
+
+        @Override
+        public OwenElement setValue(OwenElement value) {
+            super.setValue(value);
+
+            return put(getKey(), value);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package dev.inkwell.owen;
+
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of {@link Owen#tryParse(String, int)}: a tree, and the errors found while parsing it, in the
+ * order of their position. Nothing is thrown for malformed input.
+ *
+ * After an error the parser skips to the next line, so that parsing resumes at the next key or closing
+ * bracket. The tree holds everything that parsed, which makes it incomplete when there are errors.
+ */
+public final class OwenParseResult {
+    private final OwenElement element;
+    private final List<ParseError> errors;
+
+    OwenParseResult(OwenElement element, List<ParseError> errors) {
+        this.element = element;
+        this.errors = Collections.unmodifiableList(errors);
+    }
+
+    public boolean isValid() {
+        return this.errors.isEmpty();
+    }
+
+    /**
+     * @return the parsed tree, which is incomplete if there were errors
+     */
+    public OwenElement getElement() {
+        return this.element;
+    }
+
+    public List<ParseError> getErrors() {
+        return this.errors;
+    }
+
+    /**
+     * @return the tree, as {@link Owen#parse(String)} would return it
+     * @throws ParseException for the first error
+     */
+    public OwenElement getOrThrow() throws ParseException {
+        if (!this.errors.isEmpty()) {
+            ParseError error = this.errors.get(0);
+
+            throw new ParseException(error.message, error.offset);
+        }
+
+        return this.element;
+    }
+
+    public static final class ParseError {
+        private final String message;
+        private final int offset;
+        private final int line;
+        private final int column;
+
+        ParseError(String message, int offset, int line, int column) {
+            this.message = message;
+            this.offset = offset;
+            this.line = line;
+            this.column = column;
+        }
+
+        public String getMessage() {
+            return this.message;
+        }
+
+        /**
+         * @return the index of the character the error was found at
+         */
+        public int getOffset() {
+            return this.offset;
+        }
+
+        /**
+         * @return the line the error was found on, counting from 1
+         */
+        public int getLine() {
+            return this.line;
+        }
+
+        /**
+         * @return the column the error was found in, counting characters from 1
+         */
+        public int getColumn() {
+            return this.column;
+        }
+
+        @Override
+        public String toString() {
+            return this.line + ":" + this.column + ": " + this.message;
+        }
+    }
+}
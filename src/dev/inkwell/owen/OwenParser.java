@@ -7,9 +7,16 @@ import java.util.*;
 class OwenParser {
     private final List<String> leadingComments = new ArrayList<>();
     private final Deque<Token> tokens;
+    private final OwenTokenizer tokenizer;
 
-    OwenParser(Deque<Token> tokens) {
-        this.tokens = tokens;
+    // How many tokens have been taken from the queue, and where the last one starts, for errors.
+    private int taken = 0;
+    private final int end;
+
+    OwenParser(OwenTokenizer tokenizer) {
+        this.tokens = tokenizer.tokens();
+        this.tokenizer = tokenizer;
+        this.end = this.tokens.isEmpty() ? 0 : tokenizer.offset(this.tokens.size() - 1);
     }
 
     public OwenElement parse() throws ParseException {
@@ -46,7 +53,7 @@ class OwenParser {
         withComments(element);
 
         while (!tokens.isEmpty() && peek().map(t -> matches(t, Token.Type.OBJECT_START, Token.Type.ARRAY_START, Token.Type.VALUE)).orElse(false)) {
-            element.add(value());
+            element.addUnshared(value());
         }
 
         consumeComments();
@@ -58,7 +65,7 @@ class OwenParser {
 
     private OwenElement value() throws ParseException {
         Token token = peek().orElseThrow(() ->
-                new ParseException("Expected 'OBJECT_START', 'ARRAY_START', or 'VALUE'. Found 'EOF'.", -1)
+                new ParseException("Expected 'OBJECT_START', 'ARRAY_START', or 'VALUE'. Found 'EOF'.", end)
         );
 
         switch (token.getType()) {
@@ -66,7 +73,8 @@ class OwenParser {
             case ARRAY_START: return array();
             case VALUE: return withComments(Owen.literal(next().getValue()));
             default:
-                throw new ParseException("Expected 'OBJECT_START', 'ARRAY_START', or 'VALUE'. Found '" + token + "'.", -1);
+                next();
+                throw new ParseException("Expected 'OBJECT_START', 'ARRAY_START', or 'VALUE'. Found '" + token + "'.", offset());
         }
     }
 
@@ -74,7 +82,7 @@ class OwenParser {
         Token token = next();
 
         if (token.getType() != tokenType) {
-            throw new ParseException("Expected '" + tokenType.toString() + "'. Found '" + token.toString() + "'.", -1);
+            throw new ParseException("Expected '" + tokenType.toString() + "'. Found '" + token.toString() + "'.", offset());
         }
     }
 
@@ -88,14 +96,26 @@ class OwenParser {
 
     private Token next() throws ParseException {
         while (!tokens.isEmpty() && tokens.peek().getType() == Token.Type.COMMENT) {
-            this.leadingComments.add(tokens.pop().getValue());
+            this.leadingComments.add(pop().getValue());
         }
 
         if (tokens.isEmpty()) {
-            throw new ParseException("Expected token. Found 'EOF'.", -1);
+            throw new ParseException("Expected token. Found 'EOF'.", end);
         }
 
-        return tokens.pop();
+        return pop();
+    }
+
+    private Token pop() {
+        ++this.taken;
+        return this.tokens.pop();
+    }
+
+    /**
+     * @return where the last token taken starts
+     */
+    private int offset() {
+        return this.tokenizer.offset(this.taken - 1);
     }
 
     private OwenElement withComments(OwenElement element) {
@@ -108,7 +128,7 @@ class OwenParser {
 
     private void consumeComments() {
         while (!tokens.isEmpty() && tokens.peek().getType() == Token.Type.COMMENT) {
-            this.tokens.pop();
+            pop();
         }
     }
 
@@ -0,0 +1,396 @@
+package dev.inkwell.owen;
+
+import java.util.*;
+
+/**
+ * The differences between two trees, as changes that turn the first into the second when applied in order.
+ *
+ * Both trees are hashed once up front, recording the 64-bit content hash of every object and array in
+ * them. Subtrees whose hashes differ are diffed further, and those whose hashes match are skipped once
+ * {@link OwenElement#equals(Object)} confirms they are equal, so a hash collision cannot hide a change. Members that are not in both objects are added or removed, and members that are get diffed in
+ * turn. Arrays are matched up from both ends, and the elements in between are diffed pairwise, with any
+ * left over added or removed. An object whose remaining members changed order, and an element whose type
+ * changed, are changed as a whole.
+ */
+@SuppressWarnings("unused")
+public final class OwenPatch {
+    private final List<Change> changes;
+
+    private OwenPatch(List<Change> changes) {
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    static OwenPatch diff(OwenElement from, OwenElement to) {
+        List<Change> changes = new ArrayList<>();
+        Map<OwenElement, Long> hashes = new IdentityHashMap<>();
+
+        if (!same(from, to, hashes)) {
+            diff(from, to, new ArrayList<>(), hashes, changes);
+        }
+
+        return new OwenPatch(changes);
+    }
+
+    /**
+     * Diffs elements that are not {@link #same(OwenElement, OwenElement, Map)}.
+     */
+    private static void diff(OwenElement from, OwenElement to, List<Object> path, Map<OwenElement, Long> hashes, List<Change> changes) {
+        final boolean sameKeys = from.isObject() && to.isObject() && sameKeys(from.members(), to.members());
+
+        if (from.getType() != to.getType() || !from.isCompound() || from.isObject() && !sameKeys && reordered(from.members(), to.members())) {
+            changes.add(new Change(Kind.CHANGED, path, -1, OwenValue.of(to), null));
+            return;
+        }
+
+        if (!from.comments().equals(to.comments())) {
+            changes.add(new Change(Kind.COMMENTED, path, -1, null, to.comments()));
+        }
+
+        if (from.isObject()) {
+            members(from.members(), to.members(), sameKeys, path, hashes, changes);
+        } else {
+            elements(from.elements(), to.elements(), path, hashes, changes);
+        }
+    }
+
+    /**
+     * @return whether the objects have the same keys in the same order, which is checked without lookups
+     */
+    private static boolean sameKeys(Map<String, OwenElement> from, Map<String, OwenElement> to) {
+        if (from.size() != to.size()) {
+            return false;
+        }
+
+        Iterator<String> keys = to.keySet().iterator();
+
+        for (String key : from.keySet()) {
+            if (!key.equals(keys.next())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean reordered(Map<String, OwenElement> from, Map<String, OwenElement> to) {
+        Iterator<String> keys = to.keySet().iterator();
+
+        for (String key : from.keySet()) {
+            if (to.containsKey(key)) {
+                String next;
+
+                do {
+                    next = keys.next();
+                } while (!from.containsKey(next));
+
+                if (!key.equals(next)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static void members(Map<String, OwenElement> from, Map<String, OwenElement> to, boolean sameKeys, List<Object> path, Map<OwenElement, Long> hashes, List<Change> changes) {
+        if (sameKeys) {
+            Iterator<OwenElement> values = to.values().iterator();
+
+            for (Map.Entry<String, OwenElement> entry : from.entrySet()) {
+                OwenElement value = values.next();
+
+                if (!same(entry.getValue(), value, hashes)) {
+                    diff(entry.getValue(), value, child(path, entry.getKey()), hashes, changes);
+                }
+            }
+
+            return;
+        }
+
+        for (String key : from.keySet()) {
+            if (!to.containsKey(key)) {
+                changes.add(new Change(Kind.REMOVED, child(path, key), -1, null, null));
+            }
+        }
+
+        int position = 0;
+
+        for (Map.Entry<String, OwenElement> entry : to.entrySet()) {
+            OwenElement previous = from.get(entry.getKey());
+
+            if (previous == null) {
+                changes.add(new Change(Kind.ADDED, child(path, entry.getKey()), position, OwenValue.of(entry.getValue()), null));
+            } else if (!same(previous, entry.getValue(), hashes)) {
+                diff(previous, entry.getValue(), child(path, entry.getKey()), hashes, changes);
+            }
+
+            ++position;
+        }
+    }
+
+    private static void elements(List<OwenElement> from, List<OwenElement> to, List<Object> path, Map<OwenElement, Long> hashes, List<Change> changes) {
+        final int shorter = Math.min(from.size(), to.size());
+        int prefix = 0;
+        int suffix = 0;
+
+        while (prefix < shorter && same(from.get(prefix), to.get(prefix), hashes)) {
+            ++prefix;
+        }
+
+        while (suffix < shorter - prefix && same(from.get(from.size() - 1 - suffix), to.get(to.size() - 1 - suffix), hashes)) {
+            ++suffix;
+        }
+
+        final int fromEnd = from.size() - suffix;
+        final int toEnd = to.size() - suffix;
+        final int paired = Math.min(fromEnd, toEnd);
+
+        for (int i = prefix; i < paired; ++i) {
+            if (!same(from.get(i), to.get(i), hashes)) {
+                diff(from.get(i), to.get(i), child(path, i), hashes, changes);
+            }
+        }
+
+        // Removed from the back, so that the indices of those still to be removed stay the same.
+        for (int i = fromEnd - 1; i >= paired; --i) {
+            changes.add(new Change(Kind.REMOVED, child(path, i), -1, null, null));
+        }
+
+        for (int i = paired; i < toEnd; ++i) {
+            changes.add(new Change(Kind.ADDED, child(path, i), i, OwenValue.of(to.get(i)), null));
+        }
+    }
+
+    /**
+     * @return whether the elements are equal, which differing hashes rule out without comparing them
+     */
+    private static boolean same(OwenElement from, OwenElement to, Map<OwenElement, Long> hashes) {
+        return from == to || hash(from, hashes) == hash(to, hashes) && from.equals(to);
+    }
+
+    /**
+     * @return the recorded hash of an object or array, or the hash of one that was not hashed yet, such as
+     * a literal
+     */
+    private static long hash(OwenElement element, Map<OwenElement, Long> hashes) {
+        Long hash = hashes.get(element);
+
+        return hash != null ? hash : element.contentHash(hashes);
+    }
+
+    private static List<Object> child(List<Object> path, Object segment) {
+        List<Object> child = new ArrayList<>(path.size() + 1);
+
+        child.addAll(path);
+        child.add(segment);
+
+        return child;
+    }
+
+    public List<Change> getChanges() {
+        return this.changes;
+    }
+
+    public boolean isEmpty() {
+        return this.changes.isEmpty();
+    }
+
+    /**
+     * Applies the changes to a tree, which need not be the one they were computed from as long as the
+     * elements they change are there.
+     *
+     * @return the tree, or the element that replaced it if the root was changed as a whole
+     */
+    public OwenElement apply(OwenElement root) {
+        for (Change change : this.changes) {
+            root = change.apply(root);
+        }
+
+        return root;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (Change change : this.changes) {
+            builder.append(change).append('\n');
+        }
+
+        return builder.toString();
+    }
+
+    public enum Kind {
+        ADDED, REMOVED, CHANGED, COMMENTED
+    }
+
+    public static final class Change {
+        private final Kind kind;
+        private final List<Object> segments;
+        private final int position;
+        private final OwenValue value;
+        private final List<String> comments;
+
+        private Change(Kind kind, List<Object> segments, int position, OwenValue value, List<String> comments) {
+            this.kind = kind;
+            this.segments = Collections.unmodifiableList(segments);
+            this.position = position;
+            this.value = value;
+            this.comments = comments == null ? null : Collections.unmodifiableList(new ArrayList<>(comments));
+        }
+
+        public Kind getKind() {
+            return this.kind;
+        }
+
+        /**
+         * @return the keys and indices leading to the element, with indices as {@link Integer}
+         */
+        public List<Object> getSegments() {
+            return this.segments;
+        }
+
+        /**
+         * @return the path of the element as {@link OwenPath} writes it, or an empty string for the root
+         */
+        public String getPath() {
+            return OwenPath.format(this.segments);
+        }
+
+        /**
+         * @return the element that was added or that replaced the previous one, or null
+         */
+        public OwenValue getValue() {
+            return this.value;
+        }
+
+        /**
+         * @return the new comments of the element if only they changed, or null
+         */
+        public List<String> getComments() {
+            return this.comments;
+        }
+
+        OwenElement apply(OwenElement root) {
+            final int last = this.segments.size() - 1;
+
+            if (last < 0) {
+                switch (this.kind) {
+                    case CHANGED:
+                        return this.value.toElement();
+                    case COMMENTED:
+                        comment(root);
+                        return root;
+                    default:
+                        throw new RuntimeException("Cannot " + (this.kind == Kind.ADDED ? "add" : "remove") + " the root element!");
+                }
+            }
+
+            OwenElement parent = root;
+
+            for (int i = 0; i < last; ++i) {
+                parent = child(parent, this.segments.get(i));
+            }
+
+            final Object segment = this.segments.get(last);
+
+            if (this.kind == Kind.COMMENTED) {
+                comment(child(parent, segment));
+            } else if (segment instanceof Integer) {
+                final int index = (Integer) segment;
+                final int size = parent.isArray() ? parent.elements().size() : -1;
+
+                if (size < 0 || index > size || index == size && this.kind != Kind.ADDED) {
+                    throw missing();
+                }
+
+                switch (this.kind) {
+                    case ADDED:     parent.add(this.value.toElement(), index); break;
+                    case REMOVED:   parent.asList().remove(index); break;
+                    default:        parent.asList().set(index, this.value.toElement());
+                }
+            } else {
+                final String key = (String) segment;
+
+                if (!parent.isObject() || this.kind != Kind.ADDED && !parent.members().containsKey(key)) {
+                    throw missing();
+                }
+
+                switch (this.kind) {
+                    case ADDED:     insert(parent.asMap(), key, this.value.toElement()); break;
+                    case REMOVED:   parent.asMap().remove(key); break;
+                    default:        parent.put(key, this.value.toElement());
+                }
+            }
+
+            return root;
+        }
+
+        private OwenElement child(OwenElement parent, Object segment) {
+            OwenElement child = null;
+
+            if (segment instanceof Integer) {
+                final int index = (Integer) segment;
+
+                if (parent.isArray() && index < parent.elements().size()) {
+                    child = parent.elements().get(index);
+                }
+            } else if (parent.isObject()) {
+                child = parent.members().get(segment);
+            }
+
+            if (child == null) {
+                throw missing();
+            }
+
+            return child;
+        }
+
+        private void comment(OwenElement element) {
+            List<String> comments = element.getComments();
+
+            comments.clear();
+            comments.addAll(this.comments);
+        }
+
+        /**
+         * Puts the member where it was in the new object, which is behind those already there if the
+         * object has fewer members than that.
+         */
+        private void insert(Map<String, OwenElement> map, String key, OwenElement element) {
+            map.remove(key);
+
+            if (this.position >= map.size()) {
+                map.put(key, element);
+                return;
+            }
+
+            List<Map.Entry<String, OwenElement>> entries = new ArrayList<>(map.entrySet().size() + 1);
+
+            for (Map.Entry<String, OwenElement> entry : map.entrySet()) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+            }
+
+            entries.add(this.position, new AbstractMap.SimpleImmutableEntry<>(key, element));
+            map.clear();
+
+            for (Map.Entry<String, OwenElement> entry : entries) {
+                map.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        private RuntimeException missing() {
+            return new RuntimeException("Cannot apply change to '" + getPath() + "', which is not in the tree!");
+        }
+
+        @Override
+        public String toString() {
+            switch (this.kind) {
+                case ADDED:     return "+ " + getPath();
+                case REMOVED:   return "- " + getPath();
+                case CHANGED:   return "~ " + getPath();
+                default:        return "# " + getPath();
+            }
+        }
+    }
+}
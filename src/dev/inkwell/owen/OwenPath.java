@@ -0,0 +1,498 @@
+package dev.inkwell.owen;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.*;
+
+/**
+ * One or more compiled paths that select values from a tree or directly from source text.
+ *
+ * Paths start at the members of the root object. Segments are separated by '.', array indices are written
+ * as {@code [3]}, {@code *} matches every key, {@code [*]} matches every index, and keys containing '.',
+ * '[' or '*' can be quoted as {@code ['a.b']}. For example {@code server.pools[3].host}.
+ *
+ * Selecting from source text skips everything that cannot match without building it. A path without
+ * wildcards reports the last occurrence of a duplicated key, as a tree built by
+ * {@link OwenElement#put(String, OwenElement)} would, so selection stops once every such path has matched
+ * and each object holding a match has closed. A key repeated after that in an object further out is not
+ * seen, and paths with wildcards report every occurrence.
+ */
+@SuppressWarnings("unused")
+public final class OwenPath {
+    private final List<String> paths;
+    private final boolean[] exact;
+    private final boolean allExact;
+    private final Node root = new Node();
+
+    private OwenPath(String... paths) {
+        this.paths = Collections.unmodifiableList(Arrays.asList(paths.clone()));
+        this.exact = new boolean[paths.length];
+
+        boolean allExact = true;
+
+        for (int i = 0; i < paths.length; ++i) {
+            allExact &= this.exact[i] = compile(paths[i], i);
+        }
+
+        this.allExact = allExact;
+    }
+
+    public static OwenPath compile(String... paths) {
+        if (paths.length == 0) {
+            throw new IllegalArgumentException("At least one path is required!");
+        }
+
+        return new OwenPath(paths);
+    }
+
+    public List<String> getPaths() {
+        return this.paths;
+    }
+
+    /**
+     * @return the matches of every path, keyed by path in compilation order
+     */
+    public Map<String, List<OwenElement>> select(OwenElement root) {
+        Selection selection = new Selection();
+
+        select(root, this.root, selection);
+
+        return selection.results();
+    }
+
+    public Map<String, List<OwenElement>> select(String source) throws ParseException {
+        Selection selection = new Selection();
+
+        OwenFusedParser.select(source, this.root, selection);
+
+        return selection.results();
+    }
+
+    public Map<String, List<OwenElement>> select(Reader reader) throws IOException, ParseException {
+        Selection selection = new Selection();
+        OwenReader owenReader = new OwenReader(reader);
+
+        // Read past the root's leading comments and START_OBJECT.
+        while (owenReader.next() == OwenReader.Event.COMMENT) ;
+
+        selectObject(owenReader, this.root, selection);
+
+        return selection.results();
+    }
+
+    /**
+     * Selects from a memory-mapped file, decoded as {@link Owen#parse(Path)} does.
+     */
+    public Map<String, List<OwenElement>> select(Path path) throws IOException, ParseException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return select(new MappedFileReader(channel));
+        }
+    }
+
+    static void select(OwenElement element, Node node, Selection selection) {
+        if (node.terminals != null) {
+            selection.add(node, element);
+        }
+
+        if (element.isObject()) {
+            if (node.keys == null && node.anyKey == null) return;
+
+            for (Map.Entry<String, OwenElement> entry : element.members().entrySet()) {
+                Node child = node.key(entry.getKey());
+
+                if (child != null) select(entry.getValue(), child, selection);
+                if (node.anyKey != null) select(entry.getValue(), node.anyKey, selection);
+            }
+        } else if (element.isArray()) {
+            if (node.indices == null && node.anyIndex == null) return;
+
+            List<OwenElement> list = element.elements();
+
+            for (int i = 0; i < list.size(); ++i) {
+                Node child = node.index(i);
+
+                if (child != null) select(list.get(i), child, selection);
+                if (node.anyIndex != null) select(list.get(i), node.anyIndex, selection);
+            }
+        }
+    }
+
+    private static boolean selectObject(OwenReader reader, Node node, Selection selection) throws IOException, ParseException {
+        final boolean outer = selection.enter();
+        List<String> comments = new ArrayList<>();
+
+        while (true) {
+            switch (reader.next()) {
+                case COMMENT:
+                    comments.add(reader.getString());
+                    break;
+                case KEY:
+                    Node child = node.key(reader.getString());
+
+                    if (child != null) selection.replace(child);
+
+                    reader.next();
+
+                    if (selectValue(reader, child, node.anyKey, comments, selection)) return true;
+
+                    comments.clear();
+                    break;
+                default:
+                    return selection.exit(outer);
+            }
+        }
+    }
+
+    private static boolean selectArray(OwenReader reader, Node node, Selection selection) throws IOException, ParseException {
+        List<String> comments = new ArrayList<>();
+
+        for (int i = 0; ; ) {
+            switch (reader.next()) {
+                case COMMENT:
+                    comments.add(reader.getString());
+                    break;
+                case END_ARRAY:
+                    return false;
+                default:
+                    if (selectValue(reader, node.index(i), node.anyIndex, comments, selection)) return true;
+
+                    comments.clear();
+                    ++i;
+            }
+        }
+    }
+
+    /**
+     * Handles the value starting at the reader's current event.
+     *
+     * @return whether the selection is complete
+     */
+    private static boolean selectValue(OwenReader reader, Node child, Node any, List<String> comments, Selection selection) throws IOException, ParseException {
+        if (child == null && any == null) {
+            reader.skipValue();
+            return false;
+        }
+
+        if (any == null && child.terminals == null) {
+            switch (reader.getEvent()) {
+                case START_OBJECT: return selectObject(reader, child, selection);
+                case START_ARRAY:  return selectArray(reader, child, selection);
+                default:           return false;
+            }
+        }
+
+        OwenElement element = reader.readCurrent(comments);
+
+        if (child != null) select(element, child, selection);
+        if (any != null) select(element, any, selection);
+
+        return selection.done();
+    }
+
+    /**
+     * Adds a path to the trie.
+     *
+     * @return whether the path is free of wildcards
+     */
+    private boolean compile(String path, int id) {
+        Node node = this.root;
+        boolean exact = true;
+
+        int p = 0;
+        final int length = path.length();
+
+        if (length == 0) {
+            throw invalid(path, "empty path");
+        }
+
+        while (p < length) {
+            char c = path.charAt(p);
+
+            if (c == '[') {
+                int close = path.indexOf(']', p);
+
+                if (close < 0) {
+                    throw invalid(path, "unclosed '['");
+                }
+
+                String inner = path.substring(p + 1, close);
+
+                if (inner.equals("*")) {
+                    node = node.anyIndex == null ? (node.anyIndex = new Node()) : node.anyIndex;
+                    exact = false;
+                } else if (inner.length() >= 2 && inner.charAt(0) == '\'' && inner.charAt(inner.length() - 1) == '\'') {
+                    node = node.child(inner.substring(1, inner.length() - 1));
+                } else {
+                    try {
+                        node = node.child(Integer.parseInt(inner));
+                    } catch (NumberFormatException e) {
+                        throw invalid(path, "bad index '" + inner + "'");
+                    }
+                }
+
+                p = close + 1;
+            } else {
+                int end = p;
+
+                while (end < length && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    ++end;
+                }
+
+                String key = path.substring(p, end);
+
+                if (key.isEmpty()) {
+                    throw invalid(path, "empty key at " + p);
+                }
+
+                if (key.equals("*")) {
+                    node = node.anyKey == null ? (node.anyKey = new Node()) : node.anyKey;
+                    exact = false;
+                } else {
+                    node = node.child(key);
+                }
+
+                p = end;
+            }
+
+            if (p < length && path.charAt(p) == '.') {
+                if (++p == length) {
+                    throw invalid(path, "trailing '.'");
+                }
+            }
+        }
+
+        node.terminals = node.terminals == null ? new int[] {id} : append(node.terminals, id);
+
+        return exact;
+    }
+
+    /**
+     * @return the keys and indices, with indices as {@link Integer}, written as a path
+     */
+    static String format(List<Object> segments) {
+        StringBuilder builder = new StringBuilder();
+
+        for (Object segment : segments) {
+            if (segment instanceof Integer) {
+                builder.append('[').append(segment).append(']');
+            } else {
+                String key = (String) segment;
+
+                if (key.isEmpty() || key.indexOf('.') >= 0 || key.indexOf('[') >= 0 || key.indexOf(']') >= 0 || key.indexOf('*') >= 0) {
+                    builder.append("['").append(key).append("']");
+                } else {
+                    builder.append(builder.length() > 0 ? "." : "").append(key);
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private static int[] append(int[] array, int value) {
+        int[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = value;
+
+        return result;
+    }
+
+    private static IllegalArgumentException invalid(String path, String reason) {
+        return new IllegalArgumentException("Invalid path '" + path + "': " + reason + "!");
+    }
+
+    /**
+     * A trie node shared by every path with the same prefix.
+     */
+    static final class Node {
+        String[] keys;
+        Node[] keyNodes;
+        int[] indices;
+        Node[] indexNodes;
+        Node anyKey;
+        Node anyIndex;
+        int[] terminals;
+
+        Node key(String key) {
+            if (this.keys != null) {
+                for (int i = 0; i < this.keys.length; ++i) {
+                    if (this.keys[i].equals(key)) return this.keyNodes[i];
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Matches a key in the source without extracting it.
+         */
+        Node key(String source, int start, int end) {
+            if (this.keys != null) {
+                final int length = end - start;
+
+                for (int i = 0; i < this.keys.length; ++i) {
+                    String key = this.keys[i];
+
+                    if (key.length() == length && source.regionMatches(start, key, 0, length)) return this.keyNodes[i];
+                }
+            }
+
+            return null;
+        }
+
+        Node index(int index) {
+            if (this.indices != null) {
+                for (int i = 0; i < this.indices.length; ++i) {
+                    if (this.indices[i] == index) return this.indexNodes[i];
+                }
+            }
+
+            return null;
+        }
+
+        private Node child(String key) {
+            Node node = key(key);
+
+            if (node == null) {
+                node = new Node();
+                this.keys = this.keys == null ? new String[] {key} : Arrays.copyOf(this.keys, this.keys.length + 1);
+                this.keyNodes = this.keyNodes == null ? new Node[1] : Arrays.copyOf(this.keyNodes, this.keyNodes.length + 1);
+                this.keys[this.keys.length - 1] = key;
+                this.keyNodes[this.keyNodes.length - 1] = node;
+            }
+
+            return node;
+        }
+
+        private Node child(int index) {
+            Node node = index(index);
+
+            if (node == null) {
+                node = new Node();
+                this.indices = this.indices == null ? new int[] {index} : append(this.indices, index);
+                this.indexNodes = this.indexNodes == null ? new Node[1] : Arrays.copyOf(this.indexNodes, this.indexNodes.length + 1);
+                this.indexNodes[this.indexNodes.length - 1] = node;
+            }
+
+            return node;
+        }
+    }
+
+    /**
+     * Collects matches for one evaluation and tracks which exact paths are still unresolved, and how many
+     * of the objects being walked hold matches of exact paths that a repeated key could still replace.
+     */
+    final class Selection {
+        private final List<List<OwenElement>> matches = new ArrayList<>();
+        private int unresolved = 0;
+        private int holding = 0;
+
+        // Whether the innermost object being walked holds a match of an exact path.
+        private boolean held = false;
+
+        private Selection() {
+            for (int i = 0; i < paths.size(); ++i) {
+                this.matches.add(new ArrayList<>(1));
+
+                if (exact[i]) {
+                    ++this.unresolved;
+                }
+            }
+        }
+
+        void add(Node node, OwenElement element) {
+            for (int id : node.terminals) {
+                List<OwenElement> matches = this.matches.get(id);
+
+                if (exact[id]) {
+                    if (!this.held) {
+                        this.held = true;
+                        ++this.holding;
+                    }
+
+                    if (!matches.isEmpty()) continue;
+
+                    --this.unresolved;
+                }
+
+                matches.add(element);
+            }
+        }
+
+        /**
+         * Drops the matches of exact paths at or below a node, as the value of a key that was already seen
+         * in the object being walked replaces the one they were found in.
+         */
+        void replace(Node node) {
+            if (node.terminals != null) {
+                for (int id : node.terminals) {
+                    if (exact[id] && !this.matches.get(id).isEmpty()) {
+                        this.matches.get(id).clear();
+                        ++this.unresolved;
+                    }
+                }
+            }
+
+            if (node.keyNodes != null) {
+                for (Node child : node.keyNodes) {
+                    replace(child);
+                }
+            }
+
+            if (node.indexNodes != null) {
+                for (Node child : node.indexNodes) {
+                    replace(child);
+                }
+            }
+        }
+
+        /**
+         * Starts walking the members of an object.
+         *
+         * @return whether the enclosing object holds a match, to be passed to {@link #exit(boolean)}
+         */
+        boolean enter() {
+            final boolean outer = this.held;
+
+            this.held = false;
+
+            return outer;
+        }
+
+        /**
+         * Finishes walking the members of an object, whose matches are final now.
+         *
+         * @return whether the selection is complete
+         */
+        boolean exit(boolean outer) {
+            if (this.held) {
+                --this.holding;
+            }
+
+            this.held = outer;
+
+            return done();
+        }
+
+        /**
+         * @return whether nothing more can be matched or replaced, because every path is exact and resolved
+         * and the objects holding the matches have closed
+         */
+        boolean done() {
+            return allExact && this.unresolved == 0 && this.holding == 0;
+        }
+
+        private Map<String, List<OwenElement>> results() {
+            Map<String, List<OwenElement>> results = new LinkedHashMap<>();
+
+            for (int i = 0; i < paths.size(); ++i) {
+                results.put(paths.get(i), Collections.unmodifiableList(this.matches.get(i)));
+            }
+
+            return Collections.unmodifiableMap(results);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package dev.inkwell.owen;
+
+/**
+ * Parses primitives straight from a range of characters, accepting what {@link Integer#parseInt(String)},
+ * {@link Long#parseLong(String)} and {@link Double#parseDouble(String)} accept without creating a String.
+ */
+final class OwenPrimitives {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private OwenPrimitives() {
+    }
+
+    static int parseInt(CharSequence chars, int start, int end) {
+        long value = parseLong(chars, start, end, "int");
+
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw invalid(chars, start, end, "int");
+        }
+
+        return (int) value;
+    }
+
+    static long parseLong(CharSequence chars, int start, int end) {
+        return parseLong(chars, start, end, "long");
+    }
+
+    private static long parseLong(CharSequence chars, int start, int end, String type) {
+        if (start == end) {
+            throw invalid(chars, start, end, type);
+        }
+
+        int p = start;
+        char c = chars.charAt(p);
+        boolean negative = c == '-';
+
+        if ((negative || c == '+') && ++p == end) {
+            throw invalid(chars, start, end, type);
+        }
+
+        // Accumulates negatively, as Long.parseLong does, so that Long.MIN_VALUE fits.
+        final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        final long multiplyLimit = limit / 10;
+        long result = 0;
+
+        while (p < end) {
+            int digit = Character.digit(chars.charAt(p++), 10);
+
+            if (digit < 0 || result < multiplyLimit) {
+                throw invalid(chars, start, end, type);
+            }
+
+            result *= 10;
+
+            if (result < limit + digit) {
+                throw invalid(chars, start, end, type);
+            }
+
+            result -= digit;
+        }
+
+        return negative ? result : -result;
+    }
+
+    /**
+     * Decodes plain decimals with at most 15 significant digits and a small exponent directly, which is
+     * exact, and hands anything else to {@link Double#parseDouble(String)}.
+     */
+    static double parseDouble(CharSequence chars, int start, int end) {
+        int p = start;
+        int e = end;
+
+        // Double.parseDouble trims like String.trim().
+        while (p < e && chars.charAt(p) <= ' ') ++p;
+        while (e > p && chars.charAt(e - 1) <= ' ') --e;
+
+        if (p == e) {
+            throw invalid(chars, start, end, "double");
+        }
+
+        char c = chars.charAt(p);
+        boolean negative = c == '-';
+
+        if (negative || c == '+') {
+            ++p;
+        }
+
+        long mantissa = 0;
+        int significant = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+
+        for (; p < e; ++p) {
+            c = chars.charAt(p);
+
+            if (c >= '0' && c <= '9') {
+                ++digits;
+
+                if (mantissa != 0 || c != '0') {
+                    mantissa = mantissa * 10 + (c - '0');
+                    ++significant;
+                }
+
+                if (fraction) {
+                    --exponent;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+
+        if (digits > 0 && p < e && (c == 'e' || c == 'E')) {
+            if (++p == e) {
+                return fallback(chars, start, end);
+            }
+
+            c = chars.charAt(p);
+            boolean negativeExponent = c == '-';
+
+            if (negativeExponent || c == '+') {
+                ++p;
+            }
+
+            int explicit = 0;
+            int s = p;
+
+            while (p < e && (c = chars.charAt(p)) >= '0' && c <= '9' && p - s < 4) {
+                explicit = explicit * 10 + (c - '0');
+                ++p;
+            }
+
+            if (p == s) {
+                return fallback(chars, start, end);
+            }
+
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+
+        if (p != e || digits == 0 || significant > 15) {
+            return fallback(chars, start, end);
+        }
+
+        double value;
+
+        if (mantissa == 0) {
+            value = 0;
+        } else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return fallback(chars, start, end);
+        }
+
+        return negative ? -value : value;
+    }
+
+    static boolean parseBoolean(CharSequence chars, int start, int end) {
+        if (matches(chars, start, end, "true")) return true;
+        if (matches(chars, start, end, "false")) return false;
+
+        throw new IllegalArgumentException("Cannot parse '" + chars.subSequence(start, end) + "' as boolean!");
+    }
+
+    private static boolean matches(CharSequence chars, int start, int end, String word) {
+        if (end - start != word.length()) return false;
+
+        for (int i = 0; i < word.length(); ++i) {
+            if (Character.toLowerCase(chars.charAt(start + i)) != word.charAt(i)) return false;
+        }
+
+        return true;
+    }
+
+    private static double fallback(CharSequence chars, int start, int end) {
+        try {
+            return Double.parseDouble(chars.subSequence(start, end).toString());
+        } catch (NumberFormatException e) {
+            throw invalid(chars, start, end, "double");
+        }
+    }
+
+    private static NumberFormatException invalid(CharSequence chars, int start, int end, String type) {
+        return new NumberFormatException("Cannot parse '" + chars.subSequence(start, end) + "' as " + type + "!");
+    }
+}
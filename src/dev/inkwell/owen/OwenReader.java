@@ -0,0 +1,527 @@
+package dev.inkwell.owen;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pull-based event reader over a character stream.
+ *
+ * Only a bounded buffer of the input is held at a time, so documents of any size can be processed
+ * in constant memory (plus the length of the longest single key, value or comment). Comment events
+ * precede whatever they annotate; comments directly before an {@link Event#END_OBJECT} or
+ * {@link Event#END_ARRAY} annotate nothing.
+ */
+@SuppressWarnings("unused")
+public class OwenReader implements Closeable {
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final byte IN_OBJECT = 0;
+    private static final byte IN_ARRAY = 1;
+    private static final byte VALUE = 2;
+    private static final byte DOCUMENT_START = 3;
+    private static final byte DOCUMENT_END = 4;
+
+    private final Reader reader;
+    private final char[] buf;
+    private final StringBuilder text = new StringBuilder();
+    private final OwenInterner interner;
+    private final boolean skipComments;
+
+    private int pos = 0;
+    private int limit = 0;
+    private long base = 0;
+    private boolean eof = false;
+
+    private byte state = DOCUMENT_START;
+    private boolean[] stack = new boolean[32];
+    private int depth = 0;
+
+    private Event event;
+    private String string;
+
+    public OwenReader(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    public OwenReader(Reader reader, int bufferSize) {
+        this(reader, bufferSize, null);
+    }
+
+    /**
+     * @param interner resolves keys and values to canonical strings, or {@code null} to create new ones
+     */
+    public OwenReader(Reader reader, int bufferSize, OwenInterner interner) {
+        this(reader, bufferSize, interner, false);
+    }
+
+    /**
+     * @param interner resolves keys and values to canonical strings, or {@code null} to create new ones
+     * @param skipComments whether to skip comments without reading their text, so that no
+     * {@link Event#COMMENT} is reported
+     */
+    public OwenReader(Reader reader, int bufferSize, OwenInterner interner, boolean skipComments) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive!");
+        }
+
+        this.reader = reader;
+        this.buf = new char[bufferSize];
+        this.interner = interner;
+        this.skipComments = skipComments;
+    }
+
+    public Event next() throws IOException, ParseException {
+        this.string = null;
+        this.text.setLength(0);
+
+        return this.event = advance();
+    }
+
+    /**
+     * Reads a whole document into a tree, attaching comments the same way {@link Owen#parse(String)} does.
+     * Must be called before any other events have been read.
+     */
+    public OwenElement readDocument() throws IOException, ParseException {
+        if (this.state != DOCUMENT_START) {
+            throw new IllegalStateException("Document has already been started!");
+        }
+
+        OwenElement root = readValue();
+
+        next();
+
+        return root;
+    }
+
+    /**
+     * Reads the next value and everything nested in it into a tree. Comments read before the value
+     * are attached to it.
+     */
+    public OwenElement readValue() throws IOException, ParseException {
+        List<String> comments = null;
+
+        while (next() == Event.COMMENT) {
+            if (comments == null) comments = new ArrayList<>();
+            comments.add(getString());
+        }
+
+        return readCurrent(comments);
+    }
+
+    /**
+     * Skips the value at the current position: the rest of an object or array if one was just started,
+     * nothing after a {@link Event#VALUE}, and the next value after a {@link Event#KEY}.
+     */
+    public void skipValue() throws IOException, ParseException {
+        if (this.event == Event.KEY) {
+            next();
+        }
+
+        if (this.event != Event.START_OBJECT && this.event != Event.START_ARRAY) {
+            return;
+        }
+
+        for (int depth = this.depth - 1; this.depth > depth; ) {
+            if (next() == Event.END_DOCUMENT) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Builds the value that starts at the current event.
+     */
+    OwenElement readCurrent(List<String> comments) throws IOException, ParseException {
+        switch (this.event) {
+            case VALUE:
+                return withComments(Owen.literal(getString()), comments);
+            case START_OBJECT:
+            case START_ARRAY:
+                return fill(withComments(new OwenElement(), comments));
+            default:
+                throw new IllegalStateException("Expected a value. Found '" + this.event + "'.");
+        }
+    }
+
+    public Event getEvent() {
+        return this.event;
+    }
+
+    /**
+     * @return the text of the current {@link Event#KEY}, {@link Event#VALUE} or {@link Event#COMMENT}
+     */
+    public String getString() {
+        if (this.event == null || !this.event.hasText) {
+            throw new IllegalStateException("Current event " + this.event + " has no text!");
+        }
+
+        if (this.string == null) {
+            this.string = this.interner == null || this.event == Event.COMMENT ? this.text.toString() : this.interner.intern(this.text);
+        }
+
+        return this.string;
+    }
+
+    /**
+     * @return the number of currently open objects and arrays, including the implicit root object
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * @return the number of characters consumed from the underlying reader so far
+     */
+    public long getOffset() {
+        return this.base + this.pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    private OwenElement fill(OwenElement element) throws IOException, ParseException {
+        final boolean array = this.event == Event.START_ARRAY;
+
+        List<String> comments = null;
+        String key = null;
+
+        while (true) {
+            OwenElement child;
+
+            switch (next()) {
+                case COMMENT:
+                    if (comments == null) comments = new ArrayList<>();
+                    comments.add(getString());
+                    continue;
+                case KEY:
+                    key = getString();
+                    continue;
+                case VALUE:
+                    child = withComments(Owen.literal(getString()), comments);
+                    break;
+                case START_OBJECT:
+                case START_ARRAY:
+                    child = fill(withComments(new OwenElement(), comments));
+                    break;
+                default:
+                    return element;
+            }
+
+            comments = null;
+
+            if (array) {
+                element.addUnshared(child);
+            } else {
+                element.put(key, child);
+            }
+        }
+    }
+
+    private static OwenElement withComments(OwenElement element, List<String> comments) {
+        if (comments != null) {
+            element.addComments(comments);
+        }
+
+        return element;
+    }
+
+    private Event advance() throws IOException, ParseException {
+        switch (this.state) {
+            case DOCUMENT_START:
+                if (seek()) return Event.COMMENT;
+
+                push(false);
+                this.state = IN_OBJECT;
+
+                return Event.START_OBJECT;
+            case IN_OBJECT:
+                return member();
+            case IN_ARRAY:
+                if (seek()) return Event.COMMENT;
+
+                int c = peek();
+
+                if (c < 0) {
+                    throw new ParseException("Expected ']'. Found 'EOF'", offset());
+                }
+
+                if (c == ']') {
+                    ++this.pos;
+                    return pop(Event.END_ARRAY);
+                }
+
+                return element();
+            case VALUE:
+                return element();
+            case DOCUMENT_END:
+                return Event.END_DOCUMENT;
+        }
+
+        throw new RuntimeException("Impossible reader state!");
+    }
+
+    private Event member() throws IOException, ParseException {
+        if (seek()) return Event.COMMENT;
+
+        int c = peek();
+
+        if (c < 0 || (c == '}' && this.depth == 1)) {
+            if (this.depth > 1) {
+                throw new ParseException("Expected '}'. Found 'EOF'", offset());
+            }
+
+            // The implicit root object ends at the end of input or at the first stray closing brace.
+            --this.depth;
+            this.state = DOCUMENT_END;
+
+            return Event.END_OBJECT;
+        }
+
+        if (c == '}') {
+            ++this.pos;
+            return pop(Event.END_OBJECT);
+        }
+
+        if (!Character.isAlphabetic(c)) {
+            throw new ParseException("Identifier must start with alphabetic character", offset());
+        }
+
+        identifier();
+        whitespace();
+
+        c = peek();
+
+        if (c != '=') {
+            throw new ParseException("Expected '='. Found '" + describe(c) + "'", offset());
+        }
+
+        ++this.pos;
+
+        nonBreakingWhitespace();
+
+        this.state = VALUE;
+
+        return Event.KEY;
+    }
+
+    private Event element() throws IOException, ParseException {
+        int c = peek();
+
+        if (c == '{') {
+            ++this.pos;
+            push(false);
+            this.state = IN_OBJECT;
+
+            return Event.START_OBJECT;
+        } else if (c == '[') {
+            ++this.pos;
+            push(true);
+            this.state = IN_ARRAY;
+
+            return Event.START_ARRAY;
+        }
+
+        value();
+        this.state = this.stack[this.depth - 1] ? IN_ARRAY : IN_OBJECT;
+
+        return Event.VALUE;
+    }
+
+    private void push(boolean array) {
+        if (this.depth == this.stack.length) {
+            boolean[] stack = new boolean[this.depth * 2];
+            System.arraycopy(this.stack, 0, stack, 0, this.depth);
+            this.stack = stack;
+        }
+
+        this.stack[this.depth++] = array;
+    }
+
+    private Event pop(Event event) {
+        --this.depth;
+        this.state = this.stack[this.depth - 1] ? IN_ARRAY : IN_OBJECT;
+
+        return event;
+    }
+
+    private void identifier() throws IOException {
+        this.text.append(this.buf[this.pos++]);
+
+        while (this.pos < this.limit || fill()) {
+            final int s = this.pos;
+
+            while (this.pos < this.limit && OwenTokenizer.isIdentifierPart(this.buf[this.pos])) {
+                ++this.pos;
+            }
+
+            this.text.append(this.buf, s, this.pos - s);
+
+            if (this.pos < this.limit) break;
+        }
+    }
+
+    private void value() throws IOException, ParseException {
+        while (this.pos < this.limit || fill()) {
+            final int s = this.pos;
+
+            char c = 0;
+
+            while (this.pos < this.limit && (c = this.buf[this.pos]) != '\n' && c != '\\') {
+                ++this.pos;
+            }
+
+            this.text.append(this.buf, s, this.pos - s);
+
+            if (this.pos == this.limit) continue;
+            if (c == '\n') break;
+
+            ++this.pos;
+
+            int e = peek();
+
+            if (e < 0) {
+                throw new ParseException("Unexpected escaped token 'EOF'", offset());
+            }
+
+            ++this.pos;
+
+            if (e == '\n') {
+                // Mirrors OwenTokenizer: a line continuation also swallows the following character.
+                if (peek() >= 0) ++this.pos;
+            } else {
+                this.text.append(OwenTokenizer.escape((char) e, offset() - 1));
+            }
+        }
+    }
+
+    /**
+     * Skips whitespace and reads at most one comment.
+     *
+     * @return whether a comment was read
+     */
+    private boolean seek() throws IOException {
+        int c;
+
+        while ((c = peek()) >= 0) {
+            if (Character.isWhitespace(c)) {
+                ++this.pos;
+            } else if (c == '#') {
+                ++this.pos;
+
+                if (this.skipComments) {
+                    line();
+                    continue;
+                }
+
+                comment();
+
+                return true;
+            } else {
+                break;
+            }
+        }
+
+        return false;
+    }
+
+    private void comment() throws IOException {
+        whitespace();
+
+        while (this.pos < this.limit || fill()) {
+            final int s = this.pos;
+
+            while (this.pos < this.limit && this.buf[this.pos] != '\n') {
+                ++this.pos;
+            }
+
+            this.text.append(this.buf, s, this.pos - s);
+
+            if (this.pos < this.limit) break;
+        }
+    }
+
+    /**
+     * Skips to the end of the line.
+     */
+    private void line() throws IOException {
+        while (this.pos < this.limit || fill()) {
+            while (this.pos < this.limit && this.buf[this.pos] != '\n') {
+                ++this.pos;
+            }
+
+            if (this.pos < this.limit) break;
+        }
+    }
+
+    private void nonBreakingWhitespace() throws IOException {
+        int c;
+
+        while ((c = peek()) == ' ' || c == '\t') {
+            ++this.pos;
+        }
+    }
+
+    private void whitespace() throws IOException {
+        int c;
+
+        while ((c = peek()) >= 0 && Character.isWhitespace(c)) {
+            ++this.pos;
+        }
+    }
+
+    private int peek() throws IOException {
+        return this.pos < this.limit || fill() ? this.buf[this.pos] : -1;
+    }
+
+    private boolean fill() throws IOException {
+        if (this.eof) return false;
+
+        this.base += this.limit;
+        this.pos = 0;
+        this.limit = 0;
+
+        int n;
+
+        do {
+            n = this.reader.read(this.buf, 0, this.buf.length);
+        } while (n == 0);
+
+        if (n < 0) {
+            this.eof = true;
+            return false;
+        }
+
+        this.limit = n;
+
+        return true;
+    }
+
+    private int offset() {
+        return (int) Math.min(getOffset(), Integer.MAX_VALUE);
+    }
+
+    private static String describe(int c) {
+        return c < 0 ? "EOF" : String.valueOf((char) c);
+    }
+
+    public enum Event {
+        START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, END_DOCUMENT,
+        KEY(true), VALUE(true), COMMENT(true);
+
+        public final boolean hasText;
+
+        Event(boolean hasText) {
+            this.hasText = hasText;
+        }
+
+        Event() {
+            this(false);
+        }
+    }
+}
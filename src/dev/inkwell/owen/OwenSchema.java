@@ -0,0 +1,536 @@
+package dev.inkwell.owen;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled description of the documents a program accepts, checked against a tree or while reading text.
+ *
+ * Literal schemas check the text of literals, which is parsed as {@link OwenElement#asLong()},
+ * {@link OwenElement#asDouble()} and {@link OwenElement#asBoolean()} parse it. Array schemas check every
+ * element against one schema, and object schemas check the members they list and may reject any others.
+ * Empty values, which is also what {@code {}} and {@code []} parse to, are checked as the literal "" and as
+ * an object or array without members.
+ *
+ * Checking stops at the first violation. Violations are found in document order, with missing keys found at
+ * the end of their object, so reading a document reports the same violation as checking its tree, unless a
+ * key is duplicated: reading checks every occurrence, whereas the tree only holds the last. Schemas are
+ * immutable and can be shared between threads.
+ */
+@SuppressWarnings("unused")
+public final class OwenSchema {
+    private static final OwenSchema ANY = new OwenSchema(Kind.ANY, "anything", null, null, null);
+
+    private final Kind kind;
+    private final String expected;
+    private final Predicate<String> literal;
+    private final OwenSchema elements;
+
+    private final String[] keys;
+    private final OwenSchema[] schemas;
+    private final boolean[] required;
+    private final Map<String, Integer> indices;
+    private final boolean hasRequired;
+    private final boolean closed;
+
+    private OwenSchema(Kind kind, String expected, Predicate<String> literal, OwenSchema elements, Builder builder) {
+        this.kind = kind;
+        this.expected = expected;
+        this.literal = literal;
+        this.elements = elements;
+
+        if (builder == null) {
+            this.keys = null;
+            this.schemas = null;
+            this.required = null;
+            this.indices = null;
+            this.hasRequired = false;
+            this.closed = false;
+            return;
+        }
+
+        final int size = builder.members.size();
+        boolean hasRequired = false;
+
+        this.keys = builder.members.keySet().toArray(new String[0]);
+        this.schemas = builder.members.values().toArray(new OwenSchema[0]);
+        this.required = new boolean[size];
+        this.indices = new HashMap<>();
+
+        for (int i = 0; i < size; ++i) {
+            hasRequired |= this.required[i] = builder.required.contains(this.keys[i]);
+            this.indices.put(this.keys[i], i);
+        }
+
+        this.hasRequired = hasRequired;
+        this.closed = builder.closed;
+    }
+
+    /**
+     * @return a schema that accepts anything, and so is not checked
+     */
+    public static OwenSchema any() {
+        return ANY;
+    }
+
+    public static OwenSchema literal() {
+        return literal("a literal", null);
+    }
+
+    /**
+     * @param regex a {@link Pattern} that the whole literal must match
+     */
+    public static OwenSchema literal(String regex) {
+        final Pattern pattern = Pattern.compile(regex);
+
+        return literal("a literal matching '" + regex + "'", literal -> pattern.matcher(literal).matches());
+    }
+
+    public static OwenSchema integer() {
+        return integer(Long.MIN_VALUE, Long.MAX_VALUE, "an integer");
+    }
+
+    /**
+     * @return a schema for integers from {@code min} to {@code max}, inclusive
+     */
+    public static OwenSchema integer(long min, long max) {
+        return integer(min, max, "an integer from " + min + " to " + max);
+    }
+
+    private static OwenSchema integer(long min, long max, String expected) {
+        return literal(expected, literal -> {
+            final long value;
+
+            try {
+                value = OwenPrimitives.parseLong(literal, 0, literal.length());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+
+            return value >= min && value <= max;
+        });
+    }
+
+    public static OwenSchema number() {
+        return number(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, "a number");
+    }
+
+    /**
+     * @return a schema for numbers from {@code min} to {@code max}, inclusive, which NaN never is
+     */
+    public static OwenSchema number(double min, double max) {
+        return number(min, max, "a number from " + min + " to " + max);
+    }
+
+    private static OwenSchema number(double min, double max, String expected) {
+        return literal(expected, literal -> {
+            final double value;
+
+            try {
+                value = OwenPrimitives.parseDouble(literal, 0, literal.length());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+
+            return value >= min && value <= max;
+        });
+    }
+
+    public static OwenSchema bool() {
+        return literal("a boolean", literal -> {
+            try {
+                OwenPrimitives.parseBoolean(literal, 0, literal.length());
+                return true;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        });
+    }
+
+    private static OwenSchema literal(String expected, Predicate<String> literal) {
+        return new OwenSchema(Kind.LITERAL, expected, literal, null, null);
+    }
+
+    /**
+     * @return a schema for arrays whose elements all match the given schema
+     */
+    public static OwenSchema arrayOf(OwenSchema elements) {
+        return new OwenSchema(Kind.ARRAY, "an array", null, Objects.requireNonNull(elements), null);
+    }
+
+    /**
+     * Checks a tree.
+     *
+     * @return the first violation, or null if the tree matches
+     */
+    public Violation validate(OwenElement element) {
+        return check(element, new ArrayList<>());
+    }
+
+    /**
+     * Reads a document like {@link Owen#parse(Reader)}, checking each value as soon as it is read, so that
+     * nothing after the first violation is read or built.
+     *
+     * @throws ViolationException at the first violation, at the offset where it was found
+     */
+    public OwenElement read(Reader reader) throws IOException, ParseException {
+        OwenReader owenReader = new OwenReader(reader);
+        List<String> comments = null;
+
+        while (owenReader.next() == OwenReader.Event.COMMENT) {
+            if (comments == null) comments = new ArrayList<>();
+            comments.add(owenReader.getString());
+        }
+
+        OwenElement root = read(owenReader, comments, new ArrayList<>());
+
+        owenReader.next();
+
+        return root;
+    }
+
+    /**
+     * Reads a memory-mapped file, decoded as {@link Owen#parse(Path)} does, checking it as it is read.
+     */
+    public OwenElement read(Path path) throws IOException, ParseException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(new MappedFileReader(channel));
+        }
+    }
+
+    private Violation check(OwenElement element, List<Object> path) {
+        switch (this.kind) {
+            case LITERAL:
+                if (element.isCompound()) {
+                    return mismatch(path, element.isObject() ? "an object" : "an array");
+                }
+
+                return check(element.isEmpty() ? "" : element.asString(), path);
+            case ARRAY:
+                if (element.isObject() || element.isLiteral()) {
+                    return mismatch(path, found(element));
+                }
+
+                List<OwenElement> list = element.elements();
+                String[] literals = element.literals();
+
+                for (int i = 0; i < list.size(); ++i) {
+                    path.add(i);
+
+                    Violation violation = literals == null ? this.elements.check(list.get(i), path)
+                            : this.elements.checkPacked(literals[i], path);
+
+                    if (violation != null) return violation;
+
+                    path.remove(path.size() - 1);
+                }
+
+                return null;
+            case OBJECT:
+                if (element.isArray() || element.isLiteral()) {
+                    return mismatch(path, found(element));
+                }
+
+                Map<String, OwenElement> members = element.members();
+
+                for (Map.Entry<String, OwenElement> entry : members.entrySet()) {
+                    path.add(entry.getKey());
+
+                    OwenSchema schema = member(entry.getKey());
+                    Violation violation = schema == null ? new Violation(path, "Unexpected key")
+                            : schema.check(entry.getValue(), path);
+
+                    if (violation != null) return violation;
+
+                    path.remove(path.size() - 1);
+                }
+
+                for (int i = 0; this.hasRequired && i < this.keys.length; ++i) {
+                    if (this.required[i] && !members.containsKey(this.keys[i])) {
+                        return missing(path, i);
+                    }
+                }
+
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Checks a literal packed into an array as its element would be checked.
+     */
+    private Violation checkPacked(String literal, List<Object> path) {
+        switch (this.kind) {
+            case ANY:       return null;
+            case LITERAL:   return check(literal, path);
+            default:        return mismatch(path, "'" + literal + "'");
+        }
+    }
+
+    private Violation check(String literal, List<Object> path) {
+        if (this.literal == null || this.literal.test(literal)) {
+            return null;
+        }
+
+        return mismatch(path, "'" + literal + "'");
+    }
+
+    /**
+     * Builds and checks the value that starts at the reader's current event.
+     */
+    private OwenElement read(OwenReader reader, List<String> comments, List<Object> path) throws IOException, ParseException {
+        if (this.kind == Kind.ANY) {
+            return reader.readCurrent(comments);
+        }
+
+        final OwenReader.Event event = reader.getEvent();
+
+        if (event == OwenReader.Event.VALUE) {
+            final String literal = reader.getString();
+
+            if (this.kind == Kind.LITERAL) {
+                fail(reader, check(literal, path));
+            } else if (!literal.isEmpty()) {
+                fail(reader, mismatch(path, "'" + literal + "'"));
+            } else if (this.kind == Kind.OBJECT) {
+                fail(reader, missing(path, Collections.<String>emptySet()));
+            }
+
+            return reader.readCurrent(comments);
+        }
+
+        final boolean array = event == OwenReader.Event.START_ARRAY;
+
+        OwenElement element = new OwenElement();
+
+        if (this.kind != (array ? Kind.ARRAY : Kind.OBJECT)) {
+            // Without members it parses to an empty element, which matches whatever an empty value does.
+            while (reader.next() == OwenReader.Event.COMMENT) ;
+
+            if (reader.getEvent() != OwenReader.Event.END_OBJECT && reader.getEvent() != OwenReader.Event.END_ARRAY) {
+                fail(reader, mismatch(path, array ? "an array" : "an object"));
+            }
+
+            fail(reader, this.kind == Kind.LITERAL ? check("", path) : missing(path, Collections.<String>emptySet()));
+
+            if (comments != null) {
+                element.addComments(comments);
+            }
+
+            return element;
+        }
+
+        boolean[] seen = this.hasRequired ? new boolean[this.keys.length] : null;
+        List<String> pending = null;
+        String key = null;
+        int index = 0;
+
+        if (comments != null) {
+            element.addComments(comments);
+        }
+
+        while (true) {
+            switch (reader.next()) {
+                case COMMENT:
+                    if (pending == null) pending = new ArrayList<>();
+                    pending.add(reader.getString());
+                    continue;
+                case KEY:
+                    key = reader.getString();
+                    continue;
+                case VALUE:
+                case START_OBJECT:
+                case START_ARRAY:
+                    break;
+                default:
+                    if (seen != null) {
+                        for (int i = 0; i < seen.length; ++i) {
+                            if (this.required[i] && !seen[i]) {
+                                fail(reader, missing(path, i));
+                            }
+                        }
+                    }
+
+                    return element;
+            }
+
+            final OwenSchema schema;
+
+            if (array) {
+                schema = this.elements;
+                path.add(index++);
+            } else {
+                path.add(key);
+                schema = member(key);
+
+                if (schema == null) {
+                    fail(reader, new Violation(path, "Unexpected key"));
+                }
+
+                Integer i = this.indices.get(key);
+
+                if (seen != null && i != null) {
+                    seen[i] = true;
+                }
+            }
+
+            OwenElement child = schema.read(reader, pending, path);
+
+            path.remove(path.size() - 1);
+            pending = null;
+
+            if (array) {
+                element.add(child);
+            } else {
+                element.put(key, child);
+            }
+        }
+    }
+
+    /**
+     * @return the schema of a member, which is {@link #any()} for unlisted keys unless this schema is closed
+     */
+    private OwenSchema member(String key) {
+        Integer index = this.indices.get(key);
+
+        if (index != null) {
+            return this.schemas[index];
+        }
+
+        return this.closed ? null : ANY;
+    }
+
+    private Violation mismatch(List<Object> path, String found) {
+        return new Violation(path, "Expected " + this.expected + ". Found " + found);
+    }
+
+    private Violation missing(List<Object> path, int index) {
+        path.add(this.keys[index]);
+
+        Violation violation = new Violation(path, "Missing required key");
+
+        path.remove(path.size() - 1);
+
+        return violation;
+    }
+
+    /**
+     * @return the first required key that is not among the given ones, or null if there is none
+     */
+    private Violation missing(List<Object> path, Set<String> keys) {
+        for (int i = 0; this.hasRequired && i < this.keys.length; ++i) {
+            if (this.required[i] && !keys.contains(this.keys[i])) {
+                return missing(path, i);
+            }
+        }
+
+        return null;
+    }
+
+    private static String found(OwenElement element) {
+        switch (element.getType()) {
+            case OBJECT:    return "an object";
+            case ARRAY:     return "an array";
+            case LITERAL:   return "'" + element.asString() + "'";
+            default:        return "''";
+        }
+    }
+
+    private static void fail(OwenReader reader, Violation violation) throws ViolationException {
+        if (violation != null) {
+            throw new ViolationException(violation, (int) Math.min(reader.getOffset(), Integer.MAX_VALUE));
+        }
+    }
+
+    private enum Kind {
+        ANY, LITERAL, ARRAY, OBJECT
+    }
+
+    /**
+     * Describes an object schema. Keys are checked in the order they were added.
+     */
+    public static class Builder {
+        private final Map<String, OwenSchema> members = new LinkedHashMap<>();
+        private final Set<String> required = new HashSet<>();
+        private boolean closed = false;
+
+        public Builder require(String key, OwenSchema schema) {
+            this.members.put(key, Objects.requireNonNull(schema));
+            this.required.add(key);
+            return this;
+        }
+
+        public Builder optional(String key, OwenSchema schema) {
+            this.members.put(key, Objects.requireNonNull(schema));
+            this.required.remove(key);
+            return this;
+        }
+
+        /**
+         * Rejects keys that were not added, which are otherwise accepted with any value.
+         */
+        public Builder closed() {
+            this.closed = true;
+            return this;
+        }
+
+        public OwenSchema build() {
+            return new OwenSchema(Kind.OBJECT, "an object", null, null, this);
+        }
+    }
+
+    public static final class Violation {
+        private final String path;
+        private final String message;
+
+        private Violation(List<Object> path, String message) {
+            this.path = OwenPath.format(path);
+            this.message = message;
+        }
+
+        /**
+         * @return the path of the offending value, as {@link OwenPath} writes it, or an empty string for the root
+         */
+        public String getPath() {
+            return this.path;
+        }
+
+        public String getMessage() {
+            return this.message;
+        }
+
+        @Override
+        public String toString() {
+            return this.path.isEmpty() ? this.message : this.path + ": " + this.message;
+        }
+    }
+
+    /**
+     * Thrown while reading a document that does not match a schema.
+     */
+    public static final class ViolationException extends ParseException {
+        private static final long serialVersionUID = 1L;
+
+        private final String path;
+
+        ViolationException(Violation violation, int offset) {
+            super(violation.toString(), offset);
+            this.path = violation.getPath();
+        }
+
+        /**
+         * @return the path of the offending value, as {@link Violation#getPath()} reports it
+         */
+        public String getPath() {
+            return this.path;
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package dev.inkwell.owen;
+
+import java.text.ParseException;
+import java.util.*;
+
+/**
+ * Source text together with the tree parsed from it, kept in sync as the text is edited.
+ *
+ * Every element remembers where it was found, see {@link OwenFusedParser.Spanned}, so an edit only
+ * reparses the members of the innermost object or array that contains it, from the member the edit starts
+ * in up to the first member after it that ends where it used to. All other elements are kept as they are. If that does not work out, for
+ * example because the edit added or removed a brace, the enclosing compound is tried instead, and in the
+ * end the whole text is parsed again. The result is always the tree {@link Owen#parse(String)} would
+ * build from the new text.
+ *
+ * The tree must not be modified other than through {@link #edit(int, int, String)}, and instances are not
+ * safe for use by multiple threads.
+ */
+@SuppressWarnings("unused")
+public final class OwenSource {
+    private String text;
+    private OwenFusedParser.Spanned root;
+
+    // The compounds that edits have reached. Once a compound is indexed, the index rather than its
+    // members' own spans says where they are.
+    private final Map<OwenElement, Index> indexes = new IdentityHashMap<>();
+
+    private OwenSource(String text, OwenFusedParser.Spanned root) {
+        this.text = text;
+        this.root = root;
+    }
+
+    public static OwenSource parse(String text) throws ParseException {
+        return new OwenSource(text, OwenFusedParser.parseSpanned(text));
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    /**
+     * @return the tree of the current text, which is replaced when an edit cannot be applied in place
+     */
+    public OwenElement getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Replaces {@code removed} characters at {@code offset} with the inserted text. If the new text does
+     * not parse, the exception is thrown and neither the text nor the tree change.
+     *
+     * @return the object or array whose members were replaced, which is the root if it was parsed again
+     */
+    public OwenElement edit(int offset, int removed, String inserted) throws ParseException {
+        if (offset < 0 || removed < 0 || offset + removed > this.text.length()) {
+            throw new IndexOutOfBoundsException("Cannot edit " + removed + " characters at " + offset + " of " + this.text.length() + "!");
+        }
+
+        final int end = offset + removed;
+        final int delta = inserted.length() - removed;
+        final String text = new StringBuilder(this.text.length() + delta)
+                .append(this.text, 0, offset)
+                .append(inserted)
+                .append(this.text, end, this.text.length())
+                .toString();
+
+        // The compounds whose contents contain the edit from the root down, with where each starts and
+        // ends, and which member of its parent it is.
+        List<OwenElement> path = new ArrayList<>();
+        List<int[]> bounds = new ArrayList<>();
+
+        path.add(this.root);
+        bounds.add(new int[] {0, this.root.end, -1});
+
+        for (int level = 0; ; ++level) {
+            final int start = bounds.get(level)[0];
+            final Index index = index(path.get(level), start, level == 0);
+            final int i = index.find(offset - start, end - start);
+
+            if (i < 0) {
+                break;
+            }
+
+            path.add(index.children[i]);
+            bounds.add(new int[] {start + index.starts[i], start + index.ends[i] - 1, i});
+        }
+
+        for (int level = path.size() - 1; level >= 0; --level) {
+            final int[] compound = bounds.get(level);
+
+            if (reparse(text, path.get(level), compound[0], compound[1], level == 0, offset, end, delta)) {
+                for (int i = level; i > 0; --i) {
+                    this.indexes.get(path.get(i - 1)).shift(bounds.get(i)[2], delta);
+                }
+
+                this.root.end += delta;
+                this.text = text;
+
+                return path.get(level);
+            }
+        }
+
+        this.root = OwenFusedParser.parseSpanned(text);
+        this.text = text;
+        this.indexes.clear();
+
+        return this.root;
+    }
+
+    private Index index(OwenElement compound, int start, boolean root) {
+        Index index = this.indexes.get(compound);
+
+        if (index == null) {
+            index = new Index(compound);
+            index.repeated = index.keys != null && !OwenFusedParser.keyed(this.text, start, root ? 0 : start + 1, index.starts, index.ends);
+            this.indexes.put(compound, index);
+        }
+
+        return index;
+    }
+
+    private void forget(OwenElement element) {
+        Index index = this.indexes.remove(element);
+
+        if (index != null) {
+            for (OwenElement child : index.children) {
+                forget(child);
+            }
+        }
+    }
+
+    /**
+     * Replaces the members of the compound that the edit touches, if they can be reparsed on their own.
+     *
+     * @param start where the compound starts
+     * @param close where it ends, which is its closing brace or the end of the root
+     */
+    private boolean reparse(String text, OwenElement compound, int start, int close, boolean root, int offset, int end, int delta) {
+        final Index index = this.indexes.get(compound);
+        final int n = index.children.length;
+
+        if (n == 0) {
+            return false;
+        }
+
+        // Each member extends back to the end of the previous one, so it includes its key and comments.
+        // The members are reparsed up to one that ends where it used to, past the edit. Members replaced
+        // by a later one with the same key are not indexed, so such objects are reparsed whole.
+        int lo = 0;
+        int from = n;
+
+        if (!index.repeated) {
+            lo = Math.min(Index.first(index.ends, offset - start), n - 1);
+            from = Index.first(index.ends, end - start + 1);
+        }
+
+        final int regionStart = lo > 0 ? start + index.ends[lo - 1] : root ? 0 : start + 1;
+        final OwenFusedParser.Region region = OwenFusedParser.region(text, start, regionStart, index.keys == null, root,
+                index.ends, from, start + delta, close + delta);
+
+        if (region == null) {
+            return false;
+        }
+
+        final int last = region.end == n ? n - 1 : region.end;
+
+        if (region.elements.isEmpty() && lo == 0 && last == n - 1) {
+            // Compounds without members parse as empty elements.
+            return false;
+        }
+
+        if (root && regionStart == 0) {
+            compound.getComments().clear();
+
+            if (region.comments != null) {
+                compound.getComments().addAll(region.comments);
+            }
+        }
+
+        for (int i = lo; i <= last; ++i) {
+            forget(index.children[i]);
+        }
+
+        if (index.keys == null) {
+            List<OwenElement> list = compound.asList();
+
+            list.subList(lo, last + 1).clear();
+            list.addAll(lo, region.elements);
+            index.splice(lo, last, region.elements, null, delta);
+        } else {
+            Map<String, OwenFusedParser.Spanned> members = new LinkedHashMap<>();
+
+            for (int i = 0; i < region.keys.size(); ++i) {
+                members.put(region.keys.get(i), region.elements.get(i));
+            }
+
+            List<String> keys = new ArrayList<>(members.keySet());
+            boolean same = keys.equals(Arrays.asList(index.keys).subList(lo, last + 1));
+            // Whether keys repeat is known anew once all members were reparsed.
+            boolean repeated = members.size() < region.keys.size() || index.repeated && (lo > 0 || last < n - 1);
+
+            index.splice(lo, last, new ArrayList<>(members.values()), keys, delta);
+
+            if (same) {
+                // The same keys in the same order, so only the values change.
+                compound.asMap().putAll(members);
+                index.repeated = repeated;
+            } else {
+                rebuild(compound, index, repeated);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Puts the members of an object in again after keys were added, removed or reordered.
+     */
+    private void rebuild(OwenElement compound, Index index, boolean repeated) {
+        Map<String, OwenElement> map = compound.asMap();
+        Map<String, OwenElement> rebuilt = new LinkedHashMap<>();
+
+        for (int i = 0; i < index.children.length; ++i) {
+            index.children[i].start = index.starts[i];
+            index.children[i].end = index.ends[i];
+            rebuilt.put(index.keys[i], index.children[i]);
+        }
+
+        map.clear();
+        map.putAll(rebuilt);
+
+        // Members replaced by a later one with the same key are gone from the object.
+        Index rebuiltIndex = new Index(compound);
+
+        rebuiltIndex.repeated = repeated || rebuilt.size() < index.children.length;
+        Set<OwenElement> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        kept.addAll(Arrays.asList(rebuiltIndex.children));
+
+        for (OwenElement child : index.children) {
+            if (!kept.contains(child)) {
+                forget(child);
+            }
+        }
+
+        this.indexes.put(compound, rebuiltIndex);
+    }
+
+    /**
+     * The members of a compound in the order it holds them, with where they start and end relative to it.
+     */
+    private static final class Index {
+        OwenFusedParser.Spanned[] children;
+        String[] keys;
+        int[] starts;
+        int[] ends;
+
+        // Whether members of the object were replaced by later ones with the same key.
+        boolean repeated;
+
+        Index(OwenElement compound) {
+            if (compound.isObject()) {
+                Map<String, OwenElement> map = compound.asMap();
+
+                this.children = map.values().toArray(new OwenFusedParser.Spanned[0]);
+                this.keys = map.keySet().toArray(new String[0]);
+            } else if (compound.isArray()) {
+                this.children = compound.asList().toArray(new OwenFusedParser.Spanned[0]);
+            } else {
+                this.children = new OwenFusedParser.Spanned[0];
+            }
+
+            this.starts = new int[this.children.length];
+            this.ends = new int[this.children.length];
+
+            for (int i = 0; i < this.children.length; ++i) {
+                this.starts[i] = this.children[i].start;
+                this.ends[i] = this.children[i].end;
+            }
+        }
+
+        /**
+         * @return the member whose contents contain the range, if it is an object or array, or -1
+         */
+        int find(int from, int to) {
+            if (!this.repeated) {
+                final int i = first(this.starts, from) - 1;
+
+                return i >= 0 && to <= this.ends[i] - 1 && this.children[i].isCompound() ? i : -1;
+            }
+
+            for (int i = 0; i < this.children.length; ++i) {
+                if (this.starts[i] + 1 <= from && to <= this.ends[i] - 1) {
+                    return this.children[i].isCompound() ? i : -1;
+                }
+            }
+
+            return -1;
+        }
+
+        /**
+         * Moves the end of a member and every member that follows it in the source.
+         */
+        void shift(int i, int delta) {
+            final int start = this.starts[i];
+
+            for (int j = 0; j < this.children.length; ++j) {
+                if (this.starts[j] > start) {
+                    this.starts[j] += delta;
+                    this.ends[j] += delta;
+                }
+            }
+
+            this.ends[i] += delta;
+        }
+
+        /**
+         * Replaces the members from {@code lo} to {@code last} with newly parsed ones, and moves those
+         * after them.
+         */
+        void splice(int lo, int last, List<OwenFusedParser.Spanned> elements, List<String> keys, int delta) {
+            final int n = this.children.length;
+            final int m = elements.size();
+            final int length = n - (last - lo + 1) + m;
+
+            if (length != n) {
+                this.children = resize(this.children, new OwenFusedParser.Spanned[length], n, lo, last, m);
+                this.starts = resize(this.starts, new int[length], n, lo, last, m);
+                this.ends = resize(this.ends, new int[length], n, lo, last, m);
+
+                if (this.keys != null) {
+                    this.keys = resize(this.keys, new String[length], n, lo, last, m);
+                }
+            }
+
+            for (int i = 0; i < m; ++i) {
+                this.children[lo + i] = elements.get(i);
+                this.starts[lo + i] = elements.get(i).start;
+                this.ends[lo + i] = elements.get(i).end;
+
+                if (keys != null) {
+                    this.keys[lo + i] = keys.get(i);
+                }
+            }
+
+            for (int i = lo + m; i < length; ++i) {
+                this.starts[i] += delta;
+                this.ends[i] += delta;
+            }
+        }
+
+        private static <T> T resize(T from, T to, int n, int lo, int last, int m) {
+            System.arraycopy(from, 0, to, 0, lo);
+            System.arraycopy(from, last + 1, to, lo + m, n - last - 1);
+
+            return to;
+        }
+
+        /**
+         * @return the first index whose value is at least the position, or the length of the array
+         */
+        static int first(int[] values, int position) {
+            int lo = 0;
+            int hi = values.length;
+
+            while (lo < hi) {
+                final int mid = (lo + hi) >>> 1;
+
+                if (values[mid] < position) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+
+            return lo;
+        }
+    }
+}
@@ -2,19 +2,30 @@ package dev.inkwell.owen;
 
 import java.text.ParseException;
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Deque;
 
 class OwenTokenizer {
     private final Deque<Token> tokens = new ArrayDeque<>();
     private final String string;
     private final int eof;
+    private final boolean skipComments;
+
+    // Where each token starts, by its position in the queue, for errors found while parsing them.
+    private int[] offsets = new int[64];
 
     private int p = 0;
 
-    private OwenTokenizer(String string) throws ParseException {
+    // The first backslash at or after p, or eof if there is none, kept between values so that the
+    // backslashes of the whole input are found in one pass.
+    private int backslash = -1;
+
+    OwenTokenizer(String string, boolean skipComments) throws ParseException {
         this.string = string;
         this.eof = string.length();
+        this.skipComments = skipComments;
         seek();
+        add(Token.OBJECT_START, p);
         object();
     }
 
@@ -24,11 +35,13 @@ class OwenTokenizer {
 
             switch (c) {
                 case '{':
+                    add(Token.OBJECT_START, p);
                     consume('{');
                     object();
                     consume('}');
                     break;
                 case '[':
+                    add(Token.ARRAY_START, p);
                     consume('[');
                     array();
                     consume(']');
@@ -37,13 +50,11 @@ class OwenTokenizer {
                     value();
             }
         } else {
-            tokens.addLast(Token.value(""));
+            add(Token.value(""), p);
         }
     }
 
     private void object() throws ParseException {
-        tokens.addLast(Token.OBJECT_START);
-
         seek();
 
         char c;
@@ -55,17 +66,17 @@ class OwenTokenizer {
 
             final int s = p++;
 
-            while (isIdentifierPart(string.charAt(p))) {
+            while (p < eof && isIdentifierPart(string.charAt(p))) {
                 ++p;
             }
 
-            tokens.addLast(Token.identifier(string.substring(s, p)));
+            add(Token.identifier(string.substring(s, p)), s);
 
             whitespace();
 
-            consume('=');
+            add(Token.EQ, p);
 
-            tokens.addLast(Token.EQ);
+            consume('=');
 
             nonBreakingWhitespace();
 
@@ -73,12 +84,10 @@ class OwenTokenizer {
             seek();
         }
 
-        tokens.addLast(Token.OBJECT_CLOSE);
+        add(Token.OBJECT_CLOSE, p);
     }
 
     private void array() throws ParseException {
-        tokens.addLast(Token.ARRAY_START);
-
         seek();
 
         while (p < eof && string.charAt(p) != ']') {
@@ -86,35 +95,85 @@ class OwenTokenizer {
             seek();
         }
 
-        tokens.addLast(Token.ARRAY_CLOSE);
+        add(Token.ARRAY_CLOSE, p);
     }
 
     private void value() throws ParseException {
-        StringBuilder builder = new StringBuilder();
+        final int s = p;
+        int end = lineEnd();
 
-        char c;
+        if (nextBackslash() >= end) {
+            p = end;
+            add(Token.value(string.substring(s, end)), s);
+            return;
+        }
+
+        StringBuilder builder = new StringBuilder(end - s + 16);
 
-        while (p < eof && (c = string.charAt(p)) != '\n') {
-            if (c == '\\') {
-                c = string.charAt(++p);
+        while (true) {
+            // Runs between escapes are copied whole.
+            final int backslash = nextBackslash();
+
+            if (backslash >= end) {
+                builder.append(string, p, end);
+                p = end;
+                break;
+            }
 
-                switch (c) {
-                    case 'n': builder.append('\n'); break;
-                    case 'r': builder.append('\r'); break;
-                    case 't': builder.append('\t'); break;
-                    case '\\': builder.append('\\'); break;
-                    case '\n': ++p; break;
-                    default: throw new ParseException("Unexpected escaped token '" + c + "'", p);
-                }
+            builder.append(string, p, backslash);
+            p = backslash;
 
+            if (++p == eof) {
+                throw new ParseException("Unexpected escaped token 'EOF'", p);
+            }
+
+            final char c = string.charAt(p);
+
+            if (c == '\n') {
+                if (++p == eof) break;
+
+                ++p;
+                end = lineEnd();
             } else {
-                builder.append(c);
+                builder.append(escape(c, p));
+                ++p;
             }
+        }
 
-            ++p;
+        add(Token.value(builder.toString()), s);
+    }
+
+    private void add(Token token, int offset) {
+        final int index = tokens.size();
+
+        if (index == offsets.length) {
+            offsets = Arrays.copyOf(offsets, index * 2);
+        }
+
+        offsets[index] = offset;
+        tokens.addLast(token);
+    }
+
+    /**
+     * @return the position of the line break ending the current line, or eof if it is the last
+     */
+    private int lineEnd() {
+        final int end = string.indexOf('\n', p);
+
+        return end < 0 ? eof : end;
+    }
+
+    /**
+     * @return the position of the first backslash at or after the current one, or eof if there is none
+     */
+    private int nextBackslash() {
+        if (p > backslash) {
+            final int next = string.indexOf('\\', p);
+
+            backslash = next < 0 ? eof : next;
         }
 
-        tokens.addLast(Token.value(builder.toString()));
+        return backslash;
     }
 
     private void seek() {
@@ -131,16 +190,17 @@ class OwenTokenizer {
     }
 
     private void comment() {
-        ++p;
+        final int start = p++;
+
         whitespace();
 
         final int s = p;
 
-        while (p < eof && string.charAt(p) != '\n') {
-            ++p;
-        }
+        p = lineEnd();
 
-        tokens.addLast(Token.comment(string.substring(s, p)));
+        if (!skipComments) {
+            add(Token.comment(string.substring(s, p)), start);
+        }
     }
 
     private void nonBreakingWhitespace() {
@@ -158,19 +218,59 @@ class OwenTokenizer {
     }
 
     private void consume(char c) throws ParseException {
-        char f = string.charAt(p);
-        if (f == c) {
+        if (p < eof && string.charAt(p) == c) {
             ++p;
         } else {
-            throw new ParseException("Expected '" + c + "'. Found '" + f + "'", p);
+            throw new ParseException("Expected '" + c + "'. Found '" + (p < eof ? String.valueOf(string.charAt(p)) : "EOF") + "'", p);
         }
     }
 
+    Deque<Token> tokens() {
+        return this.tokens;
+    }
+
+    /**
+     * @return the index of the first character of the token that was at the given position in the queue
+     */
+    int offset(int index) {
+        return this.offsets[index];
+    }
+
     static Deque<Token> tokenize(String string) throws ParseException {
-        return new OwenTokenizer(string).tokens;
+        return tokenize(string, false);
+    }
+
+    /**
+     * @param skipComments whether to leave out comments, which are then not read into strings
+     */
+    static Deque<Token> tokenize(String string, boolean skipComments) throws ParseException {
+        return new OwenTokenizer(string, skipComments).tokens;
+    }
+
+    static char escape(char c, int p) throws ParseException {
+        int escaped = unescape(c);
+
+        if (escaped < 0) {
+            throw new ParseException("Unexpected escaped token '" + c + "'", p);
+        }
+
+        return (char) escaped;
+    }
+
+    /**
+     * @return the character that a backslash followed by {@code c} stands for, or -1 if there is none
+     */
+    static int unescape(char c) {
+        switch (c) {
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case '\\': return '\\';
+            default: return -1;
+        }
     }
 
-    private static boolean isIdentifierPart(char c) {
+    static boolean isIdentifierPart(char c) {
         return Character.isAlphabetic(c) || Character.isDigit(c) || c == '.' || c == '/' || c == '+' || c == '\\' || c == ':' || c == '_' || c == '-';
     }
 }
@@ -0,0 +1,478 @@
+package dev.inkwell.owen;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses UTF-8 encoded text like {@link OwenFusedParser} parses a string, without decoding it first.
+ *
+ * Every character the grammar gives a meaning to is ASCII, and no byte of a multi-byte UTF-8 character is,
+ * so the structure is found in the bytes. Keys, literals and comments are decoded when they are built, and
+ * other characters only where the string parser would test them for whitespace or letters. Trees, errors
+ * and their offsets, which count chars of the decoded text, are the same as for the decoded string.
+ */
+class OwenUtf8Parser {
+    private final byte[] bytes;
+    private final int start;
+    private final int eof;
+    private final OwenInterner interner;
+    private final boolean skipComments;
+
+    private List<String> leadingComments;
+    private int p;
+
+    // Holds a value while its escapes are resolved.
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Parses {@code bytes[start..end)}.
+     */
+    private OwenUtf8Parser(byte[] bytes, int start, int end, OwenInterner interner, boolean skipComments) {
+        this.bytes = bytes;
+        this.start = start;
+        this.eof = end;
+        this.interner = interner;
+        this.skipComments = skipComments;
+        this.p = start;
+    }
+
+    static OwenElement parse(byte[] bytes, int start, int end, OwenInterner interner, boolean skipComments) throws ParseException {
+        return new OwenUtf8Parser(bytes, start, end, interner, skipComments).root();
+    }
+
+    static OwenElement parse(ByteBuffer buffer, OwenInterner interner, boolean skipComments) throws ParseException {
+        if (buffer.hasArray()) {
+            final int offset = buffer.arrayOffset();
+
+            return parse(buffer.array(), offset + buffer.position(), offset + buffer.limit(), interner, skipComments);
+        }
+
+        // Direct and read-only buffers are copied to the heap, which is still cheaper than decoding them.
+        byte[] bytes = new byte[buffer.remaining()];
+
+        buffer.duplicate().get(bytes);
+
+        return parse(bytes, 0, bytes.length, interner, skipComments);
+    }
+
+    private OwenElement root() throws ParseException {
+        seek();
+
+        OwenElement element = withComments(new OwenElement());
+
+        object(element);
+
+        return element;
+    }
+
+    private OwenElement element() throws ParseException {
+        final OwenElement element;
+
+        if (p < eof) {
+            switch (bytes[p]) {
+                case '{':
+                    consume('{');
+                    element = withComments(new OwenElement());
+                    object(element);
+                    consume('}');
+                    break;
+                case '[':
+                    consume('[');
+                    element = withComments(new OwenElement());
+                    array(element);
+                    consume(']');
+                    break;
+                default:
+                    element = withComments(Owen.literal(value()));
+            }
+        } else {
+            element = withComments(Owen.literal(""));
+        }
+
+        return element;
+    }
+
+    private void object(OwenElement element) throws ParseException {
+        seek();
+
+        while (p < eof && bytes[p] != '}') {
+            String id = key();
+
+            element.put(id, element());
+            seek();
+        }
+
+        // Comments trailing the last member have nothing to attach to.
+        leadingComments = null;
+    }
+
+    private String key() throws ParseException {
+        final int s = p;
+
+        if (!Character.isAlphabetic(charAt(p))) {
+            throw new ParseException("Identifier must start with alphabetic character", offset(p));
+        }
+
+        p = next(p);
+
+        while (p < eof && OwenTokenizer.isIdentifierPart(charAt(p))) {
+            p = next(p);
+        }
+
+        final int end = p;
+
+        whitespace();
+        consume('=');
+        nonBreakingWhitespace();
+
+        return intern(decode(s, end));
+    }
+
+    private void array(OwenElement element) throws ParseException {
+        seek();
+
+        while (p < eof && bytes[p] != ']') {
+            element.addUnshared(element());
+            seek();
+        }
+
+        leadingComments = null;
+    }
+
+    private String value() throws ParseException {
+        final int s = p;
+
+        p = delimiter(p);
+
+        if (p == eof || bytes[p] == '\n') {
+            return intern(decode(s, p));
+        }
+
+        // Escapes are ASCII, so they are resolved in the bytes, which are then decoded once.
+        int n = 0;
+        int run = s;
+
+        do {
+            n = copy(run, p, n);
+
+            if (++p == eof) {
+                throw new ParseException("Unexpected escaped token 'EOF'", offset(p));
+            }
+
+            final byte b = bytes[p];
+
+            if (b == '\n') {
+                if (++p == eof) {
+                    run = p;
+                    break;
+                }
+
+                // The char skipped after an escaped line break may be half of a character, or one of
+                // several that malformed bytes decode to.
+                if (bytes[p] < 0) {
+                    p = s;
+                    return decodedValue();
+                }
+            } else {
+                final int escaped = b < 0 ? -1 : OwenTokenizer.unescape((char) b);
+
+                if (escaped < 0) {
+                    throw new ParseException("Unexpected escaped token '" + charAt(p) + "'", offset(p));
+                }
+
+                n = copy(escaped, n);
+            }
+
+            run = ++p;
+            p = delimiter(p);
+        } while (p < eof && bytes[p] != '\n');
+
+        n = copy(run, p, n);
+
+        return intern(new String(scratch, 0, n, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a value with escapes by decoding it before they are resolved.
+     */
+    private String decodedValue() throws ParseException {
+        final int s = p;
+
+        byte b;
+
+        // Finds where the value ends, checking its escapes.
+        while (p < eof && (b = bytes[p]) != '\n') {
+            if (b == '\\') {
+                if (++p == eof) {
+                    throw new ParseException("Unexpected escaped token 'EOF'", offset(p));
+                }
+
+                b = bytes[p];
+
+                if (b == '\n') {
+                    if (++p == eof) break;
+                } else if (b < 0 || OwenTokenizer.unescape((char) b) < 0) {
+                    throw new ParseException("Unexpected escaped token '" + charAt(p) + "'", offset(p));
+                }
+            }
+
+            // The character skipped after an escaped line break may take more than a byte, but its other
+            // bytes are not ASCII and so are passed over like any.
+            ++p;
+        }
+
+        return intern(unescape(decode(s, p)));
+    }
+
+    /**
+     * Appends {@code bytes[from..to)} to the scratch buffer, which holds {@code n} bytes.
+     *
+     * @return the number of bytes it then holds
+     */
+    private int copy(int from, int to, int n) {
+        final int length = to - from;
+
+        if (n + length > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(n + length, scratch.length * 2));
+        }
+
+        System.arraycopy(bytes, from, scratch, n, length);
+
+        return n + length;
+    }
+
+    private int copy(int b, int n) {
+        if (n == scratch.length) {
+            scratch = Arrays.copyOf(scratch, n * 2);
+        }
+
+        scratch[n] = (byte) b;
+
+        return n + 1;
+    }
+
+    /**
+     * Resolves the escapes of a value that were already checked, skipping an escaped line break along with
+     * the character after it, as the string parser does.
+     */
+    private static String unescape(String value) {
+        final StringBuilder builder = new StringBuilder(value.length());
+
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+
+            if (c == '\\') {
+                c = value.charAt(++i);
+
+                if (c == '\n') {
+                    ++i;
+                } else {
+                    builder.append((char) OwenTokenizer.unescape(c));
+                }
+            } else {
+                builder.append(c);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private void skip() {
+        while (p < eof) {
+            char c = charAt(p);
+            if (Character.isWhitespace(c)) {
+                p = next(p);
+            } else if (c == '#') {
+                ++p;
+                whitespace();
+                p = lineEnd();
+            } else {
+                break;
+            }
+        }
+    }
+
+    private void seek() {
+        if (skipComments) {
+            skip();
+            return;
+        }
+
+        while (p < eof) {
+            char c = charAt(p);
+            if (Character.isWhitespace(c)) {
+                p = next(p);
+            } else if (c == '#') {
+                comment();
+            } else {
+                break;
+            }
+        }
+    }
+
+    private void comment() {
+        ++p;
+        whitespace();
+
+        final int s = p;
+
+        p = lineEnd();
+
+        if (leadingComments == null) {
+            leadingComments = new ArrayList<>();
+        }
+
+        leadingComments.add(decode(s, p));
+    }
+
+    private int lineEnd() {
+        final byte[] bytes = this.bytes;
+        final int eof = this.eof;
+        int i = p;
+
+        while (i < eof && bytes[i] != '\n') {
+            ++i;
+        }
+
+        return i;
+    }
+
+    /**
+     * @return the position of the first line break or backslash from a position on, or the end
+     */
+    private int delimiter(int i) {
+        final byte[] bytes = this.bytes;
+        final int eof = this.eof;
+        byte b;
+
+        while (i < eof && (b = bytes[i]) != '\n' && b != '\\') {
+            ++i;
+        }
+
+        return i;
+    }
+
+    private void nonBreakingWhitespace() {
+        byte b;
+
+        while (p < eof && ((b = bytes[p]) == ' ' || b == '\t')) {
+            ++p;
+        }
+    }
+
+    private void whitespace() {
+        while (p < eof && Character.isWhitespace(charAt(p))) {
+            p = next(p);
+        }
+    }
+
+    private void consume(char c) throws ParseException {
+        if (p < eof && bytes[p] == c) {
+            ++p;
+        } else {
+            throw new ParseException("Expected '" + c + "'. Found '" + (p < eof ? String.valueOf(charAt(p)) : "EOF") + "'", offset(p));
+        }
+    }
+
+    private OwenElement withComments(OwenElement element) {
+        if (leadingComments != null) {
+            element.adoptComments(leadingComments);
+            leadingComments = null;
+        }
+
+        return element;
+    }
+
+    private String intern(String string) {
+        return interner == null ? string : interner.intern(string, 0, string.length());
+    }
+
+    private String decode(int from, int to) {
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the number of chars the text up to a position decodes to, which is where a string parser
+     * would report an error found there
+     */
+    private int offset(int position) {
+        return decode(start, position).length();
+    }
+
+    /**
+     * @return the char that the character at a position decodes to, its high surrogate if it takes two,
+     * or U+FFFD if it is malformed
+     */
+    private char charAt(int i) {
+        final int b = bytes[i];
+
+        if (b >= 0) {
+            return (char) b;
+        }
+
+        final int length = length(i);
+
+        if (length < 0) {
+            return '\uFFFD';
+        }
+
+        int code = b & (0x7F >> length);
+
+        for (int k = 1; k < length; ++k) {
+            code = code << 6 | bytes[i + k] & 0x3F;
+        }
+
+        return length == 4 ? Character.highSurrogate(code) : (char) code;
+    }
+
+    /**
+     * @return the position after the character at a position, which must not be malformed
+     */
+    private int next(int i) {
+        return bytes[i] >= 0 ? i + 1 : i + length(i);
+    }
+
+    /**
+     * @return the number of bytes of the multi-byte character at a position, or -1 if it is malformed, as
+     * rejected by the JDK's decoder: truncated, overlong, a surrogate, or past U+10FFFF
+     */
+    private int length(int i) {
+        final int b = bytes[i] & 0xFF;
+        final int length;
+        int min = 0x80, max = 0xBF;
+
+        if (b >= 0xC2 && b <= 0xDF) {
+            length = 2;
+        } else if (b >= 0xE0 && b <= 0xEF) {
+            length = 3;
+
+            if (b == 0xE0) min = 0xA0;
+            if (b == 0xED) max = 0x9F;
+        } else if (b >= 0xF0 && b <= 0xF4) {
+            length = 4;
+
+            if (b == 0xF0) min = 0x90;
+            if (b == 0xF4) max = 0x8F;
+        } else {
+            return -1;
+        }
+
+        if (i + length > eof) {
+            return -1;
+        }
+
+        for (int k = 1; k < length; ++k) {
+            final int c = bytes[i + k] & 0xFF;
+
+            if (c < (k == 1 ? min : 0x80) || c > (k == 1 ? max : 0xBF)) {
+                return -1;
+            }
+        }
+
+        return length;
+    }
+}
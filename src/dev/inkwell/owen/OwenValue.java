@@ -0,0 +1,879 @@
+package dev.inkwell.owen;
+
+import java.util.*;
+
+/**
+ * Immutable counterpart of {@link OwenElement}. Updates such as {@link #with(String, OwenValue)} return a
+ * new value that shares every untouched member with the old one, so a value can be kept as a snapshot and
+ * read from any number of threads without copying or locking.
+ *
+ * Arrays are persistent vectors and objects are persistent maps that keep their keys in insertion order,
+ * both 32-way tries, so lookups and single-member updates take a handful of array reads and copies
+ * whatever the size. Inserting or removing array elements other than at the end copies the array.
+ */
+@SuppressWarnings("unused")
+public final class OwenValue {
+    private static final List<String> NO_COMMENTS = Collections.emptyList();
+    private static final OwenValue EMPTY = new OwenValue(OwenElement.Type.EMPTY, null, null, null, NO_COMMENTS);
+
+    private final OwenElement.Type type;
+    private final String literalValue;
+    private final Vector list;
+    private final Members map;
+    private final List<String> comments;
+
+    private OwenValue(OwenElement.Type type, String literalValue, Vector list, Members map, List<String> comments) {
+        this.type = type;
+        this.literalValue = literalValue;
+        this.list = list;
+        this.map = map;
+        this.comments = comments;
+    }
+
+    public static OwenValue empty() {
+        return EMPTY;
+    }
+
+    public static OwenValue literal(String string) {
+        return string.isEmpty() ? EMPTY : new OwenValue(OwenElement.Type.LITERAL, string, null, null, NO_COMMENTS);
+    }
+
+    public static OwenValue object() {
+        return new OwenValue(OwenElement.Type.OBJECT, null, null, Members.EMPTY, NO_COMMENTS);
+    }
+
+    public static OwenValue array() {
+        return new OwenValue(OwenElement.Type.ARRAY, null, Vector.EMPTY, null, NO_COMMENTS);
+    }
+
+    public static OwenValue array(OwenValue... values) {
+        return new OwenValue(OwenElement.Type.ARRAY, null, Vector.of(values.clone()), null, NO_COMMENTS);
+    }
+
+    /**
+     * Copies a mutable tree. Lazily parsed members are loaded.
+     */
+    public static OwenValue of(OwenElement element) {
+        final List<String> comments = element.comments().isEmpty() ? NO_COMMENTS
+                : Collections.unmodifiableList(new ArrayList<>(element.comments()));
+
+        switch (element.getType()) {
+            case LITERAL:
+                return new OwenValue(OwenElement.Type.LITERAL, element.asString(), null, null, comments);
+            case ARRAY: {
+                List<OwenElement> list = element.elements();
+                String[] literals = element.literals();
+                Object[] values = new Object[list.size()];
+
+                for (int i = 0; i < values.length; ++i) {
+                    values[i] = literals == null ? of(list.get(i))
+                            : new OwenValue(OwenElement.Type.LITERAL, literals[i], null, null, NO_COMMENTS);
+                }
+
+                return new OwenValue(OwenElement.Type.ARRAY, null, Vector.of(values), null, comments);
+            }
+            case OBJECT: {
+                Members members = Members.EMPTY;
+
+                for (Map.Entry<String, OwenElement> entry : element.members().entrySet()) {
+                    members = members.with(entry.getKey(), of(entry.getValue()));
+                }
+
+                return new OwenValue(OwenElement.Type.OBJECT, null, null, members, comments);
+            }
+            default:
+                return comments.isEmpty() ? EMPTY : new OwenValue(OwenElement.Type.EMPTY, null, null, null, comments);
+        }
+    }
+
+    /**
+     * @return a mutable copy of this value
+     */
+    public OwenElement toElement() {
+        final OwenElement element;
+
+        switch (this.type) {
+            case LITERAL:
+                element = Owen.literal(this.literalValue);
+                break;
+            case ARRAY:
+                element = Owen.array();
+
+                for (int i = 0; i < this.list.size; ++i) {
+                    element.addUnshared(((OwenValue) this.list.get(i)).toElement());
+                }
+
+                break;
+            case OBJECT:
+                element = Owen.object();
+
+                for (Map.Entry<String, OwenValue> entry : this.map) {
+                    element.put(entry.getKey(), entry.getValue().toElement());
+                }
+
+                break;
+            default:
+                element = Owen.empty();
+        }
+
+        element.addComments(this.comments);
+
+        return element;
+    }
+
+    public OwenElement.Type getType() {
+        return this.type;
+    }
+
+    public boolean isObject() {
+        return this.type == OwenElement.Type.OBJECT;
+    }
+
+    public boolean isArray() {
+        return this.type == OwenElement.Type.ARRAY;
+    }
+
+    public boolean isLiteral() {
+        return this.type == OwenElement.Type.LITERAL;
+    }
+
+    public boolean isCompound() {
+        return this.type == OwenElement.Type.OBJECT || this.type == OwenElement.Type.ARRAY;
+    }
+
+    public boolean isEmpty() {
+        switch (this.type) {
+            case LITERAL:   return this.literalValue.isEmpty();
+            case ARRAY:     return this.list.size == 0;
+            case OBJECT:    return this.map.size == 0;
+            default:        return true;
+        }
+    }
+
+    public List<String> getComments() {
+        return this.comments;
+    }
+
+    public OwenValue withComments(String... comments) {
+        return withComments(Arrays.asList(comments));
+    }
+
+    /**
+     * @return this value with its comments replaced
+     */
+    public OwenValue withComments(List<String> comments) {
+        List<String> copy = comments.isEmpty() ? NO_COMMENTS : Collections.unmodifiableList(new ArrayList<>(comments));
+
+        return new OwenValue(this.type, this.literalValue, this.list, this.map, copy);
+    }
+
+    public String asString() {
+        if (this.type != OwenElement.Type.LITERAL) {
+            throw new RuntimeException("Cannot get non-Literal element as string!");
+        }
+
+        return this.literalValue;
+    }
+
+    public int asInt() {
+        String literal = literalAs("int");
+        return OwenPrimitives.parseInt(literal, 0, literal.length());
+    }
+
+    public long asLong() {
+        String literal = literalAs("long");
+        return OwenPrimitives.parseLong(literal, 0, literal.length());
+    }
+
+    public double asDouble() {
+        String literal = literalAs("double");
+        return OwenPrimitives.parseDouble(literal, 0, literal.length());
+    }
+
+    public boolean asBoolean() {
+        String literal = literalAs("boolean");
+        return OwenPrimitives.parseBoolean(literal, 0, literal.length());
+    }
+
+    private String literalAs(String type) {
+        if (this.type != OwenElement.Type.LITERAL) {
+            throw new RuntimeException("Cannot get non-Literal element as " + type + "!");
+        }
+
+        return this.literalValue;
+    }
+
+    /**
+     * @return the number of members of an object or elements of an array, or 0 for an empty element
+     */
+    public int size() {
+        switch (this.type) {
+            case ARRAY:     return this.list.size;
+            case OBJECT:    return this.map.size;
+            case EMPTY:     return 0;
+            default:        throw new RuntimeException("Cannot get size of Literal element!");
+        }
+    }
+
+    public OwenValue get(String key) {
+        if (this.type == OwenElement.Type.EMPTY) {
+            return null;
+        }
+
+        if (this.type != OwenElement.Type.OBJECT) {
+            throw new RuntimeException("Cannot get keyed element from non-Object element!");
+        }
+
+        return this.map.get(key);
+    }
+
+    public OwenValue get(int index) {
+        if (this.type == OwenElement.Type.EMPTY) {
+            return null;
+        }
+
+        if (this.type != OwenElement.Type.ARRAY) {
+            throw new RuntimeException("Cannot get indexed element from non-Array element!");
+        }
+
+        if (index < 0 || index >= this.list.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.list.size);
+        }
+
+        return (OwenValue) this.list.get(index);
+    }
+
+    /**
+     * @return an unmodifiable view of the elements of an array
+     */
+    public List<OwenValue> asList() {
+        if (this.type == OwenElement.Type.EMPTY) {
+            return Collections.emptyList();
+        }
+
+        if (this.type != OwenElement.Type.ARRAY) {
+            throw new RuntimeException("Cannot get non-Array element as list!");
+        }
+
+        return new AbstractList<OwenValue>() {
+            @Override
+            public OwenValue get(int index) {
+                return OwenValue.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return OwenValue.this.list.size;
+            }
+        };
+    }
+
+    /**
+     * @return an unmodifiable view of the members of an object, in insertion order
+     */
+    public Map<String, OwenValue> asMap() {
+        if (this.type == OwenElement.Type.EMPTY) {
+            return Collections.emptyMap();
+        }
+
+        if (this.type != OwenElement.Type.OBJECT) {
+            throw new RuntimeException("Cannot get non-Object element as map.");
+        }
+
+        return new AbstractMap<String, OwenValue>() {
+            @Override
+            public OwenValue get(Object key) {
+                return key instanceof String ? OwenValue.this.map.get((String) key) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public Set<Entry<String, OwenValue>> entrySet() {
+                return new AbstractSet<Entry<String, OwenValue>>() {
+                    @Override
+                    public Iterator<Entry<String, OwenValue>> iterator() {
+                        return OwenValue.this.map.iterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return OwenValue.this.map.size;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * @return this object with the member set, keeping its position if the key was already present
+     */
+    public OwenValue with(String key, OwenValue value) {
+        return new OwenValue(OwenElement.Type.OBJECT, null, null, members("put").with(key, value), this.comments);
+    }
+
+    public OwenValue with(String key, String value) {
+        return with(key, literal(value));
+    }
+
+    public OwenValue without(String key) {
+        Members members = members("remove");
+        Members removed = members.without(key);
+
+        return removed == members && this.type == OwenElement.Type.OBJECT ? this
+                : new OwenValue(OwenElement.Type.OBJECT, null, null, removed, this.comments);
+    }
+
+    private Members members(String operation) {
+        if (this.type == OwenElement.Type.EMPTY) {
+            return Members.EMPTY;
+        }
+
+        if (this.type != OwenElement.Type.OBJECT) {
+            throw new RuntimeException("Cannot " + operation + " element in non-Object element!");
+        }
+
+        return this.map;
+    }
+
+    /**
+     * @return this array with the element at the index replaced
+     */
+    public OwenValue with(int index, OwenValue value) {
+        Vector list = elements();
+
+        if (index < 0 || index >= list.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + list.size);
+        }
+
+        return new OwenValue(OwenElement.Type.ARRAY, null, list.set(index, value), null, this.comments);
+    }
+
+    /**
+     * @return this array with the element added at the end
+     */
+    public OwenValue plus(OwenValue value) {
+        return new OwenValue(OwenElement.Type.ARRAY, null, elements().push(value), null, this.comments);
+    }
+
+    /**
+     * Inserts an element, which copies the array unless it goes at the end.
+     */
+    public OwenValue plus(int index, OwenValue value) {
+        Vector list = elements();
+
+        if (index < 0 || index > list.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + list.size);
+        }
+
+        if (index == list.size) {
+            return plus(value);
+        }
+
+        Object[] values = new Object[list.size + 1];
+
+        list.copy(values, 0, index, 0);
+        values[index] = value;
+        list.copy(values, index, list.size, index + 1);
+
+        return new OwenValue(OwenElement.Type.ARRAY, null, Vector.of(values), null, this.comments);
+    }
+
+    /**
+     * Removes an element, which copies the array unless it is the last.
+     */
+    public OwenValue minus(int index) {
+        Vector list = elements();
+
+        if (index < 0 || index >= list.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + list.size);
+        }
+
+        Object[] values = new Object[list.size - 1];
+
+        list.copy(values, 0, index, 0);
+        list.copy(values, index + 1, list.size, index);
+
+        return new OwenValue(OwenElement.Type.ARRAY, null, Vector.of(values), null, this.comments);
+    }
+
+    private Vector elements() {
+        if (this.type == OwenElement.Type.EMPTY) {
+            return Vector.EMPTY;
+        }
+
+        if (this.type != OwenElement.Type.ARRAY) {
+            throw new RuntimeException("Cannot add element to non-Array element!");
+        }
+
+        return this.list;
+    }
+
+    /**
+     * A persistent vector: a trie of 32-element arrays, with the last, partially filled array kept apart
+     * so appending usually copies only that.
+     */
+    private static final class Vector {
+        static final Vector EMPTY = new Vector(0, 5, new Object[32], new Object[0]);
+
+        final int size;
+        final int shift;
+        final Object[] root;
+        final Object[] tail;
+
+        Vector(int size, int shift, Object[] root, Object[] tail) {
+            this.size = size;
+            this.shift = shift;
+            this.root = root;
+            this.tail = tail;
+        }
+
+        static Vector of(Object[] values) {
+            final int size = values.length;
+
+            if (size == 0) {
+                return EMPTY;
+            }
+
+            final int tailOffset = ((size - 1) >>> 5) << 5;
+            Object[] nodes = new Object[tailOffset >>> 5];
+
+            for (int i = 0; i < nodes.length; ++i) {
+                nodes[i] = Arrays.copyOfRange(values, i << 5, (i + 1) << 5);
+            }
+
+            int shift = 5;
+
+            while (nodes.length > 32) {
+                Object[] parents = new Object[(nodes.length + 31) >>> 5];
+
+                for (int i = 0; i < parents.length; ++i) {
+                    parents[i] = Arrays.copyOfRange(nodes, i << 5, (i + 1) << 5);
+                }
+
+                nodes = parents;
+                shift += 5;
+            }
+
+            return new Vector(size, shift, Arrays.copyOf(nodes, 32), Arrays.copyOfRange(values, tailOffset, size));
+        }
+
+        private int tailOffset() {
+            return this.size < 32 ? 0 : ((this.size - 1) >>> 5) << 5;
+        }
+
+        private Object[] leaf(int index) {
+            if (index >= tailOffset()) {
+                return this.tail;
+            }
+
+            Object[] node = this.root;
+
+            for (int level = this.shift; level > 0; level -= 5) {
+                node = (Object[]) node[(index >>> level) & 31];
+            }
+
+            return node;
+        }
+
+        Object get(int index) {
+            return leaf(index)[index & 31];
+        }
+
+        void copy(Object[] to, int from, int until, int at) {
+            for (int i = from; i < until; ++i) {
+                to[at++] = get(i);
+            }
+        }
+
+        Vector set(int index, Object value) {
+            if (index >= tailOffset()) {
+                Object[] tail = this.tail.clone();
+
+                tail[index & 31] = value;
+
+                return new Vector(this.size, this.shift, this.root, tail);
+            }
+
+            return new Vector(this.size, this.shift, set(this.shift, this.root, index, value), this.tail);
+        }
+
+        private static Object[] set(int level, Object[] node, int index, Object value) {
+            Object[] copy = node.clone();
+
+            if (level == 0) {
+                copy[index & 31] = value;
+            } else {
+                final int i = (index >>> level) & 31;
+                copy[i] = set(level - 5, (Object[]) node[i], index, value);
+            }
+
+            return copy;
+        }
+
+        Vector push(Object value) {
+            if (this.size - tailOffset() < 32) {
+                Object[] tail = Arrays.copyOf(this.tail, this.tail.length + 1);
+
+                tail[this.tail.length] = value;
+
+                return new Vector(this.size + 1, this.shift, this.root, tail);
+            }
+
+            // The tail is full, so it moves into the trie, which grows a level when the root is full.
+            Object[] root;
+            int shift = this.shift;
+
+            if ((this.size >>> 5) > (1 << this.shift)) {
+                root = new Object[32];
+                root[0] = this.root;
+                root[1] = path(this.shift, this.tail);
+                shift += 5;
+            } else {
+                root = pushTail(this.shift, this.root, this.tail);
+            }
+
+            return new Vector(this.size + 1, shift, root, new Object[] {value});
+        }
+
+        private Object[] pushTail(int level, Object[] parent, Object[] tail) {
+            final int i = ((this.size - 1) >>> level) & 31;
+            Object[] copy = parent.clone();
+
+            if (level == 5) {
+                copy[i] = tail;
+            } else {
+                Object[] child = (Object[]) parent[i];
+                copy[i] = child != null ? pushTail(level - 5, child, tail) : path(level - 5, tail);
+            }
+
+            return copy;
+        }
+
+        private static Object[] path(int level, Object[] node) {
+            if (level == 0) {
+                return node;
+            }
+
+            Object[] path = new Object[32];
+            path[0] = path(level - 5, node);
+
+            return path;
+        }
+    }
+
+    /**
+     * A persistent map that iterates in insertion order: the entries in a {@link Vector}, and a hash trie
+     * from each key to its position there. Removed entries leave a gap until more than half are gaps.
+     */
+    private static final class Members implements Iterable<Map.Entry<String, OwenValue>> {
+        static final Members EMPTY = new Members(Node.EMPTY, Vector.EMPTY, 0);
+
+        final Node index;
+        final Vector entries;
+        final int size;
+
+        Members(Node index, Vector entries, int size) {
+            this.index = index;
+            this.entries = entries;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        OwenValue get(String key) {
+            final int position = this.index.find(key, key.hashCode(), 0);
+
+            return position < 0 ? null : ((Map.Entry<String, OwenValue>) this.entries.get(position)).getValue();
+        }
+
+        Members with(String key, OwenValue value) {
+            final Map.Entry<String, OwenValue> entry = new AbstractMap.SimpleImmutableEntry<>(key, value);
+            final int hash = key.hashCode();
+            final int position = this.index.find(key, hash, 0);
+
+            if (position >= 0) {
+                return new Members(this.index, this.entries.set(position, entry), this.size);
+            }
+
+            return new Members(this.index.put(key, hash, 0, this.entries.size), this.entries.push(entry), this.size + 1);
+        }
+
+        Members without(String key) {
+            final int hash = key.hashCode();
+            final int position = this.index.find(key, hash, 0);
+
+            if (position < 0) {
+                return this;
+            }
+
+            Members members = new Members(this.index.remove(key, hash, 0), this.entries.set(position, null), this.size - 1);
+
+            return members.size * 2 < members.entries.size ? members.compact() : members;
+        }
+
+        private Members compact() {
+            Members members = EMPTY;
+
+            for (Map.Entry<String, OwenValue> entry : this) {
+                members = members.with(entry.getKey(), entry.getValue());
+            }
+
+            return members;
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, OwenValue>> iterator() {
+            return new Iterator<Map.Entry<String, OwenValue>>() {
+                private int position = skip(0);
+
+                private int skip(int position) {
+                    while (position < Members.this.entries.size && Members.this.entries.get(position) == null) {
+                        ++position;
+                    }
+
+                    return position;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return this.position < Members.this.entries.size;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public Map.Entry<String, OwenValue> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    Object entry = Members.this.entries.get(this.position);
+
+                    this.position = skip(this.position + 1);
+
+                    return (Map.Entry<String, OwenValue>) entry;
+                }
+            };
+        }
+    }
+
+    /**
+     * A node of a hash array mapped trie from keys to positions. Each level consumes five bits of the
+     * hash; keys whose hashes are entirely equal end up in a {@link Collision}.
+     */
+    private abstract static class Node {
+        static final Node EMPTY = new Branch(0, new Object[0]);
+
+        /**
+         * @return the key's position, or -1
+         */
+        abstract int find(String key, int hash, int shift);
+
+        abstract Node put(String key, int hash, int shift, int position);
+
+        /**
+         * @return the node without the key, which is null once nothing is left in it
+         */
+        abstract Node remove(String key, int hash, int shift);
+
+        static Node pair(String key1, int hash1, int position1, String key2, int hash2, int position2, int shift) {
+            if (shift > 30) {
+                return new Collision(hash1, new String[] {key1, key2}, new int[] {position1, position2});
+            }
+
+            final int index1 = (hash1 >>> shift) & 31;
+            final int index2 = (hash2 >>> shift) & 31;
+
+            if (index1 == index2) {
+                return new Branch(1 << index1, new Object[] {null, pair(key1, hash1, position1, key2, hash2, position2, shift + 5)});
+            }
+
+            return index1 < index2
+                    ? new Branch(1 << index1 | 1 << index2, new Object[] {key1, position1, key2, position2})
+                    : new Branch(1 << index1 | 1 << index2, new Object[] {key2, position2, key1, position1});
+        }
+    }
+
+    /**
+     * Holds a key and position, or a null key and a child node, for each set bit of the bitmap.
+     */
+    private static final class Branch extends Node {
+        final int bitmap;
+        final Object[] slots;
+
+        Branch(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int slot(int bit) {
+            return Integer.bitCount(this.bitmap & (bit - 1)) * 2;
+        }
+
+        @Override
+        int find(String key, int hash, int shift) {
+            final int bit = 1 << ((hash >>> shift) & 31);
+
+            if ((this.bitmap & bit) == 0) {
+                return -1;
+            }
+
+            final int slot = slot(bit);
+            final Object k = this.slots[slot];
+
+            if (k == null) {
+                return ((Node) this.slots[slot + 1]).find(key, hash, shift + 5);
+            }
+
+            return key.equals(k) ? (Integer) this.slots[slot + 1] : -1;
+        }
+
+        @Override
+        Node put(String key, int hash, int shift, int position) {
+            final int bit = 1 << ((hash >>> shift) & 31);
+            final int slot = slot(bit);
+
+            if ((this.bitmap & bit) == 0) {
+                Object[] slots = new Object[this.slots.length + 2];
+
+                System.arraycopy(this.slots, 0, slots, 0, slot);
+                slots[slot] = key;
+                slots[slot + 1] = position;
+                System.arraycopy(this.slots, slot, slots, slot + 2, this.slots.length - slot);
+
+                return new Branch(this.bitmap | bit, slots);
+            }
+
+            final Object k = this.slots[slot];
+            final Object[] slots = this.slots.clone();
+
+            if (k == null) {
+                slots[slot + 1] = ((Node) this.slots[slot + 1]).put(key, hash, shift + 5, position);
+            } else if (key.equals(k)) {
+                slots[slot + 1] = position;
+            } else {
+                slots[slot] = null;
+                slots[slot + 1] = pair((String) k, k.hashCode(), (Integer) this.slots[slot + 1], key, hash, position, shift + 5);
+            }
+
+            return new Branch(this.bitmap, slots);
+        }
+
+        @Override
+        Node remove(String key, int hash, int shift) {
+            final int bit = 1 << ((hash >>> shift) & 31);
+
+            if ((this.bitmap & bit) == 0) {
+                return this;
+            }
+
+            final int slot = slot(bit);
+            final Object k = this.slots[slot];
+
+            if (k == null) {
+                Node child = (Node) this.slots[slot + 1];
+                Node removed = child.remove(key, hash, shift + 5);
+
+                if (removed == child) {
+                    return this;
+                }
+
+                if (removed != null) {
+                    Object[] slots = this.slots.clone();
+
+                    slots[slot + 1] = removed;
+
+                    return new Branch(this.bitmap, slots);
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            }
+
+            if (this.bitmap == bit) {
+                return shift == 0 ? EMPTY : null;
+            }
+
+            Object[] slots = new Object[this.slots.length - 2];
+
+            System.arraycopy(this.slots, 0, slots, 0, slot);
+            System.arraycopy(this.slots, slot + 2, slots, slot, this.slots.length - slot - 2);
+
+            return new Branch(this.bitmap & ~bit, slots);
+        }
+    }
+
+    private static final class Collision extends Node {
+        final int hash;
+        final String[] keys;
+        final int[] positions;
+
+        Collision(int hash, String[] keys, int[] positions) {
+            this.hash = hash;
+            this.keys = keys;
+            this.positions = positions;
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < this.keys.length; ++i) {
+                if (this.keys[i].equals(key)) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        @Override
+        int find(String key, int hash, int shift) {
+            final int i = indexOf(key);
+
+            return i < 0 ? -1 : this.positions[i];
+        }
+
+        @Override
+        Node put(String key, int hash, int shift, int position) {
+            final int i = indexOf(key);
+
+            if (i >= 0) {
+                int[] positions = this.positions.clone();
+
+                positions[i] = position;
+
+                return new Collision(this.hash, this.keys, positions);
+            }
+
+            String[] keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+            int[] positions = Arrays.copyOf(this.positions, this.positions.length + 1);
+
+            keys[this.keys.length] = key;
+            positions[this.positions.length] = position;
+
+            return new Collision(this.hash, keys, positions);
+        }
+
+        @Override
+        Node remove(String key, int hash, int shift) {
+            final int i = indexOf(key);
+
+            if (i < 0) {
+                return this;
+            }
+
+            if (this.keys.length == 1) {
+                return null;
+            }
+
+            String[] keys = new String[this.keys.length - 1];
+            int[] positions = new int[this.positions.length - 1];
+
+            System.arraycopy(this.keys, 0, keys, 0, i);
+            System.arraycopy(this.keys, i + 1, keys, i, keys.length - i);
+            System.arraycopy(this.positions, 0, positions, 0, i);
+            System.arraycopy(this.positions, i + 1, positions, i, positions.length - i);
+
+            return new Collision(this.hash, keys, positions);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package dev.inkwell.owen;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event-style writer that serializes straight to an {@link Appendable} using the formatting of an {@link Owen}.
+ *
+ * The document root is an implicit object, so a document is written as a sequence of {@link #key(String)}
+ * and value calls, optionally preceded by comments. Comments written before a key or array element belong
+ * to that entry.
+ */
+@SuppressWarnings("unused")
+public class OwenWriter implements Closeable, Flushable {
+    private final Owen owen;
+    private final Appendable out;
+    private final Writer writer;
+
+    private Frame frame = new Frame(null, false, 0);
+
+    OwenWriter(Owen owen, Appendable out) {
+        this.owen = owen;
+        this.out = out;
+        this.writer = out instanceof Writer ? (Writer) out : null;
+
+        this.frame.opened = true;
+    }
+
+    public OwenWriter comment(String comment) throws IOException {
+        if (this.frame.awaitingValue) {
+            throw new RuntimeException("Cannot write comment between key and value!");
+        }
+
+        startEntry(true);
+        indent(this.frame.depth);
+        this.out.append('#').append(this.owen.commentSpacing).append(comment).append('\n');
+
+        return this;
+    }
+
+    public OwenWriter key(String key) throws IOException {
+        if (this.frame.array) {
+            throw new RuntimeException("Cannot write key in an array!");
+        }
+
+        if (this.frame.awaitingValue) {
+            throw new RuntimeException("Cannot write key before the previous key's value!");
+        }
+
+        startEntry(false);
+        indent(this.frame.depth);
+        this.out.append(key).append('=');
+        this.frame.awaitingValue = true;
+
+        return this;
+    }
+
+    public OwenWriter value(String value) throws IOException {
+        startValue();
+        literal(value);
+        endValue(false);
+
+        return this;
+    }
+
+    /**
+     * Writes an element and its children as the current value. The element's own comments are not
+     * written; emit them with {@link #comment(String)} before its key or array slot.
+     */
+    public OwenWriter value(OwenElement element) throws IOException {
+        switch (element.getType()) {
+            case LITERAL:
+                return value(element.asString());
+            case ARRAY:
+                beginArray();
+                array(element);
+                return endArray();
+            case OBJECT:
+                beginObject();
+                object(element);
+                return endObject();
+            case EMPTY:
+                startValue();
+                endValue(false);
+                return this;
+        }
+
+        throw new RuntimeException("Impossible type!");
+    }
+
+    public OwenWriter beginObject() throws IOException {
+        return begin('{', false);
+    }
+
+    public OwenWriter endObject() throws IOException {
+        return end('}', false);
+    }
+
+    public OwenWriter beginArray() throws IOException {
+        return begin('[', true);
+    }
+
+    public OwenWriter endArray() throws IOException {
+        return end(']', true);
+    }
+
+    /**
+     * Writes a whole document: the root's comments followed by its members.
+     */
+    public OwenWriter document(OwenElement root) throws IOException {
+        if (!root.isObject()) {
+            throw new RuntimeException("Root element must be an object!");
+        }
+
+        if (this.frame.parent != null || this.frame.started || this.frame.count > 0) {
+            throw new RuntimeException("Cannot write document into a non-empty writer!");
+        }
+
+        comments(root.comments());
+        object(root);
+
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (this.out instanceof Flushable) {
+            ((Flushable) this.out).flush();
+        }
+    }
+
+    /**
+     * Closes the sink, and then fails if an object or array was left open.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.out instanceof Closeable) {
+            ((Closeable) this.out).close();
+        }
+
+        if (this.frame.parent != null) {
+            throw new RuntimeException("Cannot close writer with unclosed " + (this.frame.array ? "array" : "object") + "!");
+        }
+    }
+
+    private void object(OwenElement element) throws IOException {
+        for (Map.Entry<String, OwenElement> entry : element.members().entrySet()) {
+            OwenElement child = entry.getValue();
+
+            comments(child.comments());
+            key(entry.getKey());
+            value(child);
+        }
+    }
+
+    private void array(OwenElement element) throws IOException {
+        List<OwenElement> elements = element.elements();
+        String[] literals = element.literals();
+
+        for (int i = 0; i < elements.size(); ++i) {
+            if (literals == null) {
+                OwenElement child = elements.get(i);
+
+                comments(child.comments());
+                value(child);
+            } else {
+                value(literals[i]);
+            }
+        }
+    }
+
+    private void comments(List<String> comments) throws IOException {
+        for (String comment : comments) {
+            comment(comment);
+        }
+    }
+
+    private OwenWriter begin(char c, boolean array) throws IOException {
+        startValue();
+        this.out.append(c);
+        this.frame = new Frame(this.frame, array, this.frame.depth + 1);
+
+        return this;
+    }
+
+    private OwenWriter end(char c, boolean array) throws IOException {
+        Frame frame = this.frame;
+
+        if (frame.parent == null || frame.array != array) {
+            throw new RuntimeException("Cannot close " + (array ? "array" : "object") + " that is not open!");
+        }
+
+        if (frame.awaitingValue) {
+            throw new RuntimeException("Cannot close object before the last key's value!");
+        }
+
+        this.frame = frame.parent;
+
+        if (frame.opened) {
+            indent(this.frame.depth);
+        }
+
+        this.out.append(c);
+
+        endValue(frame.count > 0);
+
+        return this;
+    }
+
+    private void startEntry(boolean commented) throws IOException {
+        Frame frame = this.frame;
+
+        if (frame.started) return;
+
+        if (!frame.opened) {
+            this.out.append('\n');
+            frame.opened = true;
+        }
+
+        if (!frame.array && this.owen.spacious && frame.count > 0 && (commented || frame.previousFilledCompound)) {
+            this.out.append('\n');
+        }
+
+        frame.started = true;
+    }
+
+    private void startValue() throws IOException {
+        if (this.frame.array) {
+            startEntry(false);
+            indent(this.frame.depth);
+        } else if (!this.frame.awaitingValue) {
+            throw new RuntimeException("Cannot write value in an object without a key!");
+        }
+    }
+
+    private void endValue(boolean filledCompound) throws IOException {
+        Frame frame = this.frame;
+
+        this.out.append('\n');
+
+        frame.previousFilledCompound = filledCompound;
+        frame.awaitingValue = false;
+        frame.started = false;
+        ++frame.count;
+    }
+
+    /**
+     * Appends a literal, escaping newlines and any '#' that is not already preceded by a backslash.
+     * Of a run of unescaped '#' characters only every other one is escaped, as the original regex
+     * based escaping did.
+     */
+    private void literal(String value) throws IOException {
+        final int length = value.length();
+
+        int s = 0;
+        boolean escapedHash = false;
+
+        for (int i = 0; i < length; ++i) {
+            char c = value.charAt(i);
+
+            if (c == '\n') {
+                append(value, s, i);
+                this.out.append("\\n");
+                s = i + 1;
+                escapedHash = false;
+            } else if (c == '#') {
+                if (i > 0 && !escapedHash && value.charAt(i - 1) != '\\') {
+                    append(value, s, i);
+                    this.out.append('\\');
+                    s = i;
+                    escapedHash = true;
+                } else {
+                    escapedHash = false;
+                }
+            } else {
+                escapedHash = false;
+            }
+        }
+
+        append(value, s, length);
+    }
+
+    private void append(String string, int start, int end) throws IOException {
+        if (start == end) return;
+
+        if (this.writer != null) {
+            // Writer.append(CharSequence, int, int) copies the range into a new String first.
+            this.writer.write(string, start, end - start);
+        } else {
+            this.out.append(string, start, end);
+        }
+    }
+
+    private void indent(int depth) throws IOException {
+        String[] indents = this.owen.indents;
+
+        if (depth < indents.length) {
+            this.out.append(indents[depth]);
+        } else {
+            for (int i = 0; i < depth; ++i) {
+                this.out.append(this.owen.indent);
+            }
+        }
+    }
+
+    private static class Frame {
+        final Frame parent;
+        final boolean array;
+        final int depth;
+
+        boolean opened;
+        boolean started;
+        boolean awaitingValue;
+        boolean previousFilledCompound;
+        int count;
+
+        Frame(Frame parent, boolean array, int depth) {
+            this.parent = parent;
+            this.array = array;
+            this.depth = depth;
+        }
+    }
+}
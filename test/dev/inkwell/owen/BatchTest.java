@@ -0,0 +1,132 @@
+package dev.inkwell.owen;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * A batch must hold the tree or the error of every file, in the order the files were given, however many run at once.
+ */
+public class BatchTest {
+    private static final String INVALID = "key = {\n  a = b\n";
+
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        this.directory = Files.createTempDirectory("owen");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+
+        Files.delete(this.directory);
+    }
+
+    @Test
+    public void elementsAndErrors() throws IOException, ParseException {
+        Random random = new Random(13);
+        List<Path> paths = new ArrayList<>();
+        List<String> documents = new ArrayList<>();
+
+        for (int i = 0; i < 40; ++i) {
+            String document = i % 5 == 3 ? INVALID : Samples.random(random, 3);
+
+            paths.add(write("file" + i, document));
+            documents.add(document);
+        }
+
+        Path missing = this.directory.resolve("missing");
+
+        paths.add(7, missing);
+        documents.add(7, null);
+
+        for (int concurrency : new int[] {1, 3, 64}) {
+            OwenBatch batch = Owen.parseAll(paths, ForkJoinPool.commonPool(), concurrency);
+            List<Path> elements = new ArrayList<>();
+            List<Path> errors = new ArrayList<>();
+
+            for (int i = 0; i < paths.size(); ++i) {
+                Path path = paths.get(i);
+
+                if (documents.get(i) == null) {
+                    errors.add(path);
+                    assertTrue(batch.getErrors().get(path) instanceof NoSuchFileException);
+                } else if (documents.get(i).equals(INVALID)) {
+                    errors.add(path);
+                    assertTrue(batch.getErrors().get(path) instanceof ParseException);
+                } else {
+                    elements.add(path);
+                    assertEquals(Owen.parse(documents.get(i)), batch.get(path));
+                }
+            }
+
+            assertTrue(batch.hasErrors());
+            assertEquals(elements, new ArrayList<>(batch.getElements().keySet()));
+            assertEquals(errors, new ArrayList<>(batch.getErrors().keySet()));
+            assertNull(batch.get(missing));
+        }
+    }
+
+    @Test
+    public void duplicatePaths() throws IOException, ParseException {
+        Path a = write("a", "a = 1\n");
+        Path b = write("b", "b = 2\n");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            OwenBatch batch = Owen.parseAll(Arrays.asList(b, a, b), executor);
+
+            assertFalse(batch.hasErrors());
+            assertEquals(Arrays.asList(b, a), new ArrayList<>(batch.getElements().keySet()));
+            assertEquals(Owen.parse("a = 1\n"), batch.get(a));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void noPaths() {
+        OwenBatch batch = Owen.parseAll(Collections.emptyList());
+
+        assertFalse(batch.hasErrors());
+        assertTrue(batch.getElements().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveConcurrency() {
+        Owen.parseAll(Collections.emptyList(), ForkJoinPool.commonPool(), 0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unmodifiable() throws IOException {
+        Owen.parseAll(Collections.singletonList(write("a", "a = 1\n"))).getElements().clear();
+    }
+
+    private Path write(String name, String document) throws IOException {
+        return Files.write(this.directory.resolve(name), document.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,153 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BinaryTest {
+    @Test
+    public void roundTrip() throws ParseException {
+        Random random = new Random(7);
+
+        for (String document : Samples.DOCUMENTS) {
+            assertRoundTrip(Owen.parse(document));
+        }
+
+        for (int i = 0; i < 500; ++i) {
+            assertRoundTrip(Owen.parse(Samples.random(random, 4)));
+        }
+    }
+
+    @Test
+    public void roundTripThroughFile() throws IOException, ParseException {
+        Path file = Files.createTempFile("owen-test", ".owenb");
+        OwenElement element = Owen.parse(Samples.DOCUMENTS[2]);
+
+        try {
+            Owen.writeBinary(element, file);
+
+            assertEquals(element, Owen.readBinary(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void directBuffer() throws ParseException {
+        OwenElement element = Owen.parse(Samples.DOCUMENTS[2]);
+        byte[] bytes = Owen.toBinary(element);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+
+        buffer.put(bytes).flip();
+
+        assertEquals(element, Owen.readBinary(buffer));
+    }
+
+    @Test
+    public void notBinary() {
+        assertFails(new byte[0]);
+        assertFails("name = owen\n".getBytes());
+    }
+
+    @Test
+    public void truncated() throws ParseException {
+        byte[] bytes = Owen.toBinary(Owen.parse(Samples.DOCUMENTS[2]));
+
+        for (int length = 0; length < bytes.length; ++length) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+
+            try {
+                decode(Owen.readBinary(truncated));
+                fail("Read " + length + " of " + bytes.length + " bytes");
+            } catch (ParseException e) {
+                // Expected.
+            } catch (RuntimeException e) {
+                assertCannotDecode(e);
+            }
+        }
+    }
+
+    /**
+     * Flipped bytes must either fail with a {@link ParseException}, fail to decode a member lazily, or
+     * read as some other tree, but never throw anything else.
+     */
+    @Test
+    public void corrupted() throws ParseException {
+        Random random = new Random(8);
+
+        for (int i = 0; i < 2000; ++i) {
+            byte[] bytes = Owen.toBinary(Owen.parse(Samples.random(random, 4)));
+
+            bytes[random.nextInt(bytes.length)] ^= 1 << random.nextInt(8);
+
+            final OwenElement element;
+
+            try {
+                element = Owen.readBinary(bytes);
+            } catch (ParseException e) {
+                continue;
+            }
+
+            try {
+                decode(element);
+            } catch (RuntimeException e) {
+                assertCannotDecode(e);
+
+                // An element that failed to decode must not look empty afterwards.
+                try {
+                    decode(element);
+                    fail();
+                } catch (RuntimeException again) {
+                    assertCannotDecode(again);
+                }
+            }
+        }
+    }
+
+    private static void assertRoundTrip(OwenElement element) throws ParseException {
+        byte[] bytes = Owen.toBinary(element);
+
+        assertEquals(element, Owen.readBinary(bytes));
+        assertArrayEquals(bytes, Owen.toBinary(Owen.readBinary(bytes)));
+    }
+
+    private static void assertFails(byte[] bytes) {
+        try {
+            Owen.readBinary(bytes);
+            fail();
+        } catch (ParseException e) {
+            // Expected.
+        }
+    }
+
+    private static void assertCannotDecode(RuntimeException e) {
+        if (e.getMessage() == null || !e.getMessage().startsWith("Cannot decode binary OWEN element")) {
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes everything that is decoded lazily.
+     */
+    private static void decode(OwenElement element) {
+        element.getComments().size();
+
+        if (element.isObject()) {
+            for (OwenElement child : element.asMap().values()) {
+                decode(child);
+            }
+        } else if (element.isArray()) {
+            for (OwenElement child : element.asList()) {
+                decode(child);
+            }
+        }
+    }
+}
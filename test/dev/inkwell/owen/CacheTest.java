@@ -0,0 +1,137 @@
+package dev.inkwell.owen;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import static org.junit.Assert.*;
+
+public class CacheTest {
+    private Path directory;
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        this.directory = Files.createTempDirectory("owen-cache");
+        this.file = this.directory.resolve("cached.owen");
+
+        write("key = first\n");
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(this.file);
+        Files.delete(this.directory);
+    }
+
+    @Test
+    public void hitsUntilModified() throws IOException, ParseException {
+        try (OwenCache cache = new OwenCache.Builder().build()) {
+            OwenDocument document = cache.get(this.file);
+
+            assertSame(document, cache.get(this.file));
+            assertEquals(1, cache.getMisses());
+            assertEquals(1, cache.getHits());
+
+            write("key = second value\n");
+
+            assertEquals("second value", cache.get(this.file).root().get("key").asString());
+            assertEquals(2, cache.getMisses());
+        }
+    }
+
+    @Test
+    public void invalidate() throws IOException, ParseException {
+        try (OwenCache cache = new OwenCache.Builder().build()) {
+            OwenDocument document = cache.get(this.file);
+
+            cache.invalidate(this.file);
+
+            assertNotSame(document, cache.get(this.file));
+            assertEquals(2, cache.getMisses());
+
+            cache.invalidateAll();
+
+            assertEquals(0, cache.getBytes());
+            assertNotSame(document, cache.get(this.file));
+            assertEquals(3, cache.getMisses());
+        }
+    }
+
+    @Test
+    public void evictsOverBudget() throws IOException, ParseException {
+        try (OwenCache cache = new OwenCache.Builder().maxBytes(0).build()) {
+            cache.get(this.file);
+            cache.get(this.file);
+
+            assertEquals(2, cache.getMisses());
+            assertEquals(0, cache.getBytes());
+        }
+    }
+
+    @Test
+    public void retriesAfterFailure() throws IOException, ParseException {
+        write("1 = x\n");
+
+        try (OwenCache cache = new OwenCache.Builder().build()) {
+            try {
+                cache.get(this.file);
+                fail();
+            } catch (ParseException e) {
+                write("key = fixed\n");
+            }
+
+            assertEquals("fixed", cache.get(this.file).root().get("key").asString());
+        }
+    }
+
+    @Test
+    public void watched() throws IOException, ParseException, InterruptedException {
+        try (OwenCache cache = new OwenCache.Builder().watch().build()) {
+            assertEquals("first", cache.get(this.file).root().get("key").asString());
+
+            write("key = second value\n");
+
+            assertEquals("second value", awaitValue(cache, "second value"));
+        }
+    }
+
+    @Test
+    public void checksFilesAfterClose() throws IOException, ParseException {
+        OwenCache cache = new OwenCache.Builder().watch().build();
+
+        cache.get(this.file);
+        cache.close();
+
+        assertEquals("first", cache.get(this.file).root().get("key").asString());
+
+        write("key = second value\n");
+
+        assertEquals("second value", cache.get(this.file).root().get("key").asString());
+    }
+
+    /**
+     * Watch services report changes asynchronously, and some only poll every few seconds.
+     */
+    private String awaitValue(OwenCache cache, String expected) throws IOException, ParseException, InterruptedException {
+        final long deadline = System.nanoTime() + 30_000_000_000L;
+        String value;
+
+        while (!(value = cache.get(this.file).root().get("key").asString()).equals(expected)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        return value;
+    }
+
+    private void write(String document) throws IOException {
+        Files.write(this.file, document.getBytes(StandardCharsets.UTF_8));
+    }
+}
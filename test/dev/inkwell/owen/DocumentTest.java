@@ -0,0 +1,60 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DocumentTest {
+    @Test
+    public void indexedAccess() throws ParseException {
+        StringBuilder builder = new StringBuilder("small = [\n  a\n  b\n]\nlarge = [\n");
+
+        for (int i = 0; i < 100; ++i) {
+            builder.append(i % 10 == 0 ? "  [\n    nested\n  ]\n" : "  " + i + "\n");
+        }
+
+        OwenDocument.Node root = Owen.parseDocument(builder.append("]\n").toString()).root();
+        OwenDocument.Node large = root.get("large");
+
+        assertEquals("b", root.get("small").get(1).asString());
+
+        for (int i = 99; i >= 0; --i) {
+            assertEquals(i % 10 == 0 ? "nested" : String.valueOf(i),
+                    i % 10 == 0 ? large.get(i).get(0).asString() : large.get(i).asString());
+        }
+
+        assertIndexed(root);
+    }
+
+    @Test
+    public void indexedAccessMatchesIteration() throws ParseException {
+        Random random = new Random(11);
+
+        for (int i = 0; i < 200; ++i) {
+            assertIndexed(Owen.parseDocument(Samples.random(random, 4)).root());
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexOutOfBounds() throws ParseException {
+        Owen.parseDocument("list = [\n  a\n]\n").root().get("list").get(1);
+    }
+
+    private static void assertIndexed(OwenDocument.Node node) {
+        if (node.isArray()) {
+            int i = 0;
+
+            for (OwenDocument.Node child : node.asList()) {
+                assertEquals(child.toElement(), node.get(i++).toElement());
+                assertIndexed(child);
+            }
+        } else if (node.isObject()) {
+            for (OwenDocument.Node child : node.asMap().values()) {
+                assertIndexed(child);
+            }
+        }
+    }
+}
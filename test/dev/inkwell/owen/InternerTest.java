@@ -0,0 +1,91 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Interned strings must equal what they stand for, and every lookup must count as either a hit or a miss.
+ */
+public class InternerTest {
+    private static final String DOCUMENT = "list = [\n  {\n    name = same\n  }\n  {\n    name = same\n  }\n]\n";
+
+    @Test
+    public void counts() {
+        OwenInterner.Bounded interner = OwenInterner.bounded(16);
+
+        String first = interner.intern("a key here", 2, 5);
+
+        assertEquals("key", first);
+        assertSame(first, interner.intern("key", 0, 3));
+        assertSame(first, interner.intern(new StringBuilder("key")));
+        assertEquals(2, interner.getHits());
+        assertEquals(1, interner.getMisses());
+        assertEquals(2.0 / 3, interner.getHitRate(), 0);
+
+        interner.resetStatistics();
+
+        assertEquals(0, interner.getHits());
+        assertEquals(0, interner.getMisses());
+        assertEquals(0, interner.getHitRate(), 0);
+    }
+
+    @Test
+    public void longStringsMiss() {
+        OwenInterner.Bounded interner = OwenInterner.bounded(16, 4);
+
+        String first = interner.intern("a longer key", 2, 8);
+
+        assertEquals("longer", first);
+        assertNotSame(first, interner.intern("longer key", 0, 6));
+        assertEquals(0, interner.getHits());
+        assertEquals(2, interner.getMisses());
+    }
+
+    /**
+     * One slot holds whichever string was stored last, so strings that share it replace each other.
+     */
+    @Test
+    public void replacesOnCollision() {
+        OwenInterner.Bounded interner = OwenInterner.bounded(1);
+
+        interner.intern("a");
+        interner.intern("b");
+        interner.intern("a");
+
+        assertEquals(0, interner.getHits());
+        assertEquals(3, interner.getMisses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveCapacity() {
+        OwenInterner.bounded(0);
+    }
+
+    @Test
+    public void sharedByParses() throws ParseException {
+        OwenInterner.Bounded interner = OwenInterner.bounded(64);
+        Owen owen = new Owen.Builder().interner(interner).build();
+
+        OwenElement fromString = owen.read(DOCUMENT);
+        OwenElement fromBytes = owen.read(DOCUMENT.getBytes(StandardCharsets.UTF_8));
+        OwenElement fromReader = owen.read(new StringReader(DOCUMENT));
+
+        assertEquals(Owen.parse(DOCUMENT), fromString);
+        assertEquals(fromString, fromBytes);
+        assertEquals(fromString, fromReader);
+        assertSame(value(fromString, 0), value(fromString, 1));
+        assertSame(value(fromString, 0), value(fromBytes, 0));
+        assertSame(value(fromString, 0), value(fromReader, 1));
+        assertTrue(interner.getHits() > 0);
+        assertTrue(interner.getMisses() > 0);
+    }
+
+    private static String value(OwenElement root, int index) {
+        return root.get("list").get(index).get("name").asString();
+    }
+}
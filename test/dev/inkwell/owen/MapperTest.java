@@ -0,0 +1,235 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Binding from text must give what binding from the parsed tree gives, and writing must give what writing the
+ * encoded tree gives.
+ */
+public class MapperTest {
+    private static final String SERVER = "# ignored\nhost = localhost\nport = 8080\nmode = ACTIVE\nweight = 0.5\n"
+            + "tags = [\n  a\n  b\n  a\n]\nlimits = {\n  cpu = 2\n  memory = 512\n}\nports = [\n  1\n  2\n]\n"
+            + "unknown = {\n  nested = [\n    x\n  ]\n}\nchild = {\n  host = inner\n  enabled = false\n}\n";
+
+    private final OwenMapper mapper = new OwenMapper();
+
+    public enum Mode {
+        ACTIVE, PASSIVE
+    }
+
+    public static class Server {
+        public String host;
+        public Mode mode = Mode.PASSIVE;
+        public List<String> tags;
+        public Map<String, Integer> limits;
+        public int[] ports;
+        public Server child;
+
+        private int port;
+        private double weight;
+        private boolean enabled = true;
+
+        public int getPort() {
+            return this.port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public double getWeight() {
+            return this.weight;
+        }
+
+        public void setWeight(double weight) {
+            this.weight = weight;
+        }
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Containers {
+        public Set<String> set;
+        public SortedSet<String> sorted;
+        public Deque<Integer> deque;
+        public List<List<String>> nested;
+        public Map<String, BigDecimal> decimals;
+        public Object dynamic;
+    }
+
+    public static class Keyed {
+        public Map<Integer, String> map;
+    }
+
+    @Test
+    public void beans() throws ParseException {
+        Server server = bind(SERVER, Server.class);
+
+        assertEquals("localhost", server.host);
+        assertEquals(8080, server.getPort());
+        assertEquals(Mode.ACTIVE, server.mode);
+        assertEquals(0.5, server.getWeight(), 0);
+        assertTrue(server.isEnabled());
+        assertEquals(Arrays.asList("a", "b", "a"), server.tags);
+        assertEquals(Arrays.asList("cpu", "memory"), new ArrayList<>(server.limits.keySet()));
+        assertEquals(Integer.valueOf(512), server.limits.get("memory"));
+        assertArrayEquals(new int[] {1, 2}, server.ports);
+        assertEquals("inner", server.child.host);
+        assertEquals(Mode.PASSIVE, server.child.mode);
+        assertFalse(server.child.isEnabled());
+        assertNull(server.child.child);
+    }
+
+    @Test
+    public void collections() throws ParseException {
+        Containers collections = bind("set = [\n  b\n  a\n  b\n]\nsorted = [\n  b\n  a\n]\ndeque = [\n  3\n  1\n]\n"
+                + "nested = [\n  [\n    x\n  ]\n  [\n    y\n  ]\n]\ndecimals = {\n  pi = 3.14159\n}\n"
+                + "dynamic = {\n  list = [\n    1\n  ]\n  text = t\n}\n", Containers.class);
+
+        assertEquals(LinkedHashSet.class, collections.set.getClass());
+        assertEquals(Arrays.asList("b", "a"), new ArrayList<>(collections.set));
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(collections.sorted));
+        assertEquals(Arrays.asList(3, 1), new ArrayList<>(collections.deque));
+        assertEquals(Arrays.asList(Collections.singletonList("x"), Collections.singletonList("y")), collections.nested);
+        assertEquals(new BigDecimal("3.14159"), collections.decimals.get("pi"));
+
+        Map<String, Object> dynamic = new LinkedHashMap<>();
+
+        dynamic.put("list", Collections.singletonList("1"));
+        dynamic.put("text", "t");
+
+        assertEquals(dynamic, collections.dynamic);
+    }
+
+    @Test
+    public void writing() throws IOException, ParseException {
+        Server server = bind(SERVER, Server.class);
+        String written = this.mapper.toString(server);
+        StringWriter writer = new StringWriter();
+
+        this.mapper.write(server, writer);
+
+        assertEquals(new Owen.Builder().build().toString(this.mapper.toElement(server)), written);
+        assertEquals(written, writer.toString());
+        assertFalse(written.contains("unknown"));
+        assertEquals(written, this.mapper.toString(bind(written, Server.class)));
+    }
+
+    @Test
+    public void paths() throws IOException, ParseException {
+        Path path = Files.createTempFile("owen", ".owen");
+
+        try {
+            Files.write(path, SERVER.getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(this.mapper.toString(bind(SERVER, Server.class)), this.mapper.toString(this.mapper.read(path, Server.class)));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void mismatches() {
+        String[] documents = {"mode = OTHER\n", "port = {\n  a = b\n}\n", "child = value\n", "tags = {\n  a = b\n}\n"};
+
+        for (String document : documents) {
+            try {
+                this.mapper.fromString(document, Server.class);
+                fail(document);
+            } catch (RuntimeException | ParseException e) {
+                assertTrue(document, e.getMessage().startsWith("Cannot bind "));
+            }
+
+            try {
+                this.mapper.fromElement(Owen.parse(document), Server.class);
+                fail(document);
+            } catch (RuntimeException | ParseException e) {
+                assertTrue(document, e.getMessage().startsWith("Cannot bind "));
+            }
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void nonStringKeys() throws ParseException {
+        this.mapper.fromString("map = {\n  1 = a\n}\n", Keyed.class);
+    }
+
+    /**
+     * Records cannot be declared while the library targets Java 8, so one is compiled when the runtime has them.
+     */
+    @Test
+    public void records() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        if (compiler == null || !hasRecords()) {
+            return;
+        }
+
+        Path directory = Files.createTempDirectory("owen");
+        Path source = directory.resolve("Point.java");
+
+        Files.write(source, "public record Point(int x, String name, java.util.List<Integer> values) {}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(0, compiler.run(null, null, null, "-d", directory.toString(), source.toString()));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {directory.toUri().toURL()})) {
+            Class<?> type = loader.loadClass("Point");
+            Object point = bind("name = p\nvalues = [\n  2\n  3\n]\nother = x\n", type);
+
+            assertEquals(0, type.getMethod("x").invoke(point));
+            assertEquals("p", type.getMethod("name").invoke(point));
+            assertEquals(Arrays.asList(2, 3), type.getMethod("values").invoke(point));
+            assertEquals(point, bind(this.mapper.toString(point), type));
+            assertEquals(Owen.parse("x = 0\nname = p\nvalues = [\n  2\n  3\n]\n"), this.mapper.toElement(point));
+        } finally {
+            for (String file : new String[] {"Point.java", "Point.class"}) {
+                Files.deleteIfExists(directory.resolve(file));
+            }
+
+            Files.delete(directory);
+        }
+    }
+
+    private static boolean hasRecords() {
+        try {
+            Class.class.getMethod("isRecord");
+
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Binds a document both from text and from its tree, and checks that the two agree by writing them.
+     */
+    private <T> T bind(String document, Class<T> type) throws ParseException {
+        T fromText = this.mapper.fromString(document, type);
+        T fromTree = this.mapper.fromElement(Owen.parse(document), type);
+
+        assertEquals(document, this.mapper.toString(fromTree), this.mapper.toString(fromText));
+
+        return fromText;
+    }
+}
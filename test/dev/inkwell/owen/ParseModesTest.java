@@ -0,0 +1,196 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Every way of parsing text must build the same tree as the default fused parser, and fail alike.
+ */
+public class ParseModesTest {
+    private static final String[] INVALID = {
+            "1 = x\n",
+            "key\n",
+            "key = [\n",
+            "key = {\n  a = b\n",
+            "key = a\\q\n",
+            "key = a\\",
+            "key = [\n  x\n}\n",
+            "k-1 =[\n  ",
+            "é\n",
+            "key = [\n  {\n    a = b\n",
+            "key = [\n  value\\\n",
+    };
+
+    private static List<String> documents() {
+        List<String> documents = new ArrayList<>(Arrays.asList(Samples.DOCUMENTS));
+        Random random = new Random(1);
+
+        for (int i = 0; i < 300; ++i) {
+            documents.add(Samples.random(random, 4));
+        }
+
+        return documents;
+    }
+
+    @Test
+    public void tokenized() throws ParseException {
+        Owen owen = new Owen.Builder().parseMode(Owen.ParseMode.TOKENIZED).build();
+
+        for (String document : documents()) {
+            assertEquals(document, Owen.parse(document), owen.read(document));
+        }
+    }
+
+    @Test
+    public void lazy() throws ParseException {
+        Owen owen = new Owen.Builder().parseMode(Owen.ParseMode.LAZY).build();
+
+        for (String document : documents()) {
+            assertEquals(document, Owen.parse(document), owen.read(document));
+        }
+    }
+
+    @Test
+    public void parallel() throws ParseException {
+        Owen owen = new Owen.Builder().parseMode(Owen.ParseMode.PARALLEL).build();
+
+        for (String document : documents()) {
+            assertEquals(document, Owen.parse(document), owen.read(document));
+            assertEquals(document, Owen.parse(document), Owen.parseParallel(document, ForkJoinPool.commonPool()));
+        }
+    }
+
+    @Test
+    public void document() throws ParseException {
+        for (String document : documents()) {
+            assertEquals(document, Owen.parse(document), Owen.parseDocument(document).toElement());
+        }
+    }
+
+    @Test
+    public void utf8() throws ParseException {
+        for (String document : documents()) {
+            OwenElement expected = Owen.parse(document);
+            byte[] bytes = document.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+
+            direct.put(bytes).flip();
+
+            assertEquals(document, expected, Owen.parse(bytes));
+            assertEquals(document, expected, Owen.parse(ByteBuffer.wrap(bytes)));
+            assertEquals(document, expected, Owen.parse(direct));
+        }
+    }
+
+    @Test
+    public void utf8LeavesBufferPosition() throws ParseException {
+        byte[] bytes = "skip\nkey = value\n".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        buffer.position(5);
+
+        assertEquals(Owen.object("key", "value"), Owen.parse(buffer));
+        assertEquals(5, buffer.position());
+    }
+
+    @Test
+    public void readerAndPath() throws IOException, ParseException {
+        Path file = Files.createTempFile("owen-test", ".owen");
+
+        try {
+            for (String document : documents()) {
+                Files.write(file, document.getBytes(StandardCharsets.UTF_8));
+
+                assertEquals(document, Owen.parse(document), Owen.parse(new StringReader(document)));
+                assertEquals(document, Owen.parse(document), Owen.parse(file));
+
+                for (Owen.ParseMode mode : Owen.ParseMode.values()) {
+                    assertEquals(document, Owen.parse(document), new Owen.Builder().parseMode(mode).build().read(file));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void skippingComments() throws ParseException {
+        Owen owen = new Owen.Builder().skipComments().build();
+
+        for (String document : documents()) {
+            OwenElement expected = withoutComments(Owen.parse(document));
+
+            assertEquals(document, expected, owen.read(document));
+            assertEquals(document, expected, owen.read(document.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Test
+    public void invalidInputFailsAlike() {
+        Owen tokenized = new Owen.Builder().parseMode(Owen.ParseMode.TOKENIZED).build();
+        Owen lazy = new Owen.Builder().parseMode(Owen.ParseMode.LAZY).build();
+
+        for (String document : INVALID) {
+            ParseException expected = failure(() -> Owen.parse(document));
+
+            assertNotNull(document, expected);
+
+            for (Parse parse : new Parse[] {
+                    () -> tokenized.read(document),
+                    () -> lazy.read(document),
+                    () -> Owen.parse(document.getBytes(StandardCharsets.UTF_8)),
+                    () -> Owen.tryParse(document).getOrThrow(),
+                    () -> Owen.parseDocument(document),
+            }) {
+                ParseException actual = failure(parse);
+
+                assertNotNull(document, actual);
+                assertEquals(document, expected.getMessage(), actual.getMessage());
+                assertEquals(document, expected.getErrorOffset(), actual.getErrorOffset());
+            }
+        }
+    }
+
+    private static OwenElement withoutComments(OwenElement element) {
+        element.getComments().clear();
+
+        if (element.isObject()) {
+            for (OwenElement child : element.asMap().values()) {
+                withoutComments(child);
+            }
+        } else if (element.isArray()) {
+            for (OwenElement child : element.asList()) {
+                withoutComments(child);
+            }
+        }
+
+        return element;
+    }
+
+    private static ParseException failure(Parse parse) {
+        try {
+            parse.run();
+            return null;
+        } catch (ParseException e) {
+            return e;
+        }
+    }
+
+    private interface Parse {
+        void run() throws ParseException;
+    }
+}
@@ -0,0 +1,129 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Trying to parse must find the error that parsing throws first, place every error at its line and column, and
+ * recover from each.
+ */
+public class ParseResultTest {
+    @Test
+    public void valid() throws ParseException {
+        Random random = new Random(21);
+
+        for (int i = 0; i < 200; ++i) {
+            String document = i < Samples.DOCUMENTS.length ? Samples.DOCUMENTS[i] : Samples.random(random, 4);
+            OwenParseResult result = Owen.tryParse(document);
+
+            assertTrue(document, result.isValid());
+            assertEquals(document, Owen.parse(document), result.getOrThrow());
+        }
+    }
+
+    @Test
+    public void recovery() {
+        OwenParseResult result = Owen.tryParse("a = 1\n1 = x\nb = 2\nc = {\n  d = 3\n  2 = y\n  e = 4\n}\nf = 5\n");
+
+        assertFalse(result.isValid());
+        assertEquals(Arrays.asList("2:1: Identifier must start with alphabetic character",
+                "6:3: Identifier must start with alphabetic character"), strings(result.getErrors()));
+        assertEquals(Owen.object("a", Owen.literal("1"), "b", Owen.literal("2"),
+                "c", Owen.object("d", "3", "e", "4"), "f", Owen.literal("5")), result.getElement());
+    }
+
+    @Test
+    public void positions() {
+        OwenParseResult result = Owen.tryParse("a = b\\q\nc = [\n  x\n");
+        List<OwenParseResult.ParseError> errors = result.getErrors();
+
+        assertEquals(Arrays.asList("1:7: Unexpected escaped token 'q'", "4:1: Expected ']'. Found 'EOF'"), strings(errors));
+        assertEquals(6, errors.get(0).getOffset());
+        assertEquals(18, errors.get(1).getOffset());
+    }
+
+    @Test
+    public void maxErrors() {
+        String document = "1 = a\n2 = b\n3 = c\n";
+
+        assertEquals(3, Owen.tryParse(document).getErrors().size());
+        assertEquals(2, Owen.tryParse(document, 2).getErrors().size());
+        assertEquals("1:1: Identifier must start with alphabetic character", Owen.tryParse(document, 1).getErrors().get(0).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveMaxErrors() {
+        Owen.tryParse("", 0);
+    }
+
+    /**
+     * Lines are inserted into random documents, which breaks them wherever a key is expected. Errors are in
+     * order, but several may be found at the end of the input, one for each compound left open.
+     */
+    @Test
+    public void randomErrors() {
+        Random random = new Random(21);
+        String[] broken = {"1 = x\n", "key = a\\q\n", "}\n", "key = [\n", "key\n"};
+        int errors = 0;
+
+        for (int i = 0; i < 500; ++i) {
+            StringBuilder builder = new StringBuilder(Samples.random(random, 3));
+
+            for (int j = random.nextInt(3) + 1; j > 0; --j) {
+                int line = builder.lastIndexOf("\n", random.nextInt(builder.length() + 1)) + 1;
+
+                builder.insert(line, broken[random.nextInt(broken.length)]);
+            }
+
+            String document = builder.toString();
+            OwenParseResult result = Owen.tryParse(document);
+
+            try {
+                assertEquals(document, Owen.parse(document), result.getOrThrow());
+                assertTrue(document, result.isValid());
+            } catch (ParseException e) {
+                OwenParseResult.ParseError first = result.getErrors().get(0);
+
+                assertEquals(document, e.getErrorOffset(), first.getOffset());
+                assertEquals(document, e.getMessage(), first.getMessage());
+            }
+
+            int previous = -1;
+
+            for (OwenParseResult.ParseError error : result.getErrors()) {
+                int lineStart = document.lastIndexOf('\n', error.getOffset() - 1) + 1;
+                int line = 1;
+
+                for (int k = 0; k < lineStart; ++k) {
+                    if (document.charAt(k) == '\n') ++line;
+                }
+
+                assertTrue(document, error.getOffset() >= previous);
+                assertEquals(document, line, error.getLine());
+                assertEquals(document, document.codePointCount(lineStart, error.getOffset()) + 1, error.getColumn());
+
+                previous = error.getOffset();
+            }
+
+            errors += result.getErrors().size();
+        }
+
+        assertTrue(errors > 500);
+    }
+
+    private static List<String> strings(List<OwenParseResult.ParseError> errors) {
+        String[] strings = new String[errors.size()];
+
+        for (int i = 0; i < strings.length; ++i) {
+            strings[i] = errors.get(i).toString();
+        }
+
+        return Arrays.asList(strings);
+    }
+}
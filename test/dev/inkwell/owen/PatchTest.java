@@ -0,0 +1,163 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * Patches must turn the tree they were computed from into the other one, also after either was changed in place.
+ */
+public class PatchTest {
+    private static final String NESTED = Samples.DOCUMENTS[2];
+
+    @Test
+    public void randomPairs() throws ParseException {
+        Random random = new Random(5);
+
+        for (int i = 0; i < 500; ++i) {
+            String from = Samples.random(random, 3);
+            String to = Samples.random(random, 3);
+
+            assertRoundTrip(from, Owen.parse(to));
+        }
+    }
+
+    @Test
+    public void equalTreesHaveEmptyPatches() throws ParseException {
+        Random random = new Random(6);
+
+        for (int i = 0; i < 200; ++i) {
+            String document = Samples.random(random, 4);
+
+            assertTrue(document, Owen.diff(Owen.parse(document), Owen.parse(document)).isEmpty());
+        }
+    }
+
+    /**
+     * Views are taken before the trees are diffed and changed afterwards, so that the change goes through them.
+     */
+    @Test
+    public void mutationThroughViews() throws ParseException {
+        edit(root -> {
+            List<OwenElement> tags = root.get("server").get("tags").asList();
+
+            return () -> tags.set(0, Owen.literal("z"));
+        });
+        edit(root -> {
+            List<OwenElement> tags = root.get("server").get("tags").asList();
+
+            return () -> tags.add(Owen.literal("c"));
+        });
+        edit(root -> {
+            List<OwenElement> tags = root.get("server").get("tags").asList();
+
+            return () -> tags.remove(1);
+        });
+        edit(root -> {
+            List<OwenElement> tags = root.get("server").get("tags").asList();
+
+            return () -> tags.subList(0, 2).clear();
+        });
+        edit(root -> {
+            Iterator<OwenElement> iterator = root.get("server").get("tags").asList().iterator();
+
+            return () -> {
+                iterator.next();
+                iterator.remove();
+            };
+        });
+        edit(root -> {
+            List<OwenElement> packed = root.get("server").get("tags").get(3).asList();
+
+            return () -> packed.add(Owen.literal("y"));
+        });
+        edit(root -> {
+            OwenElement unpacked = root.get("server").get("tags").get(3).get(0);
+
+            return () -> unpacked.setLiteralValue("y");
+        });
+        edit(root -> {
+            Map<String, OwenElement> deep = root.get("server").get("tags").get(2).asMap();
+
+            return () -> deep.put("deep", Owen.literal("no"));
+        });
+        edit(root -> {
+            Map<String, OwenElement> server = root.get("server").asMap();
+
+            return () -> server.put("port", Owen.literal("9"));
+        });
+        edit(root -> {
+            Map<String, OwenElement> server = root.get("server").asMap();
+
+            return () -> server.remove("host");
+        });
+        edit(root -> {
+            Map.Entry<String, OwenElement> host = root.get("server").asMap().entrySet().iterator().next();
+
+            return () -> host.setValue(Owen.literal("remote"));
+        });
+        edit(root -> {
+            Iterator<Map.Entry<String, OwenElement>> iterator = root.get("server").asMap().entrySet().iterator();
+
+            return () -> {
+                iterator.next();
+                iterator.remove();
+            };
+        });
+        edit(root -> {
+            List<String> comments = root.get("server").get("port").getComments();
+
+            return () -> comments.add("changed");
+        });
+        edit(root -> {
+            List<String> comments = root.getComments();
+
+            return () -> comments.clear();
+        });
+    }
+
+    @Test
+    public void sharedChildren() throws ParseException {
+        OwenElement shared = Owen.object("key", "value");
+        OwenElement edited = Owen.object("a", shared, "b", shared);
+        OwenElement original = Owen.object("a", Owen.object("key", "value"), "b", Owen.object("key", "value"));
+
+        assertTrue(Owen.diff(original, edited).isEmpty());
+
+        shared.asMap().put("key", Owen.literal("other"));
+
+        assertNotEquals(original, edited);
+        assertEquals(edited, Owen.diff(original, edited).apply(Owen.object("a", Owen.object("key", "value"),
+                "b", Owen.object("key", "value"))));
+    }
+
+    /**
+     * Prepares an edit, diffs the tree, and then makes the edit, which the next diff must find.
+     */
+    private static void edit(Function<OwenElement, Runnable> edit) throws ParseException {
+        OwenElement original = Owen.parse(NESTED);
+        OwenElement edited = Owen.parse(NESTED);
+        Runnable change = edit.apply(edited);
+
+        assertTrue(Owen.diff(original, edited).isEmpty());
+
+        change.run();
+
+        assertNotEquals(original, edited);
+        assertFalse(Owen.diff(original, edited).isEmpty());
+        assertRoundTrip(NESTED, edited);
+    }
+
+    private static void assertRoundTrip(String from, OwenElement to) throws ParseException {
+        OwenPatch patch = Owen.diff(Owen.parse(from), to);
+
+        assertEquals(patch.toString(), to, patch.apply(Owen.parse(from)));
+    }
+}
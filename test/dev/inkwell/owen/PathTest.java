@@ -0,0 +1,137 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Selecting from source text or a reader must find what selecting from the parsed tree finds.
+ */
+public class PathTest {
+    private static final String NESTED = Samples.DOCUMENTS[2];
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noPaths() {
+        Owen.compilePath();
+    }
+
+    @Test
+    public void invalidPaths() {
+        for (String path : new String[] {"", "a..b", "a.", "a[", "a[x]", "[1"}) {
+            try {
+                Owen.compilePath("valid", path);
+                fail(path);
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid path '" + path + "'"));
+            }
+        }
+    }
+
+    @Test
+    public void exact() throws IOException, ParseException {
+        Map<String, List<String>> selected = select(NESTED, "server.port", "server.tags[2].deep", "server['host']", "server.tags[9]", "none");
+
+        assertEquals(Collections.singletonList("8080"), selected.get("server.port"));
+        assertEquals(Collections.singletonList("yes"), selected.get("server.tags[2].deep"));
+        assertEquals(Collections.singletonList("localhost"), selected.get("server['host']"));
+        assertEquals(Collections.emptyList(), selected.get("server.tags[9]"));
+        assertEquals(Collections.emptyList(), selected.get("none"));
+    }
+
+    @Test
+    public void wildcards() throws IOException, ParseException {
+        Map<String, List<String>> selected = select(NESTED, "server.*", "server.tags[*]", "*.tags[3][*]", "*");
+
+        assertEquals(Arrays.asList("localhost", "8080", "ARRAY"), selected.get("server.*"));
+        assertEquals(Arrays.asList("a", "b", "OBJECT", "ARRAY"), selected.get("server.tags[*]"));
+        assertEquals(Collections.singletonList("x"), selected.get("*.tags[3][*]"));
+        assertEquals(Arrays.asList("owen", "1.0", "OBJECT", "EMPTY", "EMPTY", "x"), selected.get("*"));
+    }
+
+    /**
+     * Exact paths see the last of duplicated keys, as the tree keeps it.
+     */
+    @Test
+    public void duplicateKeys() throws IOException, ParseException {
+        assertEquals(Collections.singletonList("2"), select(Samples.DOCUMENTS[6], "dup").get("dup"));
+        assertEquals(Collections.singletonList("2"), select("a = {\n  x = 1\n  x = 2\n}\n", "a.x").get("a.x"));
+
+        Map<String, List<String>> selected = select("a = [\n  1\n  2\n]\na = [\n  3\n]\n", "a[0]", "a[1]");
+
+        assertEquals(Collections.singletonList("3"), selected.get("a[0]"));
+        assertEquals(Collections.emptyList(), selected.get("a[1]"));
+    }
+
+    /**
+     * Once every exact path has matched and the objects holding the matches have closed, the rest of the input
+     * is left unread, and so are its errors.
+     */
+    @Test
+    public void stopsEarly() throws IOException, ParseException {
+        String text = "a = {\n  x = 1\n}\n1 = malformed\n";
+        OwenPath path = Owen.compilePath("a.x");
+
+        assertEquals("1", path.select(text).get("a.x").get(0).asString());
+        assertEquals("1", path.select(new StringReader(text)).get("a.x").get(0).asString());
+    }
+
+    /**
+     * A member of the root could be repeated anywhere after it, so all of the input is read.
+     */
+    @Test(expected = ParseException.class)
+    public void readsOnForRootMembers() throws ParseException {
+        Owen.compilePath("a").select("a = 1\n1 = malformed\n");
+    }
+
+    @Test
+    public void randomDocuments() throws IOException, ParseException {
+        Random random = new Random(9);
+
+        for (int i = 0; i < 300; ++i) {
+            String document = Samples.random(random, 3);
+
+            select(document, "key0", "kéy0", "key1", "key2[0]", "kéy3.key0", "key4[*]");
+        }
+    }
+
+    /**
+     * @return the matches of each path, as literals or the types of other elements, which must be the same for
+     * the tree, the text and a reader
+     */
+    private static Map<String, List<String>> select(String document, String... paths) throws IOException, ParseException {
+        OwenPath path = Owen.compilePath(paths);
+        Map<String, List<String>> tree = strings(path.select(Owen.parse(document)));
+
+        assertEquals(document, tree, strings(path.select(document)));
+        assertEquals(document, tree, strings(path.select(new StringReader(document))));
+
+        return tree;
+    }
+
+    private static Map<String, List<String>> strings(Map<String, List<OwenElement>> selected) {
+        Map<String, List<String>> strings = new LinkedHashMap<>();
+
+        for (Map.Entry<String, List<OwenElement>> entry : selected.entrySet()) {
+            List<String> list = new ArrayList<>();
+
+            for (OwenElement element : entry.getValue()) {
+                list.add(element.isLiteral() ? element.asString() : element.getType().toString());
+            }
+
+            strings.put(entry.getKey(), list);
+        }
+
+        return strings;
+    }
+}
@@ -0,0 +1,125 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The primitive parsers must accept and reject exactly what the JDK's parsers do, and return the same values.
+ */
+public class PrimitivesTest {
+    private static final String[] INTEGERS = {
+            "0", "-0", "+0", "1", "-1", "+1", "007", "42", "-42", "2147483647", "-2147483648", "2147483648",
+            "-2147483649", "9223372036854775807", "-9223372036854775808", "9223372036854775808",
+            "-9223372036854775809", "99999999999999999999", "", "-", "+", "--1", "+-1", "1-", " 1", "1 ", "1.0",
+            "1e3", "0x10", "abc", "١٢٣", "-١٢٣", "１２",
+    };
+
+    private static final String[] DOUBLES = {
+            "0", "-0", "0.0", "-0.0", "1", "1.5", "-1.5", "+1.5", ".5", "5.", "1e10", "1E10", "1e-10", "1e+10",
+            "123456789012345", "1234567890123456", "12345678901234567890", "0.1", "0.2", "0.3", "3.14159",
+            "2.2250738585072014E-308", "4.9e-324", "1.7976931348623157e308", "1e309", "1e-400", "1e22", "1e23",
+            "9007199254740993", "0.000001", "1e-7", " 1.5 ", "\t2\n", "NaN", "-Infinity", "Infinity", "+NaN",
+            "1d", "1f", "1.5D", "0x1p3", "0x1.8p1", "", " ", ".", "-", "e5", "1e", "1e+", "1.5.5", "1,5", "abc",
+            "١", "00000000000000000000001.5", "1.00000000000000000000", "0.00000000000000000000000001",
+    };
+
+    @Test
+    public void integers() {
+        for (String string : INTEGERS) {
+            assertSameInt(string);
+            assertSameLong(string);
+        }
+    }
+
+    @Test
+    public void randomIntegers() {
+        Random random = new Random(9);
+
+        for (int i = 0; i < 100_000; ++i) {
+            long value = random.nextLong() >> random.nextInt(64);
+
+            assertSameInt(Long.toString(value));
+            assertSameLong(Long.toString(value));
+        }
+    }
+
+    @Test
+    public void doubles() {
+        for (String string : DOUBLES) {
+            assertSameDouble(string);
+        }
+    }
+
+    @Test
+    public void randomDoubles() {
+        Random random = new Random(10);
+
+        for (int i = 0; i < 100_000; ++i) {
+            assertSameDouble(Double.toString(Double.longBitsToDouble(random.nextLong())));
+            assertSameDouble(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)));
+            assertSameDouble((random.nextBoolean() ? "-" : "") + random.nextInt(1_000_000) + "."
+                    + random.nextInt(1_000_000_000) + (random.nextBoolean() ? "e" + (random.nextInt(40) - 20) : ""));
+        }
+    }
+
+    @Test
+    public void ranges() {
+        assertEquals(123, OwenPrimitives.parseInt("x=123;", 2, 5));
+        assertEquals(-123L, OwenPrimitives.parseLong("x=-123;", 2, 6));
+        assertEquals(1.5, OwenPrimitives.parseDouble("x=1.5;", 2, 5), 0);
+        assertTrue(OwenPrimitives.parseBoolean("x=true;", 2, 6));
+        assertFalse(OwenPrimitives.parseBoolean("x=false;", 2, 7));
+    }
+
+    private static void assertSameInt(String string) {
+        Integer expected;
+
+        try {
+            expected = Integer.parseInt(string);
+        } catch (NumberFormatException e) {
+            expected = null;
+        }
+
+        try {
+            assertEquals(string, expected, (Integer) OwenPrimitives.parseInt(string, 0, string.length()));
+        } catch (NumberFormatException e) {
+            assertNull(string, expected);
+        }
+    }
+
+    private static void assertSameLong(String string) {
+        Long expected;
+
+        try {
+            expected = Long.parseLong(string);
+        } catch (NumberFormatException e) {
+            expected = null;
+        }
+
+        try {
+            assertEquals(string, expected, (Long) OwenPrimitives.parseLong(string, 0, string.length()));
+        } catch (NumberFormatException e) {
+            assertNull(string, expected);
+        }
+    }
+
+    private static void assertSameDouble(String string) {
+        Double expected;
+
+        try {
+            expected = Double.parseDouble(string);
+        } catch (NumberFormatException e) {
+            expected = null;
+        }
+
+        try {
+            // Boxed, so that the bits are compared and -0.0 and NaN count.
+            assertEquals(string, expected, (Double) OwenPrimitives.parseDouble(string, 0, string.length()));
+        } catch (NumberFormatException e) {
+            assertNull(string, expected);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The events of a document must not depend on how the input is buffered, and must build the tree the parser builds.
+ */
+public class ReaderTest {
+    private static final String DOCUMENT = "# top\nname = owen\nserver = {\n  port = 1\n  # tags\n  tags = [\n    a\n    {\n    }\n  ]\n}\n"
+            + "empty =\n";
+
+    @Test
+    public void events() throws IOException, ParseException {
+        List<String> expected = Arrays.asList("COMMENT top 0", "START_OBJECT 1", "KEY name 1", "VALUE owen 1", "KEY server 1",
+                "START_OBJECT 2", "KEY port 2", "VALUE 1 2", "COMMENT tags 2", "KEY tags 2", "START_ARRAY 3", "VALUE a 3",
+                "START_OBJECT 4", "END_OBJECT 3", "END_ARRAY 2", "END_OBJECT 1", "KEY empty 1", "VALUE  1", "END_OBJECT 0",
+                "END_DOCUMENT 0");
+
+        for (int bufferSize : new int[] {1, 3, 16, OwenReader.DEFAULT_BUFFER_SIZE}) {
+            assertEquals(expected, events(new OwenReader(new StringReader(DOCUMENT), bufferSize)));
+        }
+    }
+
+    @Test
+    public void skipValue() throws IOException, ParseException {
+        OwenReader reader = new OwenReader(new StringReader(DOCUMENT), 3);
+
+        while (reader.next() != OwenReader.Event.KEY || !reader.getString().equals("server")) ;
+
+        reader.skipValue();
+
+        assertEquals(OwenReader.Event.KEY, reader.next());
+        assertEquals("empty", reader.getString());
+        assertEquals(1, reader.getDepth());
+
+        reader.skipValue();
+
+        assertEquals(OwenReader.Event.END_OBJECT, reader.next());
+    }
+
+    @Test
+    public void skipStartedArray() throws IOException, ParseException {
+        OwenReader reader = new OwenReader(new StringReader(DOCUMENT));
+
+        while (reader.next() != OwenReader.Event.START_ARRAY) ;
+
+        reader.skipValue();
+
+        assertEquals(OwenReader.Event.END_ARRAY, reader.getEvent());
+        assertEquals(2, reader.getDepth());
+        assertEquals(OwenReader.Event.END_OBJECT, reader.next());
+    }
+
+    @Test
+    public void readDocument() throws IOException, ParseException {
+        Random random = new Random(8);
+
+        for (int i = 0; i < 300; ++i) {
+            String document = i < Samples.DOCUMENTS.length ? Samples.DOCUMENTS[i] : Samples.random(random, 4);
+
+            for (int bufferSize : new int[] {1, 7, OwenReader.DEFAULT_BUFFER_SIZE}) {
+                assertEquals(document, Owen.parse(document), new OwenReader(new StringReader(document), bufferSize).readDocument());
+            }
+        }
+    }
+
+    @Test
+    public void offset() throws IOException, ParseException {
+        OwenReader reader = new OwenReader(new StringReader(DOCUMENT), 5);
+
+        while (reader.next() != OwenReader.Event.END_DOCUMENT) {
+            assertTrue(reader.getOffset() <= DOCUMENT.length());
+        }
+
+        assertEquals(DOCUMENT.length(), reader.getOffset());
+    }
+
+    @Test(expected = ParseException.class)
+    public void unclosedObject() throws IOException, ParseException {
+        new OwenReader(new StringReader("key = {\n  a = b\n"), 4).readDocument();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noText() throws IOException, ParseException {
+        OwenReader reader = new OwenReader(new StringReader(DOCUMENT));
+
+        while (reader.next() != OwenReader.Event.START_OBJECT) ;
+
+        reader.getString();
+    }
+
+    private static List<String> events(OwenReader reader) throws IOException, ParseException {
+        List<String> events = new ArrayList<>();
+        OwenReader.Event event;
+
+        do {
+            event = reader.next();
+            events.add(event + (event.hasText ? " " + reader.getString() : "") + " " + reader.getDepth());
+        } while (event != OwenReader.Event.END_DOCUMENT);
+
+        return events;
+    }
+}
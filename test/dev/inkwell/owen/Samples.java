@@ -0,0 +1,97 @@
+package dev.inkwell.owen;
+
+import java.util.Random;
+
+/**
+ * Documents shared by the tests: a few written out, and random ones covering every construct of the grammar.
+ */
+final class Samples {
+    static final String[] DOCUMENTS = {
+            "",
+            "name = owen\n",
+            "# top\nname = owen\nversion = 1.0\n\n# nested\nserver = {\n  host = localhost\n  # the port\n  port = 8080\n"
+                    + "  tags = [\n    a\n    # second\n    b\n    {\n      deep = yes\n    }\n    [\n      x\n    ]\n  ]\n}\n"
+                    + "empty = {}\nlist = []\nafter = x\n",
+            "escaped = tab\\tnew\\nline\\\\slash\ncontinued = one\\\n two\nunicode = héllo 中 😀\n",
+            "a = {\n  b = {\n    c = [\n      [\n        {\n          d = e\n        }\n      ]\n    ]\n  }\n}\n",
+            "spaced   =   value with spaces   \ntabbed\t=\tvalue\nempty =\nlast = no newline",
+            "dup = 1\ndup = 2\n# trailing comment\n",
+    };
+
+    private static final String[] WORDS = {"alpha", "beta", "1", "-2.5", "true", "x y", "été", "中", "😀"};
+    private static final String[] ESCAPES = {"\\n", "\\t", "\\\\", "\\r"};
+
+    private Samples() {
+    }
+
+    /**
+     * @return a valid document whose compounds nest at most the given depth
+     */
+    static String random(Random random, int depth) {
+        StringBuilder builder = new StringBuilder();
+
+        members(random, builder, depth, "");
+
+        return builder.toString();
+    }
+
+    private static void members(Random random, StringBuilder builder, int depth, String indent) {
+        final int count = random.nextInt(6);
+
+        for (int i = 0; i < count; ++i) {
+            comments(random, builder, indent);
+            builder.append(indent).append(key(random, i)).append(random.nextBoolean() ? " = " : "=");
+            value(random, builder, depth, indent);
+        }
+    }
+
+    private static void elements(Random random, StringBuilder builder, int depth, String indent) {
+        final int count = random.nextInt(6);
+
+        for (int i = 0; i < count; ++i) {
+            comments(random, builder, indent);
+            builder.append(indent);
+            value(random, builder, depth, indent);
+        }
+    }
+
+    private static void value(Random random, StringBuilder builder, int depth, String indent) {
+        final int kind = depth > 0 ? random.nextInt(5) : 0;
+
+        if (kind == 3) {
+            builder.append("{\n");
+            members(random, builder, depth - 1, indent + "  ");
+            builder.append(indent).append("}\n");
+        } else if (kind == 4) {
+            builder.append("[\n");
+            elements(random, builder, depth - 1, indent + "  ");
+            builder.append(indent).append("]\n");
+        } else {
+            literal(random, builder);
+            builder.append('\n');
+        }
+
+        if (random.nextInt(8) == 0) {
+            builder.append('\n');
+        }
+    }
+
+    private static void literal(Random random, StringBuilder builder) {
+        final int parts = random.nextInt(4);
+
+        for (int i = 0; i < parts; ++i) {
+            builder.append(random.nextInt(4) == 0 ? ESCAPES[random.nextInt(ESCAPES.length)] : WORDS[random.nextInt(WORDS.length)]);
+        }
+    }
+
+    private static void comments(Random random, StringBuilder builder, String indent) {
+        while (random.nextInt(4) == 0) {
+            builder.append(indent).append("# ").append(WORDS[random.nextInt(WORDS.length)]).append('\n');
+        }
+    }
+
+    private static String key(Random random, int index) {
+        // Mostly distinct keys, with the occasional duplicate.
+        return (random.nextBoolean() ? "key" : "kéy") + (random.nextInt(10) == 0 ? 0 : index);
+    }
+}
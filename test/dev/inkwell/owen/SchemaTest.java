@@ -0,0 +1,164 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.text.ParseException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reading a document against a schema must report the violation that checking its tree reports.
+ */
+public class SchemaTest {
+    private static final OwenSchema SERVER = new OwenSchema.Builder()
+            .require("host", OwenSchema.literal())
+            .optional("port", OwenSchema.integer(1, 65535))
+            .optional("weight", OwenSchema.number(0, 1))
+            .optional("enabled", OwenSchema.bool())
+            .optional("tags", OwenSchema.arrayOf(OwenSchema.literal("[a-z]+")))
+            .optional("limits", new OwenSchema.Builder().require("cpu", OwenSchema.number()).closed().build())
+            .optional("extra", OwenSchema.any())
+            .build();
+
+    @Test
+    public void valid() throws IOException, ParseException {
+        assertViolation(null, "host = h\nport = 80\nweight = 0.5\nenabled = true\ntags = [\n  a\n  b\n]\n"
+                + "limits = {\n  cpu = 2\n}\nextra = {\n  any = [\n    thing\n  ]\n}\nother = x\n");
+        assertViolation(null, "host = h\ntags = []\n");
+    }
+
+    @Test
+    public void violations() throws IOException, ParseException {
+        assertViolation("host: Missing required key", "port = 80\n");
+        assertViolation("port: Expected an integer from 1 to 65535. Found '0'", "host = h\nport = 0\n");
+        assertViolation("port: Expected an integer from 1 to 65535. Found 'x'", "host = h\nport = x\n");
+        assertViolation("weight: Expected a number from 0.0 to 1.0. Found 'NaN'", "host = h\nweight = NaN\n");
+        assertViolation("enabled: Expected a boolean. Found 'yes'", "host = h\nenabled = yes\n");
+        assertViolation("tags[1]: Expected a literal matching '[a-z]+'. Found 'B'", "host = h\ntags = [\n  a\n  B\n]\n");
+        assertViolation("tags: Expected an array. Found 'x'", "host = h\ntags = x\n");
+        assertViolation("host: Expected a literal. Found an object", "host = {\n  a = b\n}\n");
+        assertViolation("limits.mem: Unexpected key", "host = h\nlimits = {\n  cpu = 1\n  mem = 2\n}\n");
+        assertViolation("limits.cpu: Missing required key", "host = h\nlimits =\n");
+        assertViolation("Expected an array. Found an object", OwenSchema.arrayOf(OwenSchema.any()), "a = b\n", true);
+    }
+
+    /**
+     * The first violation in the document is reported, so the stream can stop there.
+     */
+    @Test
+    public void firstViolation() throws IOException, ParseException {
+        assertViolation("port: Expected an integer from 1 to 65535. Found '0'", "port = 0\ntags = [\n  B\n]\n");
+        assertViolation("limits.mem: Unexpected key", "host = h\nlimits = {\n  mem = 2\n}\n");
+    }
+
+    @Test
+    public void offsets() throws IOException, ParseException {
+        String document = "host = h\nport = 0\nnot = [valid\n";
+
+        try {
+            SERVER.read(new StringReader(document));
+            fail();
+        } catch (OwenSchema.ViolationException e) {
+            assertEquals("port", e.getPath());
+            assertTrue(e.getErrorOffset() <= document.indexOf("not"));
+        }
+    }
+
+    /**
+     * Documents with duplicated keys are left out, as their trees only hold the last occurrence.
+     */
+    @Test
+    public void randomDocuments() throws IOException, ParseException {
+        OwenSchema element = new OwenSchema.Builder().optional("key0", OwenSchema.integer()).build();
+        OwenSchema[] schemas = {
+                new OwenSchema.Builder()
+                        .optional("key0", OwenSchema.literal())
+                        .optional("kéy0", OwenSchema.arrayOf(OwenSchema.any()))
+                        .optional("key1", element)
+                        .build(),
+                new OwenSchema.Builder()
+                        .require("key0", OwenSchema.any())
+                        .optional("key1", OwenSchema.arrayOf(element))
+                        .build(),
+                new OwenSchema.Builder()
+                        .optional("key0", OwenSchema.number())
+                        .optional("key2", OwenSchema.arrayOf(OwenSchema.arrayOf(OwenSchema.literal())))
+                        .closed()
+                        .build(),
+                OwenSchema.arrayOf(OwenSchema.literal()),
+        };
+        Random random = new Random(20);
+        int valid = 0;
+
+        for (int i = 0; i < 500; ++i) {
+            String document = Samples.random(random, 3);
+
+            if (keys(new OwenReader(new StringReader(document))) != keys(Owen.parse(document))) {
+                continue;
+            }
+
+            for (OwenSchema schema : schemas) {
+                if (assertViolation(null, schema, document, false) == null) {
+                    ++valid;
+                }
+            }
+        }
+
+        assertTrue(valid > 0);
+    }
+
+    private static int keys(OwenReader reader) throws IOException, ParseException {
+        int keys = 0;
+        OwenReader.Event event;
+
+        while ((event = reader.next()) != OwenReader.Event.END_DOCUMENT) {
+            if (event == OwenReader.Event.KEY) ++keys;
+        }
+
+        return keys;
+    }
+
+    private static int keys(OwenElement element) {
+        int keys = element.isObject() ? element.asMap().size() : 0;
+
+        if (element.isCompound()) {
+            for (OwenElement child : element.isObject() ? element.asMap().values() : element.asList()) {
+                keys += keys(child);
+            }
+        }
+
+        return keys;
+    }
+
+    private static void assertViolation(String expected, String document) throws IOException, ParseException {
+        assertViolation(expected, SERVER, document, true);
+    }
+
+    /**
+     * @return the violation of the tree, after checking that reading reports it too, and that it is the expected
+     * one if {@code exact}
+     */
+    private static OwenSchema.Violation assertViolation(String expected, OwenSchema schema, String document, boolean exact)
+            throws IOException, ParseException {
+        OwenElement tree = Owen.parse(document);
+        OwenSchema.Violation violation = schema.validate(tree);
+
+        if (exact) {
+            assertEquals(document, expected, violation == null ? null : violation.toString());
+        }
+
+        try {
+            assertEquals(document, tree, schema.read(new StringReader(document)));
+            assertNull(document, violation);
+        } catch (OwenSchema.ViolationException e) {
+            assertNotNull(document, violation);
+            assertEquals(document, violation.toString(), e.getMessage());
+            assertEquals(document, violation.getPath(), e.getPath());
+        }
+
+        return violation;
+    }
+}
@@ -0,0 +1,103 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * After every edit, the tree of a source must be the one a full parse of its text builds.
+ */
+public class SourceTest {
+    private static final String NESTED = Samples.DOCUMENTS[2];
+    private static final String[] INSERTS = {"", "x", "1", " ", "\n", "=", " = ", "{", "}", "[", "]", "# c\n", "\\",
+            "k = v\n", "a = {\n  b = c\n}\n", "[\n  d\n]\n", "key0 = 2\n"};
+
+    @Test
+    public void editsInPlace() throws ParseException {
+        OwenSource source = Owen.parseSource(NESTED);
+        OwenElement root = source.getRoot();
+        OwenElement server = root.get("server");
+        int offset = NESTED.indexOf("8080");
+
+        assertSame(server, source.edit(offset, 4, "9090"));
+        assertSame(root, source.getRoot());
+        assertEquals("9090", root.get("server").get("port").asString());
+
+        OwenElement tags = server.get("tags");
+
+        offset = source.getText().indexOf("    b\n");
+
+        assertSame(tags, source.edit(offset + 4, 1, "bee"));
+        assertSame(server, root.get("server"));
+        assertEquals("bee", tags.get(1).asString());
+        assertEquals(Owen.parse(source.getText()), source.getRoot());
+    }
+
+    @Test
+    public void bracesReparseOutward() throws ParseException {
+        OwenSource source = Owen.parseSource(NESTED);
+        OwenElement root = source.getRoot();
+
+        assertSame(root, source.edit(NESTED.indexOf("  tags"), 0, "}\nmoved = {\n"));
+        assertEquals(Owen.parse(source.getText()), root);
+        assertEquals("x", root.get("moved").get("tags").get(3).get(0).asString());
+    }
+
+    @Test
+    public void failedEditsChangeNothing() throws ParseException {
+        OwenSource source = Owen.parseSource(NESTED);
+        OwenElement root = source.getRoot();
+
+        try {
+            source.edit(NESTED.indexOf("server"), 0, "{");
+            fail();
+        } catch (ParseException e) {
+            assertEquals(NESTED, source.getText());
+            assertSame(root, source.getRoot());
+            assertEquals(Owen.parse(NESTED), root);
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBounds() throws ParseException {
+        Owen.parseSource(NESTED).edit(NESTED.length(), 1, "");
+    }
+
+    @Test
+    public void randomEdits() throws ParseException {
+        Random random = new Random(15);
+
+        for (int i = 0; i < 100; ++i) {
+            OwenSource source = Owen.parseSource(Samples.random(random, 3));
+
+            for (int j = 0; j < 30; ++j) {
+                String text = source.getText();
+                int offset = random.nextInt(text.length() + 1);
+                int removed = random.nextInt(Math.min(4, text.length() - offset) + 1);
+                String inserted = INSERTS[random.nextInt(INSERTS.length)];
+                String edited = text.substring(0, offset) + inserted + text.substring(offset + removed);
+                OwenElement expected;
+
+                try {
+                    expected = Owen.parse(edited);
+                } catch (ParseException e) {
+                    expected = null;
+                }
+
+                try {
+                    source.edit(offset, removed, inserted);
+                    assertNotNull(edited, expected);
+                    assertEquals(edited, edited, source.getText());
+                    assertEquals(edited, expected, source.getRoot());
+                } catch (ParseException e) {
+                    assertNull(edited, expected);
+                    assertEquals(text, source.getText());
+                    assertEquals(text, Owen.parse(text), source.getRoot());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Updates must return values that hold what the same updates to a list or map hold, and leave the originals as they were.
+ */
+public class ValueTest {
+    @Test
+    public void objects() {
+        OwenValue empty = OwenValue.object();
+        OwenValue one = empty.with("a", "1");
+        OwenValue two = one.with("b", "2");
+        OwenValue replaced = two.with("a", "3");
+
+        assertEquals(0, empty.size());
+        assertEquals(Collections.singletonList("a"), new ArrayList<>(one.asMap().keySet()));
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(replaced.asMap().keySet()));
+        assertEquals("1", two.get("a").asString());
+        assertEquals("3", replaced.get("a").asString());
+        assertEquals("1", two.without("b").get("a").asString());
+        assertNull(two.without("a").get("a"));
+        assertSame(two, two.without("none"));
+        assertSame(one.get("a"), two.get("a"));
+        assertEquals(2, two.size());
+    }
+
+    @Test
+    public void arrays() {
+        OwenValue array = OwenValue.array(OwenValue.literal("a"), OwenValue.literal("b"));
+        OwenValue plus = array.plus(OwenValue.literal("c"));
+
+        assertEquals(strings("a", "b"), strings(array));
+        assertEquals(strings("a", "b", "c"), strings(plus));
+        assertEquals(strings("x", "a", "b"), strings(array.plus(0, OwenValue.literal("x"))));
+        assertEquals(strings("a", "x", "b"), strings(array.plus(1, OwenValue.literal("x"))));
+        assertEquals(strings("a", "b", "x"), strings(array.plus(2, OwenValue.literal("x"))));
+        assertEquals(strings("a", "x"), strings(array.with(1, OwenValue.literal("x"))));
+        assertEquals(strings("b", "c"), strings(plus.minus(0)));
+        assertEquals(strings("a", "b"), strings(plus.minus(2)));
+        assertEquals(strings("a", "b"), strings(array));
+    }
+
+    @Test
+    public void emptyValues() {
+        assertSame(OwenValue.empty(), OwenValue.literal(""));
+        assertEquals(strings("a"), strings(OwenValue.empty().plus(OwenValue.literal("a"))));
+        assertEquals("1", OwenValue.empty().with("a", "1").get("a").asString());
+        assertNull(OwenValue.empty().get("a"));
+        assertTrue(OwenValue.empty().asList().isEmpty());
+    }
+
+    @Test
+    public void invalidUpdates() {
+        OwenValue array = OwenValue.array(OwenValue.literal("a"));
+        Runnable[] updates = {
+                () -> array.with(1, OwenValue.literal("x")),
+                () -> array.plus(2, OwenValue.literal("x")),
+                () -> array.minus(-1),
+                () -> array.get(1),
+        };
+
+        for (Runnable update : updates) {
+            try {
+                update.run();
+                fail();
+            } catch (IndexOutOfBoundsException e) {
+                assertTrue(e.getMessage().startsWith("Index: "));
+            }
+        }
+
+        try {
+            array.with("key", "value");
+            fail();
+        } catch (RuntimeException e) {
+            assertEquals("Cannot put element in non-Object element!", e.getMessage());
+        }
+
+        try {
+            OwenValue.object().plus(OwenValue.literal("x"));
+            fail();
+        } catch (RuntimeException e) {
+            assertEquals("Cannot add element to non-Array element!", e.getMessage());
+        }
+    }
+
+    /**
+     * Sizes are chosen to cross a full tail of 32, a full first level at 1056, and a second level at 32800.
+     */
+    @Test
+    public void vectorGrowth() {
+        List<String> expected = new ArrayList<>();
+        OwenValue array = OwenValue.array();
+        OwenValue[] snapshots = new OwenValue[3];
+        List<List<String>> snapshotted = new ArrayList<>();
+        int[] sizes = {32, 1056, 32800};
+
+        for (int i = 0; i < 33000; ++i) {
+            for (int s = 0; s < sizes.length; ++s) {
+                if (i == sizes[s]) {
+                    snapshots[s] = array;
+                    snapshotted.add(new ArrayList<>(expected));
+                    assertEquals(expected, strings(array));
+                }
+            }
+
+            array = array.plus(OwenValue.literal(Integer.toString(i)));
+            expected.add(Integer.toString(i));
+        }
+
+        assertEquals(expected, strings(array));
+
+        Random random = new Random(17);
+
+        for (int i = 0; i < 2000; ++i) {
+            int index = random.nextInt(expected.size());
+            String value = "v" + i;
+
+            array = array.with(index, OwenValue.literal(value));
+            expected.set(index, value);
+        }
+
+        assertEquals(expected, strings(array));
+
+        for (int s = 0; s < sizes.length; ++s) {
+            assertEquals(snapshotted.get(s), strings(snapshots[s]));
+        }
+    }
+
+    @Test
+    public void randomUpdates() {
+        Random random = new Random(17);
+        List<String> list = new ArrayList<>();
+        Map<String, String> map = new LinkedHashMap<>();
+        OwenValue array = OwenValue.array();
+        OwenValue object = OwenValue.object();
+
+        for (int i = 0; i < 5000; ++i) {
+            String value = Integer.toString(i);
+            int index = list.isEmpty() ? 0 : random.nextInt(list.size());
+            // "Aa" and "BB" share a hash code, as do all keys made of them.
+            String key = random.nextInt(8) == 0 ? (random.nextBoolean() ? "AaBB" : "BBAa") : "key" + random.nextInt(600);
+
+            switch (random.nextInt(6)) {
+                case 0:
+                    list.add(index, value);
+                    array = array.plus(index, OwenValue.literal(value));
+                    break;
+                case 1:
+                    if (!list.isEmpty()) {
+                        list.remove(index);
+                        array = array.minus(index);
+                    }
+                    break;
+                case 2:
+                    if (!list.isEmpty()) {
+                        list.set(index, value);
+                        array = array.with(index, OwenValue.literal(value));
+                    }
+                    break;
+                case 3:
+                    map.remove(key);
+                    object = object.without(key);
+                    break;
+                default:
+                    list.add(value);
+                    array = array.plus(OwenValue.literal(value));
+                    map.put(key, value);
+                    object = object.with(key, value);
+            }
+
+            if (i % 250 == 0) {
+                assertEquals(list, strings(array));
+                assertEquals(map, strings(object.asMap()));
+            }
+        }
+
+        assertEquals(list, strings(array));
+        assertEquals(map, strings(object.asMap()));
+        assertEquals(map.size(), object.size());
+
+        for (String key : map.keySet()) {
+            assertEquals(map.get(key), object.get(key).asString());
+        }
+    }
+
+    @Test
+    public void elements() throws ParseException {
+        Random random = new Random(17);
+
+        for (int i = 0; i < 200; ++i) {
+            OwenElement element = Owen.parse(i < Samples.DOCUMENTS.length ? Samples.DOCUMENTS[i] : Samples.random(random, 4));
+
+            assertEquals(element, OwenValue.of(element).toElement());
+        }
+    }
+
+    private static List<String> strings(String... strings) {
+        return Arrays.asList(strings);
+    }
+
+    private static List<String> strings(OwenValue array) {
+        List<String> strings = new ArrayList<>();
+
+        for (OwenValue value : array.asList()) {
+            strings.add(value.asString());
+        }
+
+        return strings;
+    }
+
+    private static Map<String, String> strings(Map<String, OwenValue> map) {
+        Map<String, String> strings = new LinkedHashMap<>();
+
+        for (Map.Entry<String, OwenValue> entry : map.entrySet()) {
+            strings.put(entry.getKey(), entry.getValue().asString());
+        }
+
+        return strings;
+    }
+}
@@ -0,0 +1,154 @@
+package dev.inkwell.owen;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The written form of a tree must not change: output is compared byte for byte against what earlier releases wrote.
+ */
+public class WriterTest {
+    private static final String NESTED = Samples.DOCUMENTS[2];
+
+    @Test
+    public void spacious() throws ParseException {
+        assertEquals("# top\nname=owen\nversion=1.0\n\n# nested\nserver={\n  host=localhost\n\n  # the port\n  port=8080\n"
+                        + "  tags=[\n    a\n    # second\n    b\n    {\n      deep=yes\n    }\n    [\n      x\n    ]\n  ]\n}\n\n"
+                        + "empty=\nlist=\nafter=x\n",
+                new Owen.Builder().build().toString(Owen.parse(NESTED)));
+    }
+
+    @Test
+    public void compact() throws ParseException {
+        assertEquals("# top\nname=owen\nversion=1.0\n# nested\nserver={\n  host=localhost\n  # the port\n  port=8080\n"
+                        + "  tags=[\n    a\n    # second\n    b\n    {\n      deep=yes\n    }\n    [\n      x\n    ]\n  ]\n}\n"
+                        + "empty=\nlist=\nafter=x\n",
+                new Owen.Builder().compact().build().toString(Owen.parse(NESTED)));
+    }
+
+    @Test
+    public void indentAndCommentSpacing() throws ParseException {
+        assertEquals("#top\nname=owen\nversion=1.0\n\n#nested\nserver={\n\thost=localhost\n\n\t#the port\n\tport=8080\n"
+                        + "\ttags=[\n\t\ta\n\t\t#second\n\t\tb\n\t\t{\n\t\t\tdeep=yes\n\t\t}\n\t\t[\n\t\t\tx\n\t\t]\n\t]\n}\n\n"
+                        + "empty=\nlist=\nafter=x\n",
+                new Owen.Builder().indent("\t").commentSpacing("").build().toString(Owen.parse(NESTED)));
+    }
+
+    @Test
+    public void escapes() {
+        OwenElement element = Owen.object("hash", "a#b", "escaped", "a\\#b", "newline", "line1\nline2", "lead", "#start");
+
+        element.put("doubled", "a##b");
+        element.put("empty", "");
+        element.put("array", Owen.array("1", "two words", "x#y"));
+
+        assertEquals("hash=a\\#b\nescaped=a\\#b\nnewline=line1\\nline2\nlead=#start\ndoubled=a\\##b\nempty=\n"
+                        + "array=[\n  1\n  two words\n  x\\#y\n]\n",
+                new Owen.Builder().build().toString(element));
+    }
+
+    @Test
+    public void sinksAgree() throws IOException, ParseException {
+        Owen owen = new Owen.Builder().build();
+        Random random = new Random(2);
+        Path file = Files.createTempFile("owen-test", ".owen");
+
+        try {
+            for (int i = 0; i < 200; ++i) {
+                OwenElement element = Owen.parse(Samples.random(random, 4));
+
+                if (!element.isObject()) {
+                    continue;
+                }
+
+                String expected = owen.toString(element);
+                StringWriter writer = new StringWriter();
+                StringBuilder builder = new StringBuilder();
+
+                owen.write(element, writer);
+                owen.writer(builder).document(element);
+                owen.write(element, file);
+
+                assertEquals(expected, writer.toString());
+                assertEquals(expected, builder.toString());
+                assertEquals(expected, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void closesSinkWhenUnbalanced() throws IOException {
+        final boolean[] closed = {false};
+        StringWriter sink = new StringWriter() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        OwenWriter writer = new Owen.Builder().build().writer(sink);
+
+        writer.key("open").beginObject();
+
+        try {
+            writer.close();
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(closed[0]);
+        }
+    }
+
+    /**
+     * The digest of the output written for random trees, as written before the writer was optimized.
+     */
+    @Test
+    public void randomTrees() throws ParseException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        Random random = new Random(4);
+
+        for (Owen owen : new Owen[] {new Owen.Builder().build(), new Owen.Builder().compact().build()}) {
+            for (int i = 0; i < 300; ++i) {
+                OwenElement element = Owen.parse(Samples.random(random, 4));
+
+                if (element.isObject()) {
+                    digest.update(owen.toString(element).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        for (byte b : digest.digest()) {
+            builder.append(String.format("%02x", b));
+        }
+
+        assertEquals("8716d39cde8ff069e94f54405cd4d7281906b661df88b07d8417b148d047eac3", builder.toString());
+    }
+
+    /**
+     * Backslashes are written as they are, so documents with escapes are left out.
+     */
+    @Test
+    public void readBack() throws ParseException {
+        Owen owen = new Owen.Builder().build();
+
+        for (String document : Samples.DOCUMENTS) {
+            OwenElement element = Owen.parse(document);
+
+            if (element.isObject() && document.indexOf('\\') < 0) {
+                assertEquals(document, element, Owen.parse(owen.toString(element)));
+            }
+        }
+    }
+}